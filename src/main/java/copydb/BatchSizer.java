@@ -0,0 +1,130 @@
+package copydb;
+
+/**
+ * Chooses the number of rows per batch for a table.
+ * <p>
+ * A fixed sizer always returns the configured size. An adaptive sizer measures
+ * the throughput of full batches (execute and commit) over a few batches at a
+ * time and moves the batch size within its bounds in the direction that
+ * improved throughput, reversing when throughput drops. Batches slower than the latency limit are halved
+ * regardless, so tables with large rows settle on small batches.
+ * <p>
+ * Chunks of a table share the sizer of the table.
+ */
+class BatchSizer {
+
+    /**
+     * Throughput must change by this fraction to count as better or worse.
+     */
+    private static final double TOLERANCE = 0.1;
+
+    /**
+     * Number of batches measured before changing the size, to smooth out noise.
+     */
+    private static final int SAMPLES = 3;
+
+    private final int min;
+    private final int max;
+    private final long maxLatencyNanos;
+    private final boolean adaptive;
+
+    private volatile int size;
+    private int direction = 1;
+    private double lastRate;
+    private double rate;
+    private int changes;
+    private int samples;
+    private long sampleRows;
+    private long sampleNanos;
+
+    private BatchSizer(int size, int min, int max, long maxLatencyMillis, boolean adaptive) {
+        this.min = Math.max(min, 1);
+        this.max = Math.max(max, this.min);
+        this.maxLatencyNanos = maxLatencyMillis * 1_000_000;
+        this.adaptive = adaptive;
+        this.size = clamp(size);
+    }
+
+    static BatchSizer fixed(int size) {
+        return new BatchSizer(size, size, size, 0, false);
+    }
+
+    static BatchSizer adaptive(int initial, int min, int max, long maxLatencyMillis) {
+        return new BatchSizer(initial, min, max, maxLatencyMillis, true);
+    }
+
+    /**
+     * Number of rows to put into the next batch.
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Record the time taken to write a batch.
+     *
+     * @param rows number of rows in the batch, which should be a full batch
+     * @param nanos time taken to execute and commit the batch
+     */
+    synchronized void record(int rows, long nanos) {
+        if (!adaptive || rows <= 0 || nanos <= 0) {
+            return;
+        }
+
+        int next;
+        if (maxLatencyNanos > 0 && nanos > maxLatencyNanos) {
+            rate = rows * 1e9 / nanos;
+            direction = -1;
+            next = size / 2;
+        } else {
+            sampleRows += rows;
+            sampleNanos += nanos;
+            if (++samples < SAMPLES) {
+                return;
+            }
+            rate = sampleRows * 1e9 / sampleNanos;
+            next = nextSize();
+        }
+
+        samples = 0;
+        sampleRows = 0;
+        sampleNanos = 0;
+        lastRate = rate;
+        next = clamp(next);
+        if (next != size) {
+            changes++;
+            CopyDb.LOG.debug("Batch size {} -> {} ({} rows/s)", size, next, (long) rate);
+            size = next;
+        }
+    }
+
+    private int nextSize() {
+        if (lastRate == 0 || rate > lastRate * (1 + TOLERANCE)) {
+            return direction > 0 ? size * 2 : size / 2;
+        } else if (rate < lastRate * (1 - TOLERANCE)) {
+            direction = -direction;
+            return direction > 0 ? size * 2 : size / 2;
+        } else {
+            return size;
+        }
+    }
+
+    /**
+     * Throughput of the last measured batches in rows per second.
+     */
+    synchronized long getRate() {
+        return (long) rate;
+    }
+
+    synchronized int getChanges() {
+        return changes;
+    }
+
+    private int clamp(int n) {
+        return Math.max(min, Math.min(max, n));
+    }
+}
@@ -0,0 +1,102 @@
+package copydb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of a copy recorded in a file, so that a failed copy can be resumed.
+ * <p>
+ * Each table, or chunk of a table, is recorded as done or with the last key committed.
+ * A key is only recorded for rows read in key order. Keys are written at most once per
+ * second, so the file may lag behind the target. Resuming therefore deletes target rows
+ * after the recorded key before continuing, which also covers rows committed after the
+ * last write of the file.
+ */
+class Checkpoint {
+
+    private static final String DONE = "done";
+    private static final long WRITE_INTERVAL_MILLIS = 1000;
+
+    private final Path file;
+    private final Properties entries = new Properties();
+    private long lastWrite;
+
+    private Checkpoint(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Start recording progress, replacing the progress of an earlier copy.
+     */
+    static Checkpoint create(Path file) throws IOException {
+        var checkpoint = new Checkpoint(file);
+        checkpoint.write();
+        return checkpoint;
+    }
+
+    /**
+     * Continue recording the progress of an earlier copy.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is no earlier copy to resume
+     */
+    static Checkpoint resume(Path file) throws IOException {
+        var checkpoint = new Checkpoint(file);
+        try (var in = Files.newBufferedReader(file)) {
+            checkpoint.entries.load(in);
+        }
+        return checkpoint;
+    }
+
+    synchronized boolean isDone(CopyTask task) {
+        return DONE.equals(entries.getProperty(keyOf(task)));
+    }
+
+    /**
+     * The last key committed for a table or chunk.
+     *
+     * @return key or null if none was recorded
+     */
+    synchronized Object getLastKey(CopyTask task) {
+        var value = entries.getProperty(keyOf(task));
+        return value == null || DONE.equals(value) ? null : ValueCodec.decode(value);
+    }
+
+    /**
+     * Record the last key of rows committed in key order.
+     */
+    synchronized void committed(CopyTask task, Object key) {
+        entries.setProperty(keyOf(task), ValueCodec.encode(key));
+        if (System.currentTimeMillis() - lastWrite >= WRITE_INTERVAL_MILLIS) {
+            write();
+        }
+    }
+
+    synchronized void done(CopyTask task) {
+        entries.setProperty(keyOf(task), DONE);
+        write();
+    }
+
+    private void write() {
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (var out = Files.newBufferedWriter(tmp)) {
+                entries.store(out, "copydb checkpoint");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + file, e);
+        }
+        lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * Chunks are identified by their key range, so that progress is only applied to the same range.
+     */
+    private static String keyOf(CopyTask task) {
+        return task.range != null ? task.getName() + " " + task.range : task.getName();
+    }
+}
@@ -0,0 +1,126 @@
+package copydb;
+
+import java.util.Locale;
+
+/**
+ * When to commit rows written to the target, specified as one of:
+ * <ul>
+ *     <li>{@code batch} after every batch (the default)</li>
+ *     <li>{@code batches:N} after every N batches</li>
+ *     <li>{@code bytes:SIZE} after batches adding up to SIZE bytes, e.g. {@code bytes:256M}</li>
+ *     <li>{@code seconds:N} after the first batch at least N seconds after the last commit</li>
+ *     <li>{@code table} once at the end of each table or chunk</li>
+ *     <li>{@code run} once at the end of the run, on each target connection</li>
+ * </ul>
+ * Rows that are not committed when copying fails are rolled back.
+ */
+final class CommitPolicy {
+
+    enum Kind {
+        BATCH,
+        BATCHES,
+        BYTES,
+        SECONDS,
+        TABLE,
+        RUN
+    }
+
+    static final CommitPolicy BATCH = new CommitPolicy(Kind.BATCH, 1);
+    static final CommitPolicy TABLE = new CommitPolicy(Kind.TABLE, 1);
+
+    final Kind kind;
+    final long n;
+
+    private CommitPolicy(Kind kind, long n) {
+        this.kind = kind;
+        this.n = n;
+    }
+
+    static CommitPolicy parse(String s) {
+        var kv = s.trim().split("\\s*:\\s*", 2);
+        Kind kind;
+        try {
+            kind = Kind.valueOf(kv[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid commit policy: " + s
+                + ", expected batch, batches:N, bytes:SIZE, seconds:N, table or run");
+        }
+
+        return switch (kind) {
+            case BATCHES, SECONDS -> new CommitPolicy(kind, Long.parseLong(value(kind, kv)));
+            case BYTES -> new CommitPolicy(kind, StringUtil.parseSize(value(kind, kv)));
+            default -> new CommitPolicy(kind, 1);
+        };
+    }
+
+    private static String value(Kind kind, String[] kv) {
+        if (kv.length != 2) {
+            throw new IllegalArgumentException("Commit policy " + kind.name().toLowerCase(Locale.ROOT) + " requires a value");
+        }
+        return kv[1];
+    }
+
+    /**
+     * Test if rows are committed at the end of each table or chunk.
+     */
+    boolean commitsTable() {
+        return kind != Kind.RUN;
+    }
+
+    /**
+     * Start tracking batches of a table or chunk.
+     */
+    Tracker start() {
+        return new Tracker();
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case BATCH -> "every batch";
+            case BATCHES -> "every " + n + " batches";
+            case BYTES -> "every " + n + " bytes";
+            case SECONDS -> "every " + n + " seconds";
+            case TABLE -> "once per table";
+            case RUN -> "once per run";
+        };
+    }
+
+    class Tracker {
+
+        private int batches;
+        private long bytes;
+        private long lastCommit = System.nanoTime();
+
+        /**
+         * Record a batch that has been executed.
+         *
+         * @return true if rows should be committed now
+         */
+        boolean afterBatch(long batchBytes) {
+            batches++;
+            bytes += batchBytes;
+            boolean commit = switch (kind) {
+                case BATCH -> true;
+                case BATCHES -> batches >= n;
+                case BYTES -> bytes >= n;
+                case SECONDS -> System.nanoTime() - lastCommit >= n * 1_000_000_000L;
+                case TABLE, RUN -> false;
+            };
+
+            if (commit) {
+                batches = 0;
+                bytes = 0;
+                lastCommit = System.nanoTime();
+            }
+            return commit;
+        }
+
+        /**
+         * Test if there are executed batches that have not been committed.
+         */
+        boolean isPending() {
+            return batches > 0;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package copydb;
 
+import copydb.convert.BatchInsertWriter;
 import copydb.convert.ColumnDescriptor;
 import copydb.convert.Converters;
+import copydb.convert.DatabaseSupport;
+import copydb.convert.MultiRowInsertWriter;
+import copydb.convert.RowWriter;
 import liquibase.CatalogAndSchema;
 import liquibase.Contexts;
 import liquibase.LabelExpression;
@@ -9,6 +13,8 @@ import liquibase.Liquibase;
 import liquibase.Scope;
 import liquibase.Scope.ScopedRunner;
 import liquibase.Scope.ScopedRunnerWithReturn;
+import liquibase.change.AddColumnConfig;
+import liquibase.change.core.AddForeignKeyConstraintChange;
 import liquibase.change.core.AddUniqueConstraintChange;
 import liquibase.change.core.CreateIndexChange;
 import liquibase.change.core.CreateSequenceChange;
@@ -37,11 +43,15 @@ import liquibase.resource.ResourceAccessor;
 import liquibase.resource.SearchPathResourceAccessor;
 import liquibase.serializer.core.xml.XMLChangeLogSerializer;
 import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.EmptyDatabaseSnapshot;
 import liquibase.snapshot.SnapshotControl;
 import liquibase.snapshot.SnapshotGeneratorFactory;
+import liquibase.sqlgenerator.SqlGeneratorFactory;
 import liquibase.statement.DatabaseFunction;
 import liquibase.statement.SqlStatement;
+import liquibase.statement.core.CreateIndexStatement;
 import liquibase.statement.core.CreateSequenceStatement;
+import liquibase.statement.core.DropIndexStatement;
 import liquibase.statement.core.DropSequenceStatement;
 import liquibase.statement.core.RawParameterizedSqlStatement;
 import liquibase.structure.DatabaseObject;
@@ -49,14 +59,19 @@ import liquibase.structure.core.Catalog;
 import liquibase.structure.core.Column;
 import liquibase.structure.core.DatabaseObjectFactory;
 import liquibase.structure.core.ForeignKey;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.PrimaryKey;
 import liquibase.structure.core.Schema;
 import liquibase.structure.core.Sequence;
 import liquibase.structure.core.Table;
+import liquibase.util.LiquibaseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URI;
@@ -65,33 +80,75 @@ import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static copydb.StringUtil.parseBoolean;
 import static copydb.StringUtil.parseInt;
+import static copydb.StringUtil.parseSize;
 import static copydb.StringUtil.trimToNull;
 import static liquibase.util.StringUtil.processMultiLineSQL;
 
 public class CopyDb {
 
+    /**
+     * How the number of rows in the source tables is determined for progress reporting,
+     * ordering tables by size and splitting tables into chunks.
+     */
+    public enum RowCount {
+        /**
+         * Use the row count estimated by database statistics, which is cheap but may be inaccurate or missing.
+         */
+        ESTIMATE,
+        /**
+         * Count rows with {@code SELECT COUNT(*)}, which scans each table.
+         */
+        EXACT,
+        /**
+         * Do not count rows unless required for splitting tables into chunks.
+         */
+        NONE
+    }
+
     static final Logger LOG = LoggerFactory.getLogger(CopyDb.class.getSimpleName());
+
+    /**
+     * Adaptive batch sizes are halved when writing a batch takes longer than this.
+     */
+    private static final long MAX_BATCH_LATENCY_MILLIS = 2000;
+
     private static final Logger SQL_LOG = LoggerFactory.getLogger("sql");
 
     private final JdbcProperties source;
     private final JdbcProperties target;
     private String changelog;
     private String resolvedChangelog;
+
+    /**
+     * Part of a generated changelog run after copying, creating indexes and constraints, or null if none.
+     */
+    private String postDataChangelog;
     private ResourceAccessor resourceAccessor;
     private final ObjectFilter tableFilter = new ObjectFilter(true);
     private final ObjectFilter sequenceFilter = new ObjectFilter(false);
@@ -101,7 +158,40 @@ public class CopyDb {
     private boolean disableForeignKeys = true;
     private boolean disableTriggers = true;
     private boolean logSql = true;
-    private int batchSize = 500;
+    private TableOption<Integer> batchSize = new TableOption<>(500);
+    private boolean adaptiveBatchSize;
+    private int minBatchSize = 100;
+    private int maxBatchSize = 50000;
+    private TableOption<Long> batchBytes = new TableOption<>(32L << 20);
+    private long maxMemory = Runtime.getRuntime().maxMemory() / 4;
+    private MemoryGovernor memory = new MemoryGovernor(0);
+    private TableOption<CommitPolicy> commitPolicy = new TableOption<>(CommitPolicy.BATCH);
+    private int parallel = 1;
+    private TableOption<Long> chunkThreshold = new TableOption<>(0L);
+    private int chunks;
+    private TableOption<Integer> fetchSize = new TableOption<>(0);
+    private boolean pipeline;
+    private int queueDepth = 4;
+    private boolean bulkLoad;
+    private TableOption<Integer> rowsPerInsert = new TableOption<>(1);
+    private String spoolDir;
+    private TableOption<Integer> pageSize = new TableOption<>(0);
+    private String checkpointFile;
+    private boolean resume;
+    private Checkpoint checkpoint;
+    private TableOption<String> incremental = new TableOption<>(null);
+    private String watermarksFile;
+    private Watermarks watermarks;
+    private boolean sync;
+    private boolean verify;
+    private boolean deferIndexes;
+    private String indexFile = "copydb-indexes.sql";
+    private DeferredIndexes deferredIndexes;
+    private String snapshotCache;
+    private boolean refreshSnapshotCache;
+    private boolean lazyMetadata;
+    private String verifyReport;
+    private RowCount rowCount = RowCount.ESTIMATE;
     private String tag;
     private String contexts;
     private String labelFilter;
@@ -133,7 +223,36 @@ public class CopyDb {
         searchPath = config.getProperty("search-path", searchPath);
 
         logSql = parseBoolean(config.getProperty("logging.sql"), logSql);
-        batchSize = parseInt(config.getProperty("batch-size"), batchSize);
+        batchSize.load(config.getProperty("batch-size"), Integer::parseInt);
+        adaptiveBatchSize = parseBoolean(config.getProperty("adaptive-batch-size"), adaptiveBatchSize);
+        minBatchSize = parseInt(config.getProperty("min-batch-size"), minBatchSize);
+        maxBatchSize = parseInt(config.getProperty("max-batch-size"), maxBatchSize);
+        batchBytes.load(config.getProperty("batch-bytes"), StringUtil::parseSize);
+        maxMemory = parseSize(config.getProperty("max-memory"), maxMemory);
+        commitPolicy.load(config.getProperty("commit"), CommitPolicy::parse);
+        parallel = parseInt(config.getProperty("parallel"), parallel);
+        chunkThreshold.load(config.getProperty("chunk-threshold"), Long::parseLong);
+        chunks = parseInt(config.getProperty("chunks"), chunks);
+        fetchSize.load(config.getProperty("fetch-size"), Integer::parseInt);
+        pipeline = parseBoolean(config.getProperty("pipeline"), pipeline);
+        queueDepth = parseInt(config.getProperty("queue-depth"), queueDepth);
+        bulkLoad = parseBoolean(config.getProperty("bulk-load"), bulkLoad);
+        rowsPerInsert.load(config.getProperty("rows-per-insert"), Integer::parseInt);
+        spoolDir = config.getProperty("spool-dir", spoolDir);
+        pageSize.load(config.getProperty("page-size"), Integer::parseInt);
+        checkpointFile = config.getProperty("checkpoint", checkpointFile);
+        resume = parseBoolean(config.getProperty("resume"), resume);
+        incremental.load(config.getProperty("incremental"), StringUtil::trimToNull);
+        watermarksFile = config.getProperty("watermarks", watermarksFile);
+        sync = parseBoolean(config.getProperty("sync"), sync);
+        verify = parseBoolean(config.getProperty("verify"), verify);
+        verifyReport = config.getProperty("verify-report", verifyReport);
+        deferIndexes = parseBoolean(config.getProperty("defer-indexes"), deferIndexes);
+        indexFile = config.getProperty("index-file", indexFile);
+        snapshotCache = config.getProperty("snapshot-cache", snapshotCache);
+        refreshSnapshotCache = parseBoolean(config.getProperty("refresh-snapshot-cache"), refreshSnapshotCache);
+        lazyMetadata = parseBoolean(config.getProperty("lazy-metadata"), lazyMetadata);
+        rowCount = parseRowCount(config.getProperty("row-count"), rowCount);
         truncate = parseBoolean(config.getProperty("truncate"), truncate);
         dropFirst = parseBoolean(config.getProperty("drop-first"), dropFirst);
         disableForeignKeys = parseBoolean(config.getProperty("disable-foreign-keys"), disableForeignKeys);
@@ -236,11 +355,259 @@ public class CopyDb {
     }
 
     public int getBatchSize() {
-        return batchSize;
+        return batchSize.getDefault();
     }
 
     public void setBatchSize(int batchSize) {
-        this.batchSize = batchSize;
+        this.batchSize.setDefault(batchSize);
+    }
+
+    public boolean isAdaptiveBatchSize() {
+        return adaptiveBatchSize;
+    }
+
+    public void setAdaptiveBatchSize(boolean adaptiveBatchSize) {
+        this.adaptiveBatchSize = adaptiveBatchSize;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getBatchBytes() {
+        return batchBytes.getDefault();
+    }
+
+    public void setBatchBytes(long batchBytes) {
+        this.batchBytes.setDefault(batchBytes);
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public String getCommitPolicy() {
+        return commitPolicy.getDefault().toString();
+    }
+
+    /**
+     * Set the commit policy for all tables, e.g. {@code batches:10} or {@code table}.
+     */
+    public void setCommitPolicy(String commitPolicy) {
+        this.commitPolicy.setDefault(CommitPolicy.parse(commitPolicy));
+    }
+
+    public int getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(int parallel) {
+        this.parallel = parallel;
+    }
+
+    public long getChunkThreshold() {
+        return chunkThreshold.getDefault();
+    }
+
+    public void setChunkThreshold(long chunkThreshold) {
+        this.chunkThreshold.setDefault(chunkThreshold);
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public int getFetchSize() {
+        return fetchSize.getDefault();
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize.setDefault(fetchSize);
+    }
+
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(boolean pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public boolean isBulkLoad() {
+        return bulkLoad;
+    }
+
+    public void setBulkLoad(boolean bulkLoad) {
+        this.bulkLoad = bulkLoad;
+    }
+
+    public int getRowsPerInsert() {
+        return rowsPerInsert.getDefault();
+    }
+
+    public void setRowsPerInsert(int rowsPerInsert) {
+        this.rowsPerInsert.setDefault(rowsPerInsert);
+    }
+
+    public String getSpoolDir() {
+        return spoolDir;
+    }
+
+    public void setSpoolDir(String spoolDir) {
+        this.spoolDir = trimToNull(spoolDir);
+    }
+
+    public int getPageSize() {
+        return pageSize.getDefault();
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize.setDefault(pageSize);
+    }
+
+    public String getCheckpoint() {
+        return checkpointFile;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpointFile = trimToNull(checkpoint);
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public String getIncremental() {
+        return incremental.getDefault();
+    }
+
+    public void setIncremental(String watermarkColumn) {
+        this.incremental.setDefault(trimToNull(watermarkColumn));
+    }
+
+    public String getWatermarks() {
+        return watermarksFile;
+    }
+
+    public void setWatermarks(String watermarks) {
+        this.watermarksFile = trimToNull(watermarks);
+    }
+
+    public boolean isSync() {
+        return sync;
+    }
+
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    public String getVerifyReport() {
+        return verifyReport;
+    }
+
+    public void setVerifyReport(String verifyReport) {
+        this.verifyReport = trimToNull(verifyReport);
+    }
+
+    public boolean isDeferIndexes() {
+        return deferIndexes;
+    }
+
+    public void setDeferIndexes(boolean deferIndexes) {
+        this.deferIndexes = deferIndexes;
+    }
+
+    public String getIndexFile() {
+        return indexFile;
+    }
+
+    public void setIndexFile(String indexFile) {
+        this.indexFile = trimToNull(indexFile);
+    }
+
+    public String getSnapshotCache() {
+        return snapshotCache;
+    }
+
+    public void setSnapshotCache(String snapshotCache) {
+        this.snapshotCache = trimToNull(snapshotCache);
+    }
+
+    public boolean isRefreshSnapshotCache() {
+        return refreshSnapshotCache;
+    }
+
+    public void setRefreshSnapshotCache(boolean refreshSnapshotCache) {
+        this.refreshSnapshotCache = refreshSnapshotCache;
+    }
+
+    public boolean isLazyMetadata() {
+        return lazyMetadata;
+    }
+
+    public void setLazyMetadata(boolean lazyMetadata) {
+        this.lazyMetadata = lazyMetadata;
+    }
+
+    public RowCount getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(RowCount rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    private static RowCount parseRowCount(String s, RowCount defaultValue) {
+        s = trimToNull(s);
+        if (s == null) {
+            return defaultValue;
+        }
+
+        try {
+            return RowCount.valueOf(s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid row count: " + s + ", expected estimate, exact or none");
+        }
     }
 
     public void copy() throws LiquibaseException, IOException {
@@ -248,7 +615,57 @@ public class CopyDb {
             throw new IllegalStateException("Target database is read only: " + target.getUrl());
         }
 
+        run(this::doCopy);
+    }
+
+    /**
+     * Write the tables of the source database to spool files in the spool directory,
+     * to be loaded into target databases later by {@link #importSpool()}.
+     */
+    public void exportSpool() throws LiquibaseException, IOException {
+        if (spoolDir == null) {
+            throw new IllegalStateException("Spool directory not specified");
+        }
+
+        Files.createDirectories(Paths.get(spoolDir));
+        run(this::doExport);
+    }
+
+    /**
+     * Load the spool files in the spool directory into the target database, without connecting to the source.
+     */
+    public void importSpool() throws LiquibaseException, IOException {
+        if (target.isReadonly()) {
+            throw new IllegalStateException("Target database is read only: " + target.getUrl());
+        }
+        if (spoolDir == null) {
+            throw new IllegalStateException("Spool directory not specified");
+        }
+        if ("auto".equals(changelog)) {
+            throw new IllegalStateException("Cannot generate a changelog without the source database");
+        }
+
+        run(this::doImport);
+    }
+
+    /**
+     * Compare the tables of the source and target databases without copying.
+     */
+    public void verify() throws LiquibaseException, IOException {
+        run(this::doVerify);
+    }
+
+    private void run(ScopedRunner<?> runner) throws LiquibaseException, IOException {
+        if (resume && checkpointFile == null) {
+            throw new IllegalStateException("Resume requires a checkpoint file");
+        }
+        if (resume && !Files.exists(Paths.get(checkpointFile))) {
+            // Resuming deletes rows from the target, which without a checkpoint would be all rows
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " not found, nothing to resume");
+        }
+
         resolvedChangelog = this.changelog;
+        postDataChangelog = null;
         if (searchPath == null) {
             if (changelog != null) {
                 if (changelog.startsWith("classpath:")) {
@@ -284,7 +701,7 @@ public class CopyDb {
         }
 
         try {
-            Scope.child(sqlLogger(), this::doCopy);
+            Scope.child(sqlLogger(), runner);
         } catch (LiquibaseException | RuntimeException e) {
             throw e;
         } catch (IOException e) {
@@ -318,19 +735,188 @@ public class CopyDb {
             }
 
             if (resolvedChangelog != null) {
-                runChangelog(targetDb);
+                runChangelog(targetDb, resolvedChangelog);
             }
 
             runSql(targetDb, preCopySql);
 
-            var sourceSnapshot = takeSnapshot(sourceDb, false);
-            var targetSnapshot = takeSnapshot(targetDb, true);
+            List<CopyTask> listedTasks = null;
+            if (lazyMetadata && tableFilter.isEnabled()) {
+                listedTasks = listTasks(sourceDb, targetDb);
+                var reason = eagerMetadataReason(targetDb, listedTasks);
+                if (reason != null) {
+                    LOG.info("Loading the metadata of all tables before copying, as {}", reason);
+                    listedTasks = null;
+                }
+            }
+
+            DatabaseSnapshot sourceSnapshot = null;
+            DatabaseSnapshot targetSnapshot = null;
+            if (listedTasks == null) {
+                sourceSnapshot = takeSnapshot(sourceDb, false);
+                targetSnapshot = takeSnapshot(targetDb, true);
+            }
             if (sequenceFilter.isEnabled()) {
-                copySequences(sourceSnapshot, targetSnapshot, targetDb);
+                copySequences(sequenceSnapshot(sourceDb, sourceSnapshot), sequenceSnapshot(targetDb, targetSnapshot), targetDb);
             }
-            if (tableFilter.isEnabled()) {
+            if (listedTasks != null && !listedTasks.isEmpty()) {
+                LOG.info("Listed {} tables, loading their metadata while copying", listedTasks.size());
+                copyTables(sourceDb, new EmptyDatabaseSnapshot(targetDb), listedTasks);
+            } else if (listedTasks == null && tableFilter.isEnabled()) {
                 copyTables(sourceSnapshot, targetSnapshot);
             }
+            if (postDataChangelog != null) {
+                LOG.info("Creating indexes and constraints of the generated changelog after copying");
+                runChangelog(targetDb, postDataChangelog);
+            }
+            if (tableFilter.isEnabled() && verify) {
+                verifyTables(sourceDb, targetDb, listedTasks != null
+                    ? listedTasks.stream().map(t -> new CopyTask(t.sourceTable, t.targetTable)).collect(Collectors.toCollection(ArrayList::new))
+                    : tasksFor(sourceSnapshot, targetSnapshot));
+            }
+
+            runSql(targetDb, postSql);
+        }
+    }
+
+    private void doVerify() throws Exception {
+        try (var sourceConn = getDatabaseConnection(source);
+             var targetConn = getDatabaseConnection(target)) {
+            var sourceDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(sourceConn);
+            var targetDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(targetConn);
+
+            targetDb.setAutoCommit(false);
+
+            runSql(sourceDb, source.getInitSql());
+            runSql(targetDb, target.getInitSql());
+
+            var sourceSnapshot = takeSnapshot(sourceDb, false);
+            var targetSnapshot = takeSnapshot(targetDb, false);
+            verifyTables(sourceDb, targetDb, tasksFor(sourceSnapshot, targetSnapshot));
+        }
+    }
+
+    private void doExport() throws Exception {
+        try (var sourceConn = getDatabaseConnection(source)) {
+            var sourceDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(sourceConn);
+            runSql(sourceDb, source.getInitSql());
+
+            var sourceSnapshot = takeSnapshot(sourceDb, false);
+            List<Table> tables = sourceSnapshot.get(Table.class).stream()
+                .filter(t -> tableFilter.contains(t.getName()))
+                .collect(Collectors.toCollection(ArrayList::new));
+            tableFilter.sort(tables, Table::getName);
+
+            long total = 0;
+            for (var table : tables) {
+                total += exportTable(sourceDb, table);
+            }
+            LOG.info("Exported {} rows in {} tables to {}", total, tables.size(), spoolDir);
+        }
+    }
+
+    /**
+     * Write a table to a spool file, which is renamed into place when complete.
+     *
+     * @return number of rows written
+     */
+    private long exportTable(Database sourceDb, Table table) throws LiquibaseException, IOException {
+        var sourceConn = ((JdbcConnection) sourceDb.getConnection()).getUnderlyingConnection();
+        var columns = table.getColumns();
+        if (columnFilter.isEnabled() && !(columnFilter.getInclude().isEmpty() && columnFilter.getExclude().isEmpty())) {
+            columns = columns.stream()
+                .filter(c -> columnFilter.contains(table.getName(), c.getName()))
+                .toList();
+        }
+        var converters = columns.stream()
+            .<ColumnDescriptor<?, ?>>map(c -> Converters.readerFor(sourceDb, c))
+            .toList();
+
+        var selectSql = selectSqlForTable(sourceDb, table, converters);
+        if (logSql) {
+            SQL_LOG.info("{}", selectSql);
+        }
+
+        var file = Paths.get(spoolDir, table.getName() + ".spool");
+        var tmp = Paths.get(spoolDir, table.getName() + ".spool.tmp");
+        var sourceSupport = Converters.supportFor(sourceDb);
+        long rowCount;
+        try (var select = sourceSupport.prepareQuery(sourceConn, selectSql, fetchSize.get(table.getName()));
+             var out = new SpoolWriter(tmp, sourceDb.getShortName(), table.getName(), columns)) {
+            var rs = select.executeQuery();
+            var rows = resultSetRows(rs, converters, new CopyMetrics.ReadTimes());
+            var values = new Object[converters.size()];
+            while (rows.next(values)) {
+                if (out.addRow(values)) {
+                    LOG.info("Exporting {} {} rows", table.getName(), out.getRows());
+                }
+            }
+            out.finish();
+            rowCount = out.getRows();
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        } finally {
+            endReadTransaction(sourceConn);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        LOG.info("Exported {} rows to {}", rowCount, file);
+        return rowCount;
+    }
+
+    private void doImport() throws Exception {
+        try (var targetConn = getDatabaseConnection(target)) {
+            var targetDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(targetConn);
+            targetDb.setAutoCommit(false);
+            runSql(targetDb, target.getInitSql());
+            runSql(targetDb, initSql);
+
+            if (dropFirst) {
+                var liquibase = new Liquibase((DatabaseChangeLog) null, resourceAccessor, targetDb);
+                liquibase.dropAll();
+            }
+
+            if (resolvedChangelog != null) {
+                runChangelog(targetDb, resolvedChangelog);
+            }
+
+            runSql(targetDb, preCopySql);
+
+            var targetSnapshot = takeSnapshot(targetDb, true);
+            List<SpoolReader> readers = new ArrayList<>();
+            try {
+                var tasks = new ArrayList<CopyTask>();
+                if (tableFilter.isEnabled()) {
+                    var targetTables = targetSnapshot.get(Table.class).stream()
+                        .collect(Collectors.toMap(t -> t.getName().toLowerCase(Locale.ROOT), t -> t));
+                    try (var files = Files.newDirectoryStream(Paths.get(spoolDir), "*.spool")) {
+                        for (var file : files) {
+                            var reader = SpoolReader.open(file);
+                            readers.add(reader);
+                            var name = reader.getTable().getName();
+                            if (!tableFilter.contains(name)) {
+                                continue;
+                            }
+                            var targetTable = targetTables.get(name.toLowerCase(Locale.ROOT));
+                            if (targetTable == null) {
+                                LOG.warn("No table {} in target for {}", name, file);
+                                continue;
+                            }
+                            tasks.add(new CopyTask(reader.whole(), targetTable));
+                        }
+                    }
+                }
+
+                if (!tasks.isEmpty()) {
+                    tasks.sort(Comparator.comparing(CopyTask::getName));
+                    tableFilter.sort(tasks, CopyTask::getName);
+                    copyTables(null, targetSnapshot, tasks);
+                }
+            } finally {
+                for (var reader : readers) {
+                    reader.close();
+                }
+            }
 
             runSql(targetDb, postSql);
         }
@@ -471,18 +1057,77 @@ public class CopyDb {
         };
     }
 
-    private DatabaseSnapshot takeSnapshot(Database db, boolean foreignKeys) throws LiquibaseException {
-        CatalogAndSchema[] schemas = {db.getDefaultSchema()};
+    /**
+     * @param target if the database is copied to, which also requires its foreign keys and the indexes to defer
+     */
+    private DatabaseSnapshot takeSnapshot(Database db, boolean target) throws LiquibaseException {
         List<Class<? extends DatabaseObject>> types = new ArrayList<>(4);
-        if (sequenceFilter.isEnabled()) {
+        if (sequenceFilter.isEnabled() && snapshotCache == null) {
             types.add(Sequence.class);
         }
         if (tableFilter.isEnabled()) {
-            types.addAll(Arrays.asList(Table.class, Column.class));
-            if (foreignKeys) {
+            types.addAll(Arrays.asList(Table.class, Column.class, PrimaryKey.class));
+            if (target) {
                 types.add(ForeignKey.class);
             }
+            if (target && deferIndexes) {
+                types.add(Index.class);
+            }
+        }
+        if (snapshotCache == null || types.isEmpty()) {
+            return createSnapshot(db, types);
+        }
+
+        // The fingerprint is read before the snapshot, so that changes made while taking it are noticed next time
+        String fingerprint;
+        try {
+            var conn = ((JdbcConnection) db.getConnection()).getUnderlyingConnection();
+            fingerprint = Converters.supportFor(db).schemaFingerprint(conn, db.getDefaultSchemaName());
+        } catch (SQLException e) {
+            LOG.debug("Could not read the schema fingerprint of {}", db, e);
+            fingerprint = null;
+        }
+        if (fingerprint == null) {
+            LOG.info("Not caching the snapshot of {}, changes to its schema cannot be detected", db);
+            return createSnapshot(db, types);
+        }
+
+        var cache = new SnapshotCache(Paths.get(snapshotCache));
+        var key = String.join("|", db.getConnection().getURL(), db.getConnection().getConnectionUserName(),
+            db.getDefaultSchemaName(), types.stream().map(Class::getSimpleName).sorted().collect(Collectors.joining(",")),
+            LiquibaseUtil.getBuildVersion());
+        try {
+            if (!refreshSnapshotCache) {
+                var snapshot = cache.load(db, key, fingerprint);
+                if (snapshot != null) {
+                    LOG.info("Using the snapshot of {} cached in {}", db, cache);
+                    return snapshot;
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Ignoring the snapshot of {} cached in {}: {}", db, cache, e.getMessage());
+        }
+
+        var snapshot = createSnapshot(db, types);
+        try {
+            cache.save(snapshot, key, fingerprint);
+        } catch (IOException e) {
+            LOG.warn("Could not cache the snapshot of {} in {}: {}", db, cache, e.getMessage());
         }
+        return snapshot;
+    }
+
+    /**
+     * Sequences are not kept in cached snapshots, as their values change without changing the schema.
+     *
+     * @param snapshot snapshot taken for copying or null if table metadata is loaded lazily
+     */
+    private DatabaseSnapshot sequenceSnapshot(Database db, DatabaseSnapshot snapshot) throws LiquibaseException {
+        return snapshotCache == null && snapshot != null ? snapshot : createSnapshot(db, List.of(Sequence.class));
+    }
+
+    private DatabaseSnapshot createSnapshot(Database db, List<Class<? extends DatabaseObject>> types) throws LiquibaseException {
+        CatalogAndSchema[] schemas = {db.getDefaultSchema()};
         var ctl = new SnapshotControl(db);
         ctl.getTypesToInclude().clear();
         if (!types.isEmpty()) {
@@ -572,12 +1217,134 @@ public class CopyDb {
 
     private void copyTables(DatabaseSnapshot sourceSnapshot,
                             DatabaseSnapshot targetSnapshot) throws LiquibaseException {
+        var tasks = tasksFor(sourceSnapshot, targetSnapshot);
+        if (!tasks.isEmpty()) {
+            copyTables(sourceSnapshot.getDatabase(), targetSnapshot, tasks);
+        }
+    }
+
+    /**
+     * Match the tables of the target database with the source tables they are copied from by their names,
+     * listed without snapshotting either schema. The columns and keys of the tables are loaded by
+     * {@link #loadMetadata} as they are copied.
+     */
+    private List<CopyTask> listTasks(Database sourceDb, Database targetDb) throws DatabaseException {
         if (tableFilter.getInclude().isEmpty() && tableFilter.getExclude().contains("*")) {
-            return;
+            return new ArrayList<>();
         }
 
-        var sourceTables = sourceSnapshot.get(Table.class).stream()
-            .filter(t -> tableFilter.contains(t.getName()))
+        var sourceTables = listTables(sourceDb).stream()
+            .collect(Collectors.toMap(e -> e.getName().toLowerCase(Locale.ROOT), e -> e));
+
+        List<Table> targetTables = listTables(targetDb).stream()
+            .filter(t -> sourceTables.containsKey(t.getName().toLowerCase(Locale.ROOT)))
+            .collect(Collectors.toCollection(ArrayList::new));
+
+        tableFilter.sort(targetTables, Table::getName);
+
+        return targetTables.stream()
+            .map(t -> CopyTask.listed(sourceTables.get(t.getName().toLowerCase(Locale.ROOT)), t))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Tables of the default schema passing the table filter, with only their names.
+     */
+    private List<Table> listTables(Database db) throws DatabaseException {
+        var conn = ((JdbcConnection) db.getConnection()).getUnderlyingConnection();
+        var tables = new ArrayList<Table>();
+        try (var rs = conn.getMetaData().getTables(null, db.getDefaultSchemaName(), "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                var name = rs.getString("TABLE_NAME");
+                if (tableFilter.contains(name)) {
+                    tables.add(new Table(db.getDefaultCatalogName(), db.getDefaultSchemaName(), name));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+        return tables;
+    }
+
+    /**
+     * The reason the metadata of all tables is needed before copying them, or null if it can be loaded
+     * while copying.
+     */
+    private String eagerMetadataReason(Database targetDb, List<CopyTask> tasks) {
+        if (sync) {
+            return "tables are synchronized";
+        } else if (deferIndexes) {
+            return "indexes are deferred";
+        } else if (tasks.stream().anyMatch(t -> incremental.get(t.getName()) != null)) {
+            return "tables are copied incrementally";
+        } else if (!disableForeignKeys || !canDisableForeignKeys(targetDb)) {
+            return "tables are copied in dependency order";
+        } else if ("oracle".equals(targetDb.getShortName())) {
+            return "foreign keys are disabled one by one";
+        }
+        return null;
+    }
+
+    /**
+     * Load the columns and keys of listed tables in the order they are copied, on connections of its own,
+     * so that copying starts with the first table while the metadata of later tables is loaded.
+     */
+    private Future<?> loadMetadata(List<CopyTask> tasks) {
+        var executor = Executors.newSingleThreadExecutor(r -> {
+            var t = new Thread(r, "metadata");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            return executor.submit(() -> {
+                try (var sourceConn = getDatabaseConnection(source);
+                     var targetConn = getDatabaseConnection(target)) {
+                    var sourceDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(sourceConn);
+                    var targetDb = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(targetConn);
+                    runSql(sourceDb, source.getInitSql());
+                    runSql(targetDb, target.getInitSql());
+                    for (var task : tasks) {
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        long start = System.nanoTime();
+                        task.loaded(snapshotTable(sourceDb, task.sourceTable), snapshotTable(targetDb, task.targetTable));
+                        LOG.debug("Loaded the metadata of {} in {} ms", task, (System.nanoTime() - start) / 1_000_000);
+                    }
+                } catch (Exception e) {
+                    tasks.forEach(t -> t.failed(e));
+                    throw e;
+                }
+                return null;
+            });
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Snapshot the columns and primary key of a single table.
+     */
+    private static Table snapshotTable(Database db, Table table) throws LiquibaseException {
+        var ctl = new SnapshotControl(db, Table.class, Column.class, PrimaryKey.class);
+        var snapshot = SnapshotGeneratorFactory.getInstance().createSnapshot(new DatabaseObject[]{table}, db, ctl);
+        var loaded = snapshot.get(table);
+        if (loaded == null) {
+            throw new DatabaseException("Table " + table.getName() + " not found in " + db);
+        }
+        return loaded;
+    }
+
+    /**
+     * Match the tables of the target database with the source tables they are copied from.
+     */
+    private List<CopyTask> tasksFor(DatabaseSnapshot sourceSnapshot, DatabaseSnapshot targetSnapshot) {
+        if (tableFilter.getInclude().isEmpty() && tableFilter.getExclude().contains("*")) {
+            return new ArrayList<>();
+        }
+
+        var sourceTables = sourceSnapshot.get(Table.class).stream()
+            .filter(t -> tableFilter.contains(t.getName()))
             .collect(Collectors.toMap(e -> e.getName().toLowerCase(Locale.ROOT), e -> e));
 
         List<Table> targetTables = targetSnapshot.get(Table.class).stream()
@@ -585,35 +1352,173 @@ public class CopyDb {
             .filter(t -> sourceTables.containsKey(t.getName().toLowerCase(Locale.ROOT)))
             .collect(Collectors.toCollection(ArrayList::new));
 
-        if (targetTables.isEmpty()) {
-            return;
+        tableFilter.sort(targetTables, Table::getName);
+
+        return targetTables.stream()
+            .map(t -> new CopyTask(sourceTables.get(t.getName().toLowerCase(Locale.ROOT)), t))
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Copy tables with the target prepared for loading.
+     *
+     * @param sourceDb source database or null if all tasks load spool files
+     */
+    private void copyTables(Database sourceDb, DatabaseSnapshot targetSnapshot,
+                            List<CopyTask> tasks) throws LiquibaseException {
+        var targetDb = targetSnapshot.getDatabase();
+        boolean foreignKeysDisabled = disableForeignKeys && canDisableForeignKeys(targetDb);
+        if (disableForeignKeys && !foreignKeysDisabled) {
+            LOG.warn("Cannot disable foreign keys in {}, copying tables in dependency order", targetDb);
         }
 
-        tableFilter.sort(targetTables, Table::getName);
+        if (checkpointFile != null) {
+            try {
+                var path = Paths.get(checkpointFile);
+                checkpoint = resume ? Checkpoint.resume(path) : Checkpoint.create(path);
+            } catch (IOException e) {
+                throw new LiquibaseException(e);
+            }
+        }
+
+        if (tasks.stream().anyMatch(t -> incremental.get(t.getName()) != null)) {
+            if (watermarksFile == null) {
+                throw new IllegalStateException("Incremental copy requires a watermarks file");
+            }
+            for (var task : tasks) {
+                if (incremental.get(task.getName()) != null && upsertSql(targetDb, task, task.targetTable.getColumns()) == null) {
+                    throw new IllegalStateException("Cannot copy " + task + " incrementally to " + targetDb.getShortName()
+                        + ", " + (task.targetTable.getPrimaryKey() == null ? "no primary key" : "upsert not supported"));
+                }
+            }
+            try {
+                watermarks = Watermarks.load(Paths.get(watermarksFile));
+            } catch (IOException e) {
+                throw new LiquibaseException(e);
+            }
+        }
+
+        if (sync) {
+            for (var task : tasks) {
+                if (task.spool != null || uniqueKeyColumn(task.sourceTable) == null
+                    || upsertSql(targetDb, task, task.targetTable.getColumns()) == null) {
+                    throw new IllegalStateException("Cannot synchronize " + task + " in " + targetDb.getShortName()
+                        + ", " + (uniqueKeyColumn(task.sourceTable) == null ? "no single column primary key" : "upsert not supported"));
+                }
+            }
+        }
 
         if (disableTriggers) {
             toggleTriggers(targetSnapshot, false);
         }
 
-        if (disableForeignKeys) {
+        if (foreignKeysDisabled) {
             toggleForeignKeys(targetSnapshot, false);
         }
 
+        var metrics = new CopyMetrics(tasks.stream().map(CopyTask::getName).toList());
         try {
-            var sourceDb = sourceSnapshot.getDatabase();
-            var targetDb = targetSnapshot.getDatabase();
-            if (truncate) {
-                for (var targetTable : targetTables) {
-                    truncateTable(targetDb, targetTable);
+            metrics.register();
+        } catch (JMException e) {
+            LOG.warn("Failed to publish copy metrics over JMX", e);
+        }
+
+        Future<?> loader = null;
+        try {
+            for (var task : tasks) {
+                task.batchSizer = batchSizerFor(task.getName());
+                task.metrics = metrics.table(task.getName());
+            }
+            if (rowCount != RowCount.NONE) {
+                for (var task : tasks) {
+                    if (task.spool == null) {
+                        task.rows = rowCount(sourceDb, task.sourceTable);
+                    }
+                }
+            }
+            if (parallel > 1) {
+                // Start with the largest tables so that the total time approaches that of the largest table,
+                // tables of unknown size are copied last in their original order
+                tasks.sort(Comparator.comparingLong((CopyTask t) -> t.rows).reversed());
+            }
+
+            // Loaded while the target is prepared, in the order the tables are copied
+            var listed = tasks.stream().filter(t -> !t.isLoaded()).toList();
+            if (!listed.isEmpty()) {
+                loader = loadMetadata(listed);
+            }
+
+            memory = new MemoryGovernor(maxMemory);
+            var scheduler = new TableScheduler(tasks);
+            if (!foreignKeysDisabled) {
+                addForeignKeyDependencies(scheduler, tasks, targetSnapshot);
+            }
+
+            if (deferIndexes) {
+                dropIndexes(targetSnapshot, tasks);
+            }
+
+            if (truncate && resume) {
+                LOG.info("Not truncating tables when resuming, rows after the checkpoint are deleted instead");
+            } else if (truncate) {
+                // Referencing tables must be emptied first if foreign keys are enforced
+                var order = scheduler.dependencyOrder();
+                Collections.reverse(order);
+                for (var task : order) {
+                    truncateTable(targetDb, task.targetTable);
                 }
             }
 
-            for (var targetTable : targetTables) {
-                var sourceTable = sourceTables.get(targetTable.getName().toLowerCase(Locale.ROOT));
-                copyTable(sourceDb, sourceTable, targetDb, targetTable);
+            var commitPolicies = commitPolicy;
+            if ((parallel > 1 && !foreignKeysDisabled) || checkpoint != null || watermarks != null) {
+                // Committing once per run is replaced by committing each table, as rows of referenced tables must be
+                // visible to the other connections before referencing tables are copied, and a table can only be
+                // checkpointed as done, or its watermark recorded, when its rows are committed
+                commitPolicies = commitPolicy.map(p -> p.commitsTable() ? p : CommitPolicy.TABLE);
+            }
+            LOG.info("Committing {}", commitPolicies.getDefault());
+            for (var task : tasks) {
+                task.commitPolicy = commitPolicies.get(task.getName());
+                if (commitPolicies.isSet(task.getName())) {
+                    LOG.info("Committing {} {}", task, task.commitPolicy);
+                }
+            }
+
+            if (parallel > 1) {
+                copyTablesInParallel(scheduler, sourceDb != null, targetDb, foreignKeysDisabled, this::runWorker);
+            } else {
+                runWorker(scheduler, sourceDb, targetDb);
+                targetDb.commit();
+            }
+            try {
+                // Tables skipped when resuming are still loaded, for verifying them
+                for (var task : listed) {
+                    task.awaitMetadata();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LiquibaseException(e);
+            }
+
+            LOG.info("Copied {} rows in {} tables", tasks.stream().mapToLong(CopyTask::getCopied).sum(), tasks.size());
+            if (memory.getWaitMillis() > 0) {
+                LOG.info("Waited {} ms for memory, limit is {} bytes", memory.getWaitMillis(), memory.getLimit());
+            }
+
+            if (deferredIndexes != null) {
+                recreateIndexes(tasks);
             }
         } catch (Exception e) {
-            if (disableForeignKeys) {
+            if (loader != null) {
+                loader.cancel(true);
+            }
+
+            if (deferredIndexes != null && !deferredIndexes.isEmpty()) {
+                LOG.warn("Indexes dropped before copying are saved in {}, run it as SQL or copy again with --defer-indexes"
+                    + " to recreate them", deferredIndexes);
+            }
+
+            if (foreignKeysDisabled) {
                 try {
                     toggleForeignKeys(targetSnapshot, true);
                 } catch (Exception nested) {
@@ -630,17 +1535,560 @@ public class CopyDb {
             }
 
             throw e;
+        } finally {
+            metrics.unregister();
         }
 
-        if (disableForeignKeys) {
+        if (foreignKeysDisabled) {
             toggleForeignKeys(targetSnapshot, true);
         }
 
-        if (disableForeignKeys) {
+        if (disableTriggers) {
             toggleTriggers(targetSnapshot, true);
         }
     }
 
+    /**
+     * Drop the non-unique indexes of the copied tables, so that rows are loaded without maintaining them.
+     * Their DDL is saved before dropping any, together with the indexes an earlier failed run left dropped.
+     */
+    private void dropIndexes(DatabaseSnapshot targetSnapshot, List<CopyTask> tasks) throws LiquibaseException {
+        try {
+            deferredIndexes = DeferredIndexes.load(Paths.get(indexFile));
+        } catch (IOException e) {
+            throw new LiquibaseException(e);
+        }
+        if (!deferredIndexes.isEmpty()) {
+            LOG.info("Recreating {} indexes left dropped by an earlier run from {} after copying",
+                deferredIndexes.size(), deferredIndexes);
+        }
+
+        var db = targetSnapshot.getDatabase();
+        var conn = ((JdbcConnection) db.getConnection()).getUnderlyingConnection();
+        var support = Converters.supportFor(db);
+        var tables = tasks.stream().map(t -> t.getName().toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        var drops = new ArrayList<SqlStatement>();
+        for (var index : targetSnapshot.get(Index.class)) {
+            var table = index.getRelation();
+            if (table == null || !tables.contains(table.getName().toLowerCase(Locale.ROOT))
+                || Boolean.TRUE.equals(index.isUnique()) || Boolean.TRUE.equals(index.getClustered())
+                || index.isAssociatedWith(Index.MARK_PRIMARY_KEY) || index.isAssociatedWith(Index.MARK_UNIQUE_CONSTRAINT)
+                || index.isAssociatedWith(Index.MARK_FOREIGN_KEY)) {
+                continue;
+            }
+
+            var schema = table.getSchema() != null ? table.getSchema().getName() : null;
+            String ddl;
+            try {
+                ddl = support.indexDdl(conn, index);
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            }
+            if (ddl != null) {
+                deferredIndexes.add(table.getName(), ddl);
+            } else {
+                var columns = index.getColumns().stream().map(AddColumnConfig::new).toArray(AddColumnConfig[]::new);
+                var create = new CreateIndexStatement(index.getName(), null, schema, table.getName(), false, null, columns);
+                for (var sql : SqlGeneratorFactory.getInstance().generateSql(create, db)) {
+                    deferredIndexes.add(table.getName(), sql.toSql());
+                }
+            }
+            drops.add(new DropIndexStatement(index.getName(), null, schema, table.getName(), null));
+        }
+
+        if (drops.isEmpty()) {
+            return;
+        }
+
+        deferredIndexes.save();
+        db.execute(drops.toArray(SqlStatement[]::new), List.of());
+        db.commit();
+        LOG.info("Dropped {} indexes, saved in {} to recreate after copying", drops.size(), deferredIndexes);
+    }
+
+    /**
+     * Recreate the deferred indexes in parallel, the indexes of each table on a connection of its own,
+     * starting with the largest tables.
+     */
+    private void recreateIndexes(List<CopyTask> tasks) throws LiquibaseException {
+        var byTable = deferredIndexes.byTable();
+        if (byTable.isEmpty()) {
+            return;
+        }
+
+        var rows = tasks.stream().collect(Collectors.toMap(CopyTask::getName, t -> Math.max(t.rows, t.getCopied()), Math::max));
+        var tables = new ArrayList<>(byTable.keySet());
+        tables.sort(Comparator.comparingLong((String t) -> rows.getOrDefault(t, -1L)).reversed());
+        var queue = new ConcurrentLinkedQueue<>(tables);
+        int threads = Math.min(parallel, tables.size());
+        LOG.info("Recreating {} indexes on {} tables", deferredIndexes.size(), tables.size());
+
+        var threadCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(threads, r -> {
+            var t = new Thread(r, "index-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    try (var conn = getDatabaseConnection(target)) {
+                        var db = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(conn);
+                        db.setAutoCommit(false);
+                        runSql(db, target.getInitSql());
+                        String table;
+                        while ((table = queue.poll()) != null) {
+                            long start = System.nanoTime();
+                            var ddl = byTable.get(table);
+                            for (var createIndex : ddl) {
+                                // DDL may commit by itself, so each index is recorded as soon as it exists
+                                db.execute(new SqlStatement[]{new RawParameterizedSqlStatement(createIndex)}, List.of());
+                                db.commit();
+                                deferredIndexes.recreated(table, createIndex);
+                            }
+                            LOG.info("Recreated {} indexes on {} in {}", ddl.size(), table,
+                                String.format("%.2f s", (System.nanoTime() - start) / 1e9));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            LiquibaseException failure = null;
+            for (var future : workers) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Leave the remaining tables to the other workers, they are still saved if failing as well
+                    var cause = e.getCause() instanceof LiquibaseException le ? le : new LiquibaseException(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new LiquibaseException(e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void addForeignKeyDependencies(TableScheduler scheduler, List<CopyTask> tasks,
+                                                  DatabaseSnapshot targetSnapshot) {
+        var tasksByName = tasks.stream()
+            .collect(Collectors.toMap(t -> t.getName().toLowerCase(Locale.ROOT), t -> t));
+        for (var fk : targetSnapshot.get(ForeignKey.class)) {
+            var task = tasksByName.get(fk.getForeignKeyTable().getName().toLowerCase(Locale.ROOT));
+            var dependsOn = tasksByName.get(fk.getPrimaryKeyTable().getName().toLowerCase(Locale.ROOT));
+            if (task != null && dependsOn != null) {
+                scheduler.addDependency(task, dependsOn);
+            }
+        }
+    }
+
+    /**
+     * Work done by each worker of {@link #copyTablesInParallel} with its own connections.
+     */
+    @FunctionalInterface
+    private interface Worker {
+        void run(TableScheduler scheduler, Database sourceDb, Database targetDb) throws LiquibaseException;
+    }
+
+    private void copyTablesInParallel(TableScheduler scheduler, boolean readSource, Database targetDb,
+                                      boolean foreignKeysDisabled, Worker worker) throws LiquibaseException {
+        List<DatabaseConnection> connections = new ArrayList<>(parallel * 2);
+        var threadCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(parallel, r -> {
+            var t = new Thread(r, "copy-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try {
+            List<Database[]> databases = new ArrayList<>(parallel);
+            for (int i = 0; i < parallel; i++) {
+                Database workerSource = null;
+                if (readSource) {
+                    var sourceConn = getDatabaseConnection(source);
+                    connections.add(sourceConn);
+                    workerSource = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(sourceConn);
+                    runSql(workerSource, source.getInitSql());
+                }
+                var targetConn = getDatabaseConnection(target);
+                connections.add(targetConn);
+
+                var workerTarget = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(targetConn);
+                workerTarget.setAutoCommit(false);
+                runSql(workerTarget, target.getInitSql());
+                if (foreignKeysDisabled && isSessionScopedForeignKeys(targetDb)) {
+                    toggleForeignKeys(workerTarget, null, false);
+                }
+                databases.add(new Database[]{workerSource, workerTarget});
+            }
+
+            List<Future<?>> workers = new ArrayList<>(parallel);
+            for (var dbs : databases) {
+                workers.add(executor.submit(() -> {
+                    worker.run(scheduler, dbs[0], dbs[1]);
+                    return null;
+                }));
+            }
+
+            LiquibaseException failure = null;
+            for (var future : workers) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    var cause = e.getCause() instanceof LiquibaseException le ? le : new LiquibaseException(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    scheduler.abort();
+                    throw new LiquibaseException(e);
+                }
+            }
+
+            // Commit rows left by the run commit policy, or roll back everything uncommitted on failure
+            for (var dbs : databases) {
+                if (failure == null) {
+                    dbs[1].commit();
+                } else {
+                    rollback(dbs[1], failure);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            scheduler.abort();
+            executor.shutdownNow();
+            for (var conn : connections) {
+                try {
+                    conn.close();
+                } catch (DatabaseException e) {
+                    LOG.warn("Failed to close connection", e);
+                }
+            }
+        }
+    }
+
+    private void runWorker(TableScheduler scheduler, Database sourceDb, Database targetDb) throws LiquibaseException {
+        try {
+            CopyTask task;
+            while ((task = scheduler.take()) != null) {
+                boolean skipped = resume && checkpoint.isDone(task);
+                if (skipped) {
+                    LOG.info("Skipping {}, copied by an earlier run", task);
+                } else {
+                    task.awaitMetadata();
+                    if (task.parent == null && task.spool == null && incremental.get(task.getName()) != null) {
+                        prepareWatermark(sourceDb, task);
+                    }
+                    if (resume && task.spool != null && task.parent == null) {
+                        // Parts of a spool file have no keys to resume from, so the whole table is loaded again
+                        clearTarget(targetDb, task);
+                    }
+
+                    var chunks = splitTable(sourceDb, task, chunkThreshold.get(task.getName()));
+                    if (chunks.size() > 1) {
+                        scheduler.split(task, chunks);
+                        continue;
+                    }
+
+                    if (resume && task.spool == null) {
+                        clearTarget(targetDb, task);
+                    }
+                    task.addCopied(copyTable(sourceDb, targetDb, task));
+                    if (checkpoint != null || watermarks != null) {
+                        // Recorded as done, or its watermark written once all chunks are done, only when its rows
+                        // are committed, as later runs skip the table or the rows before the watermark
+                        targetDb.commit();
+                        if (checkpoint != null && (task.spool == null || task.parent == null)) {
+                            checkpoint.done(task);
+                        }
+                    }
+                }
+
+                var table = scheduler.done(task);
+                if (table != null && table != task && checkpoint != null) {
+                    checkpoint.done(table);
+                }
+                if (table != null && table.nextWatermark != null) {
+                    watermarks.put(table.getName(), table.watermarkColumn, table.nextWatermark);
+                }
+                if (table != null && !(skipped && table == task)) {
+                    LOG.info("Copied {} rows to {}", table.getCopied(), table);
+                    var sizer = table.batchSizer;
+                    if (sizer.isAdaptive()) {
+                        LOG.info("Batch size for {} settled at {} ({} rows/s after {} changes), pin with --batch-size={},{}={}",
+                            table, sizer.size(), sizer.getRate(), sizer.getChanges(),
+                            batchSize.getDefault(), table, sizer.size());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LiquibaseException(e);
+        } catch (LiquibaseException | RuntimeException e) {
+            scheduler.abort();
+            rollback(targetDb, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Compare the rows of tables in the source and target by their counts and hashes, in chunks
+     * of key ranges and in parallel, and write a report of the compared ranges.
+     *
+     * @throws LiquibaseException if any range differs
+     */
+    private void verifyTables(Database sourceDb, Database targetDb, List<CopyTask> tasks) throws LiquibaseException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        if (rowCount != RowCount.NONE) {
+            for (var task : tasks) {
+                task.rows = rowCount(sourceDb, task.sourceTable);
+            }
+        }
+        if (parallel > 1) {
+            tasks.sort(Comparator.comparingLong((CopyTask t) -> t.rows).reversed());
+        }
+
+        LOG.info("Verifying {} tables", tasks.size());
+        var verifier = new Verifier();
+        var scheduler = new TableScheduler(tasks);
+        if (parallel > 1) {
+            copyTablesInParallel(scheduler, true, targetDb, false,
+                (s, source, target) -> verifyWorker(s, source, target, verifier));
+        } else {
+            verifyWorker(scheduler, sourceDb, targetDb, verifier);
+        }
+
+        try {
+            verifier.writeReport(verifyReport != null ? Paths.get(verifyReport) : null);
+        } catch (IOException e) {
+            throw new LiquibaseException(e);
+        }
+
+        int ranges = verifier.getResults().size();
+        var mismatched = verifier.getMismatched();
+        if (!mismatched.isEmpty()) {
+            throw new LiquibaseException("Verification failed, " + mismatched.size() + " of " + ranges
+                + " ranges differ in " + mismatched.stream().map(v -> v.task().getName()).distinct().toList());
+        }
+        LOG.info("Verified {} tables in {} ranges, all match", tasks.size(), ranges);
+    }
+
+    private void verifyWorker(TableScheduler scheduler, Database sourceDb, Database targetDb,
+                              Verifier verifier) throws LiquibaseException {
+        var hasher = new RangeHasher();
+        try {
+            CopyTask task;
+            while ((task = scheduler.take()) != null) {
+                // Split tables even when not copied in chunks, so that differences are reported by range
+                long threshold = chunkThreshold.get(task.getName());
+                var chunks = splitTable(sourceDb, task, threshold > 0 ? threshold : Verifier.CHUNK_ROWS);
+                if (chunks.size() > 1) {
+                    scheduler.split(task, chunks);
+                    continue;
+                }
+
+                var result = verifyRange(sourceDb, targetDb, task, verifier, hasher);
+                if (!result.matches()) {
+                    LOG.warn("{} differs: {} source rows, {} target rows", task, result.sourceRows(), result.targetRows());
+                }
+                scheduler.done(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LiquibaseException(e);
+        } catch (LiquibaseException | RuntimeException e) {
+            scheduler.abort();
+            throw e;
+        }
+    }
+
+    private Verifier.VerifiedRange verifyRange(Database source, Database target, CopyTask task, Verifier verifier,
+                                               RangeHasher hasher) throws LiquibaseException {
+        var columns = filterTargetColumns(target, task.targetTable, task.sourceTable);
+        var converters = new ArrayList<ColumnDescriptor<?, ?>>(columns.size());
+        for (var targetColumn : columns) {
+            var sourceColumn = task.sourceTable.getColumn(targetColumn.getName());
+            converters.add(Converters.converterFor(source, sourceColumn, target, targetColumn));
+        }
+
+        var sides = comparedSides(source, target, task, columns, converters);
+        try {
+            return verifier.verify(task, sides[0], sides[1], hasher);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        } finally {
+            endReadTransaction(sides[0].conn());
+            endReadTransaction(sides[1].conn());
+        }
+    }
+
+    /**
+     * Select the rows of a table changed since its last incremental copy. The watermark to record
+     * when done is read before copying, so that rows changed while copying are copied again by the next run.
+     */
+    private void prepareWatermark(Database sourceDb, CopyTask task) throws LiquibaseException {
+        var name = incremental.get(task.getName());
+        var column = task.sourceTable.getColumn(name);
+        if (column == null) {
+            LOG.info("No watermark column {} in {}, copying all rows", name, task);
+            return;
+        }
+
+        task.watermarkColumn = column.getName();
+        task.watermark = watermarks.get(task.getName(), column.getName());
+        var reader = Converters.readerFor(sourceDb, column);
+        var conn = ((JdbcConnection) sourceDb.getConnection()).getUnderlyingConnection();
+        var sql = "SELECT MAX(" + sourceDb.escapeObjectName(column.getName(), Column.class) + ") FROM "
+            + task.sourceTable.getName();
+        try (var stmt = conn.prepareStatement(sql);
+             var rs = stmt.executeQuery()) {
+            rs.next();
+            task.nextWatermark = reader.read(rs, 1);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+
+        if (task.watermark != null) {
+            LOG.info("Copying rows of {} with {} >= {}", task, column.getName(), task.watermark);
+        } else {
+            LOG.info("Copying all rows of {}, no watermark recorded for {}", task, column.getName());
+        }
+    }
+
+    /**
+     * Roll back rows not yet committed by the commit policy after a failure,
+     * so that a later commit on the same connection does not commit a partial table.
+     */
+    private static void rollback(Database db, Exception failure) {
+        try {
+            db.rollback();
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private BatchSizer batchSizerFor(String table) {
+        int size = batchSize.get(table);
+        if (adaptiveBatchSize && !batchSize.isSet(table)) {
+            return BatchSizer.adaptive(size, minBatchSize, maxBatchSize, MAX_BATCH_LATENCY_MILLIS);
+        }
+        return BatchSizer.fixed(size);
+    }
+
+    /**
+     * Split a large table into chunks by ranges of the first primary key column.
+     *
+     * @param threshold rows from which the table is split or 0 to never split
+     * @return chunks or an empty list if the table should be copied as a whole
+     */
+    private List<CopyTask> splitTable(Database sourceDb, CopyTask task, long threshold) throws LiquibaseException {
+        if (task.spool != null) {
+            return splitSpool(task, threshold);
+        }
+        var pk = task.sourceTable.getPrimaryKey();
+        if (task.parent != null || threshold <= 0 || pk == null || pk.getColumns().isEmpty()) {
+            return List.of();
+        }
+
+        if (task.rows < 0) {
+            // Splitting was asked for, so count the rows if they are not known
+            task.rows = countRows(sourceDb, task.sourceTable);
+        }
+
+        if (task.rows < threshold) {
+            return List.of();
+        }
+
+        int count = chunks > 0 ? chunks : Math.max(4 * parallel, 2);
+        var column = pk.getColumns().get(0).getName();
+        var conn = ((JdbcConnection) sourceDb.getConnection()).getUnderlyingConnection();
+        try {
+            var ranges = KeyRange.split(conn, task.sourceTable.getName(), column,
+                sourceDb.escapeObjectName(column, Column.class), count);
+            LOG.info("Splitting {} ({} rows) into {} chunks by {}", task, task.rows, ranges.size(), column);
+            var result = new ArrayList<CopyTask>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                result.add(task.chunk(ranges.get(i), i, ranges.size()));
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    /**
+     * Split a spool file into parts of whole chunks, so that it is loaded by several workers.
+     * Unlike splitting by key ranges this costs nothing, so files are split whenever copying
+     * in parallel unless below the chunk threshold.
+     */
+    private List<CopyTask> splitSpool(CopyTask task, long threshold) {
+        if (task.parent != null || parallel <= 1 || (threshold > 0 && task.rows < threshold)) {
+            return List.of();
+        }
+
+        int count = chunks > 0 ? chunks : Math.max(4 * parallel, 2);
+        var parts = task.spool.reader().split(count);
+        if (parts.size() <= 1) {
+            return List.of();
+        }
+
+        LOG.info("Splitting {} ({} rows) into {} chunks", task, task.rows, parts.size());
+        var result = new ArrayList<CopyTask>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            result.add(task.chunk(parts.get(i), i, parts.size()));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of rows in a table according to the row count strategy.
+     *
+     * @return number of rows or -1 if not known
+     */
+    private long rowCount(Database db, Table table) throws LiquibaseException {
+        if (rowCount == RowCount.EXACT) {
+            return countRows(db, table);
+        } else if (rowCount == RowCount.ESTIMATE) {
+            var conn = ((JdbcConnection) db.getConnection()).getUnderlyingConnection();
+            long rows = Converters.supportFor(db).estimateRowCount(conn, table);
+            LOG.debug("Estimated {} rows in {}", rows, table.getName());
+            return rows;
+        } else {
+            return -1;
+        }
+    }
+
+    private long countRows(Database db, Table table) throws LiquibaseException {
+        var stmtFactory = new PreparedStatementFactory((JdbcConnection) db.getConnection());
+        try (var count = stmtFactory.create("SELECT COUNT(*) FROM " + table.getName());
+             var rs = count.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
     private static boolean isOracleVirtualColumn(Column c) {
         if (c.getComputed() != null) {
             return false;
@@ -672,63 +2120,675 @@ public class CopyDb {
         return columns;
     }
 
-    private void copyTable(Database source, Table sourceTable,
-                           Database target, Table targetTable) throws LiquibaseException {
-        PreparedStatementFactory sourceStmtFactory = new PreparedStatementFactory((JdbcConnection) source.getConnection());
-        PreparedStatementFactory targetStmtFactory = new PreparedStatementFactory((JdbcConnection) target.getConnection());
+    /**
+     * Copy a table or a chunk of a table.
+     *
+     * @return number of rows copied
+     */
+    private long copyTable(Database source, Database target, CopyTask task) throws LiquibaseException {
+        var sourceTable = task.sourceTable;
+        var targetTable = task.targetTable;
 
         var columns = filterTargetColumns(target, targetTable, sourceTable);
-        final var insertSql = insertSqlForTable(targetTable, columns);
-        if (logSql) {
-            SQL_LOG.info("{}", insertSql);
-        }
-
         var converters = new ArrayList<ColumnDescriptor<?, ?>>(columns.size());
         StringBuilder sb = new StringBuilder();
         sb.append("TABLE ").append(targetTable.getName()).append('\n');
         for (var targetColumn : columns) {
             var sourceColumn = sourceTable.getColumn(targetColumn.getName());
-            var converter = Converters.converterFor(source, sourceColumn, target, targetColumn);
+            var converter = task.spool != null
+                ? Converters.converterFor(task.spool.reader().getDatabase(), sourceColumn, target, targetColumn)
+                : Converters.converterFor(source, sourceColumn, target, targetColumn);
             sb.append("  ").append(converter).append('\n');
             converters.add(converter);
         }
-        LOG.debug(sb.toString());
+        if (task.chunk == 0) {
+            LOG.debug(sb.toString());
+        }
 
-        try (var count = sourceStmtFactory.create("SELECT COUNT(*) FROM " + sourceTable.getName());
-             var select = sourceStmtFactory.create("SELECT * FROM " + sourceTable.getName());
-             var insert = targetStmtFactory.create(insertSql)) {
-            long total;
-            try (var rs = count.executeQuery()) {
-                rs.next();
-                total = rs.getLong(1);
+        var times = new CopyMetrics.ReadTimes();
+        if (task.spool != null) {
+            try (var rows = times.fetching(task.spool.open(converters));
+                 var insert = rowWriterFor(target, task, columns, converters)) {
+                if (logSql) {
+                    SQL_LOG.info("{}", insert.getSql());
+                }
+                return copyRows(task, rows, times, converters.size(), insert, target);
+            } catch (SQLException e) {
+                throw new DatabaseException(e);
+            } catch (UncheckedIOException e) {
+                throw new LiquibaseException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LiquibaseException(e);
             }
+        }
 
-            var rs = select.executeQuery();
-            int rowsInBatch = 0;
-            long row = 0;
-            while (rs.next()) {
-                for (var i = 0; i < converters.size(); i++) {
-                    var conv = converters.get(i);
-                    conv.copy(rs, insert, i + 1);
+        if (sync) {
+            return syncTable(source, target, task, columns, converters);
+        }
+
+        var keyColumn = uniqueKeyColumn(sourceTable);
+        var range = task.range;
+        var resumeKey = resume ? checkpoint.getLastKey(task) : null;
+        if (resumeKey != null) {
+            LOG.info("Resuming {} after {}", task, resumeKey);
+            range = range != null
+                ? new KeyRange(range.column, resumeKey, range.upper)
+                : new KeyRange(keyColumn, resumeKey, null);
+        }
+
+        int keyIndex = -1;
+        for (int i = 0; keyColumn != null && i < converters.size(); i++) {
+            if (converters.get(i).getSource().getName().equalsIgnoreCase(keyColumn)) {
+                keyIndex = i;
+            }
+        }
+        int pageRows = pageSize.get(task.getName());
+        boolean paged = pageRows > 0 && keyIndex >= 0;
+        if (pageRows > 0 && !paged && task.chunk == 0) {
+            LOG.info("Cannot page {} without a single column primary key, reading it in one query", task);
+        }
+
+        var changed = task.watermark != null
+            ? new Condition(source.escapeObjectName(task.watermarkColumn, Column.class) + " >= ?", task.watermark)
+            : null;
+        var sourceConn = ((JdbcConnection) source.getConnection()).getUnderlyingConnection();
+        var sourceSupport = Converters.supportFor(source);
+        var selectSql = selectSqlForTable(source, sourceTable, converters);
+        int fetch = fetchSize.get(sourceTable.getName());
+        var key = range != null ? source.escapeObjectName(range.column, Column.class) : null;
+        try (var rows = paged
+                 ? pagedRows(sourceConn, sourceSupport, selectSql, range, changed, keyColumn,
+                     source.escapeObjectName(keyColumn, Column.class), keyIndex, pageRows, fetch, converters, times)
+                 : queryRows(sourceConn, sourceSupport, selectSql, range, key, changed, fetch, converters, times);
+             var insert = rowWriterFor(target, task, columns, converters)) {
+            if (logSql) {
+                SQL_LOG.info("{}", insert.getSql());
+            }
+            return copyRows(task, rows, times, converters.size(), insert, target);
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LiquibaseException(e);
+        } finally {
+            endReadTransaction(sourceConn);
+        }
+    }
+
+    /**
+     * Make a table or chunk equal to the source, writing only the rows that differ.
+     *
+     * @return number of rows written
+     */
+    private long syncTable(Database source, Database target, CopyTask task, List<Column> columns,
+                           List<ColumnDescriptor<?, ?>> converters) throws LiquibaseException {
+        var keyColumn = uniqueKeyColumn(task.sourceTable);
+        int keyIndex = -1;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i).getSource().getName().equalsIgnoreCase(keyColumn)) {
+                keyIndex = i;
+            }
+        }
+
+        var sourceConn = ((JdbcConnection) source.getConnection()).getUnderlyingConnection();
+        var targetConn = ((JdbcConnection) target.getConnection()).getUnderlyingConnection();
+        var sides = comparedSides(source, target, task, columns, converters);
+        var deleteSql = "DELETE FROM " + task.targetTable.getName()
+            + " WHERE " + targetKey(target, task, keyColumn) + " = ?";
+        try (var upsert = new BatchInsertWriter(targetConn, upsertSql(target, task, columns), converters);
+             var delete = targetConn.prepareStatement(deleteSql)) {
+            if (logSql && task.chunk == 0) {
+                SQL_LOG.info("{}", upsert.getSql());
+                SQL_LOG.info("{}", deleteSql);
+            }
+            var rangeSync = new RangeSync(sides[0], sides[1], target, keyIndex, upsert, delete);
+            rangeSync.sync(task.range != null ? task.range : new KeyRange(keyColumn, null, null));
+            target.commit();
+            LOG.info("Synchronized {}: {} ranges compared, {} rows upserted, {} deleted",
+                task, rangeSync.getRanges(), rangeSync.getUpserted(), rangeSync.getDeleted());
+            return rangeSync.getUpserted() + rangeSync.getDeleted();
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        } finally {
+            endReadTransaction(sourceConn);
+        }
+    }
+
+    /**
+     * The source and target of a table or chunk for comparing their rows.
+     *
+     * @param converters converters of the source columns to the target columns
+     * @return source and target sides
+     */
+    private RangeHasher.Side[] comparedSides(Database source, Database target, CopyTask task, List<Column> columns,
+                                             List<ColumnDescriptor<?, ?>> converters) {
+        var readers = new ArrayList<ColumnDescriptor<?, ?>>(columns.size());
+        for (var column : columns) {
+            readers.add(Converters.readerFor(target, column));
+        }
+
+        var sourceSupport = Converters.supportFor(source);
+        var targetSupport = Converters.supportFor(target);
+        // Hashes computed by the databases can only be compared between databases of the same kind
+        boolean sameKind = source.getShortName().equals(target.getShortName());
+        int fetch = fetchSize.get(task.getName());
+        var key = task.range != null ? task.range.column : uniqueKeyColumn(task.sourceTable);
+        return new RangeHasher.Side[]{
+            new RangeHasher.Side(((JdbcConnection) source.getConnection()).getUnderlyingConnection(), sourceSupport,
+                task.sourceTable.getName(), key != null ? source.escapeObjectName(key, Column.class) : null,
+                selectSqlForTable(source, task.sourceTable, converters),
+                sameKind ? sourceSupport.rangeHashSql(task.sourceTable.getName(), escapedNames(source, converters)) : null,
+                converters, fetch),
+            new RangeHasher.Side(((JdbcConnection) target.getConnection()).getUnderlyingConnection(), targetSupport,
+                task.targetTable.getName(), key != null ? targetKey(target, task, key) : null,
+                selectSqlForTable(target, task.targetTable, readers),
+                sameKind ? targetSupport.rangeHashSql(task.targetTable.getName(), escapedNames(target, readers)) : null,
+                readers, fetch)
+        };
+    }
+
+    private static List<String> escapedNames(Database db, List<ColumnDescriptor<?, ?>> columns) {
+        return columns.stream().map(c -> db.escapeObjectName(c.getSource().getName(), Column.class)).toList();
+    }
+
+    /**
+     * A condition on the rows read in addition to a key range, with one parameter.
+     */
+    private record Condition(String sql, Object value) {
+    }
+
+    /**
+     * Append the conditions of a key range and another condition to a query.
+     *
+     * @param key key column of the range escaped for the database queried
+     */
+    private static String where(String select, KeyRange range, String key, Condition condition) {
+        var predicate = range != null ? range.predicate(key) : null;
+        if (condition != null) {
+            predicate = predicate != null ? predicate + " AND " + condition.sql() : condition.sql();
+        }
+        return predicate != null ? select + " WHERE " + predicate : select;
+    }
+
+    private static void bind(PreparedStatement stmt, KeyRange range, Condition condition) throws SQLException {
+        int param = range != null ? range.bind(stmt, 1) : 1;
+        if (condition != null) {
+            stmt.setObject(param, condition.value());
+        }
+    }
+
+    /**
+     * Rows of a table or a range of a table read in one query.
+     *
+     * @param times time spent executing the query and reading the rows is added to
+     */
+    private RowSource queryRows(Connection conn, DatabaseSupport support, String select, KeyRange range, String key,
+                                Condition condition, int fetchSize, List<ColumnDescriptor<?, ?>> converters,
+                                CopyMetrics.ReadTimes times) throws SQLException {
+        var sql = where(select, range, key, condition);
+        if (logSql) {
+            SQL_LOG.info("{}", sql);
+        }
+
+        var stmt = support.prepareQuery(conn, sql, fetchSize);
+        try {
+            bind(stmt, range, condition);
+            long start = System.nanoTime();
+            var rows = resultSetRows(stmt.executeQuery(), converters, times);
+            times.fetchNanos += System.nanoTime() - start;
+            return new RowSource() {
+                @Override
+                public boolean next(Object[] values) throws SQLException {
+                    return rows.next(values);
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    stmt.close();
+                }
+            };
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Rows of a table or a range of a table read in pages ordered by a unique key, each page a query
+     * for the rows after the last key of the previous page. The read transaction is ended after each
+     * page, so that the source does not keep a cursor and an old snapshot open for the whole table.
+     *
+     * @param key      key column escaped for the source
+     * @param keyIndex index of the key among the selected columns
+     * @param times time spent executing the queries and reading the rows is added to
+     */
+    private RowSource pagedRows(Connection conn, DatabaseSupport support, String select, KeyRange range,
+                                Condition condition, String keyColumn, String key, int keyIndex, int pageSize,
+                                int fetchSize,
+                                List<ColumnDescriptor<?, ?>> converters, CopyMetrics.ReadTimes times) {
+        return new RowSource() {
+            private final Object upper = range != null ? range.upper : null;
+            private Object lastKey = range != null ? range.lower : null;
+            private PreparedStatement stmt;
+            private String stmtSql;
+            private ResultSet rs;
+            private int rowsInPage;
+            private boolean lastPage;
+
+            @Override
+            public boolean next(Object[] values) throws SQLException {
+                long start = System.nanoTime();
+                while (rs == null || !rs.next()) {
+                    if (rs != null) {
+                        rs.close();
+                        rs = null;
+                        endReadTransaction(conn);
+                        lastPage = rowsInPage < pageSize;
+                    }
+                    if (lastPage) {
+                        times.fetchNanos += System.nanoTime() - start;
+                        return false;
+                    }
+                    openPage();
+                }
+
+                long fetched = System.nanoTime();
+                for (var i = 0; i < values.length; i++) {
+                    values[i] = converters.get(i).read(rs, i + 1);
+                }
+                lastKey = rs.getObject(keyIndex + 1);
+                rowsInPage++;
+                times.fetchNanos += fetched - start;
+                times.conversionNanos += System.nanoTime() - fetched;
+                return true;
+            }
+
+            @Override
+            public Object lastKey() {
+                return lastKey;
+            }
+
+            private void openPage() throws SQLException {
+                var page = new KeyRange(keyColumn, lastKey, upper);
+                var sql = support.limitRows(where(select, page, key, condition) + " ORDER BY " + key, pageSize);
+                if (!sql.equals(stmtSql)) {
+                    if (stmt != null) {
+                        stmt.close();
+                    }
+                    if (logSql) {
+                        SQL_LOG.info("{}", sql);
+                    }
+                    stmt = support.prepareQuery(conn, sql, fetchSize);
+                    stmtSql = sql;
+                }
+                bind(stmt, page, condition);
+                rs = stmt.executeQuery();
+                rowsInPage = 0;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                try {
+                    if (rs != null) {
+                        rs.close();
+                    }
+                } finally {
+                    if (stmt != null) {
+                        stmt.close();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * The primary key column if the key has a single column, which makes it usable for keyset paging.
+     */
+    private static String uniqueKeyColumn(Table table) {
+        var pk = table.getPrimaryKey();
+        return pk != null && pk.getColumns().size() == 1 ? pk.getColumns().get(0).getName() : null;
+    }
+
+    /**
+     * A key column of the source table escaped for the target, named as in the target table.
+     */
+    private static String targetKey(Database target, CopyTask task, String column) {
+        var targetColumn = task.targetTable.getColumn(column);
+        return target.escapeObjectName(targetColumn != null ? targetColumn.getName() : column, Column.class);
+    }
+
+    /**
+     * Delete the rows an earlier run copied to a table or chunk after its last recorded key,
+     * or all of its rows if no key was recorded, so that copying can continue from the key.
+     * Incremental copies and synchronization keep the rows, as upserting them again is harmless.
+     */
+    private void clearTarget(Database target, CopyTask task) throws LiquibaseException {
+        if (sync || incremental.get(task.getName()) != null) {
+            return;
+        }
+        var key = checkpoint.getLastKey(task);
+        KeyRange range = task.range;
+        if (range != null) {
+            range = new KeyRange(range.column, key != null ? key : range.lower, range.upper);
+        } else if (key != null) {
+            range = new KeyRange(uniqueKeyColumn(task.sourceTable), key, null);
+        }
+
+        var sql = "DELETE FROM " + task.targetTable.getName();
+        var predicate = range != null ? range.predicate(targetKey(target, task, range.column)) : null;
+        if (predicate != null) {
+            sql += " WHERE " + predicate;
+        }
+        if (logSql) {
+            SQL_LOG.info("{}", sql);
+        }
+
+        var conn = ((JdbcConnection) target.getConnection()).getUnderlyingConnection();
+        try (var stmt = conn.prepareStatement(sql)) {
+            if (range != null) {
+                range.bind(stmt, 1);
+            }
+            int deleted = stmt.executeUpdate();
+            target.commit();
+            if (deleted > 0) {
+                LOG.info("Deleted {} rows from {} copied after the checkpoint", deleted, task);
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(e);
+        }
+    }
+
+    /**
+     * Rows of a query result, read by the converters in the order of the selected columns.
+     *
+     * @param times time spent moving to the rows and converting them is added to
+     */
+    private static RowSource resultSetRows(ResultSet rs, List<ColumnDescriptor<?, ?>> converters,
+                                           CopyMetrics.ReadTimes times) {
+        return values -> {
+            long start = System.nanoTime();
+            if (!rs.next()) {
+                times.fetchNanos += System.nanoTime() - start;
+                return false;
+            }
+            long fetched = System.nanoTime();
+            for (var i = 0; i < values.length; i++) {
+                values[i] = converters.get(i).read(rs, i + 1);
+            }
+            times.fetchNanos += fetched - start;
+            times.conversionNanos += System.nanoTime() - fetched;
+            return true;
+        };
+    }
+
+    /**
+     * @param times time spent reading the rows, counted in the metrics of the table by batch
+     */
+    private long copyRows(CopyTask task, RowSource rows, CopyMetrics.ReadTimes times, int columns, RowWriter insert,
+                          Database target) throws SQLException, InterruptedException, LiquibaseException {
+        long total = task.rows;
+        if (pipeline) {
+            return copyRowsPipelined(task, rows, times, columns, insert, target, total);
+        }
+
+        var sizer = task.batchSizer;
+        long byteBudget = batchBytes.get(task.getName());
+        var policy = task.commitPolicy;
+        var commits = policy.start();
+        var values = new Object[columns];
+        int rowsInBatch = 0;
+        long bytesInBatch = 0;
+        long row = 0;
+        Object lastKey = null;
+        try {
+            while (rows.next(values)) {
+                long bytes = 0;
+                for (var val : values) {
+                    bytes += ColumnDescriptor.estimateSize(val);
+                }
+
+                if (!memory.tryAcquire(bytes)) {
+                    // Send the partial batch before waiting, other workers may be waiting for it
+                    if (rowsInBatch != 0) {
+                        logProgress(task, row, total);
+                        task.metrics.read(rowsInBatch, bytesInBatch, times);
+                        flush(task, insert, rowsInBatch, bytesInBatch);
+                        if (commits.afterBatch(bytesInBatch)) {
+                            commit(target, task, lastKey);
+                        }
+                        memory.release(bytesInBatch);
+                        rowsInBatch = 0;
+                        bytesInBatch = 0;
+                    }
+                    memory.acquire(bytes);
                 }
 
                 row++;
-                insert.addBatch();
-                if (++rowsInBatch == batchSize) {
+                insert.addRow(values);
+                lastKey = rows.lastKey();
+                bytesInBatch += bytes;
+                if (++rowsInBatch >= sizer.size() || bytesInBatch >= byteBudget) {
+                    logProgress(task, row, total);
+                    task.metrics.read(rowsInBatch, bytesInBatch, times);
+                    long start = System.nanoTime();
+                    flush(task, insert, rowsInBatch, bytesInBatch);
+                    if (commits.afterBatch(bytesInBatch)) {
+                        commit(target, task, lastKey);
+                    }
+                    if (rowsInBatch >= sizer.size()) {
+                        sizer.record(rowsInBatch, System.nanoTime() - start);
+                    }
+                    memory.release(bytesInBatch);
                     rowsInBatch = 0;
-                    LOG.info("Loading {} {}/{} rows ({}%)", targetTable.getName(), row, total, 100 * row / total);
-                    insert.executeBatch();
-                    target.commit();
+                    bytesInBatch = 0;
                 }
             }
 
             if (rowsInBatch != 0) {
-                LOG.info("Loading {} {}/{} rows ({}%)", targetTable.getName(), row, total, 100 * row / total);
-                insert.executeBatch();
-                target.commit();
+                logProgress(task, row, total);
+                task.metrics.read(rowsInBatch, bytesInBatch, times);
+                flush(task, insert, rowsInBatch, bytesInBatch);
+                if (commits.afterBatch(bytesInBatch)) {
+                    commit(target, task, lastKey);
+                }
+            }
+            if (policy.commitsTable() && commits.isPending()) {
+                commit(target, task, lastKey);
+            }
+        } finally {
+            memory.release(bytesInBatch);
+        }
+        return row;
+    }
+
+    /**
+     * Send the rows added to the writer to the target, counted in the metrics of the table.
+     */
+    private static void flush(CopyTask task, RowWriter insert, int rows, long bytes) throws SQLException {
+        long start = System.nanoTime();
+        insert.flush();
+        task.metrics.written(rows, bytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Commit the target and record the last key committed in the checkpoint.
+     */
+    private void commit(Database target, CopyTask task, Object lastKey) throws LiquibaseException {
+        long start = System.nanoTime();
+        target.commit();
+        task.metrics.committed(System.nanoTime() - start);
+        if (checkpoint != null && lastKey != null) {
+            checkpoint.committed(task, lastKey);
+        }
+    }
+
+    /**
+     * Create the writer for a table, loading in bulk if asked for and supported by the target.
+     */
+    private RowWriter rowWriterFor(Database target, CopyTask task, List<Column> columns,
+                                   List<ColumnDescriptor<?, ?>> converters) throws SQLException {
+        var targetConn = ((JdbcConnection) target.getConnection()).getUnderlyingConnection();
+        var support = Converters.supportFor(target);
+        if (incremental.get(task.getName()) != null) {
+            return new BatchInsertWriter(targetConn, upsertSql(target, task, columns), converters);
+        }
+        if (bulkLoad) {
+            var writer = support.bulkWriter(targetConn, task.targetTable, converters);
+            if (writer != null) {
+                return writer;
+            }
+            if (task.chunk == 0) {
+                LOG.info("Cannot bulk load {} in {}, using INSERT", task.getName(), target);
+            }
+        }
+
+        // A statement larger than the batch would never be filled
+        int rows = Math.min(Math.min(rowsPerInsert.get(task.getName()), support.maxRowsPerInsert(columns.size())),
+            task.batchSizer.size());
+        if (rows > 1) {
+            return new MultiRowInsertWriter(targetConn, n -> insertSqlForTable(task.targetTable, columns, n),
+                converters, rows);
+        }
+        return new BatchInsertWriter(targetConn, insertSqlForTable(task.targetTable, columns, 1), converters);
+    }
+
+    /**
+     * Statement inserting or updating rows by the primary key of the target table.
+     *
+     * @return statement or null if the table has no primary key or the target does not support upserts
+     */
+    private static String upsertSql(Database db, CopyTask task, List<Column> columns) {
+        var pk = task.targetTable.getPrimaryKey();
+        if (pk == null || pk.getColumns().isEmpty()) {
+            return null;
+        }
+        return Converters.supportFor(db).upsertSql(task.targetTable.getName(),
+            columns.stream().map(c -> db.escapeObjectName(c.getName(), Column.class)).toList(),
+            pk.getColumns().stream().map(c -> db.escapeObjectName(c.getName(), Column.class)).toList());
+    }
+
+    /**
+     * End the transaction some drivers require for streaming results,
+     * so that the source does not keep an old snapshot open between tables.
+     */
+    private static void endReadTransaction(Connection conn) {
+        try {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
             }
         } catch (SQLException e) {
-            throw new DatabaseException(e);
+            LOG.warn("Failed to end read transaction", e);
+        }
+    }
+
+    /**
+     * Copy rows with a separate reader thread, so that reading from the source
+     * overlaps with writing to the target.
+     */
+    private long copyRowsPipelined(CopyTask task, RowSource source, CopyMetrics.ReadTimes times, int columns,
+                                   RowWriter insert, Database target,
+                                   long total) throws SQLException, InterruptedException, LiquibaseException {
+        var sizer = task.batchSizer;
+        long byteBudget = batchBytes.get(task.getName());
+        var policy = task.commitPolicy;
+        var commits = policy.start();
+        RowPipeline.Reader reader = p -> {
+            var rows = new ArrayList<Object[]>(sizer.size());
+            long bytesInBatch = 0;
+            Object batchKey = null;
+            try {
+                while (!p.isClosed()) {
+                    var values = new Object[columns];
+                    if (!source.next(values)) {
+                        break;
+                    }
+                    long bytes = 0;
+                    for (var val : values) {
+                        bytes += ColumnDescriptor.estimateSize(val);
+                    }
+
+                    if (!memory.tryAcquire(bytes)) {
+                        // Hand over the partial batch before waiting, the writer may be waiting for it
+                        if (!rows.isEmpty()) {
+                            task.metrics.read(rows.size(), bytesInBatch, times);
+                            p.put(rows, bytesInBatch, batchKey);
+                            rows = new ArrayList<>(sizer.size());
+                            bytesInBatch = 0;
+                        }
+                        memory.acquire(bytes);
+                    }
+
+                    rows.add(values);
+                    batchKey = source.lastKey();
+                    bytesInBatch += bytes;
+                    if (rows.size() >= sizer.size() || bytesInBatch >= byteBudget) {
+                        task.metrics.read(rows.size(), bytesInBatch, times);
+                        p.put(rows, bytesInBatch, batchKey);
+                        rows = new ArrayList<>(sizer.size());
+                        bytesInBatch = 0;
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    task.metrics.read(rows.size(), bytesInBatch, times);
+                    p.put(rows, bytesInBatch, batchKey);
+                    bytesInBatch = 0;
+                }
+            } finally {
+                memory.release(bytesInBatch);
+            }
+        };
+
+        var pipeline = new RowPipeline(Thread.currentThread().getName() + "-reader", queueDepth, memory, reader).start();
+        long row = 0;
+        Object lastKey = null;
+        try {
+            RowPipeline.Batch batch;
+            while ((batch = pipeline.take()) != null) {
+                var rows = batch.rows();
+                try {
+                    if (batch.lastKey() != null) {
+                        lastKey = batch.lastKey();
+                    }
+                    for (var values : rows) {
+                        insert.addRow(values);
+                    }
+
+                    row += rows.size();
+                    logProgress(task, row, total);
+                    long start = System.nanoTime();
+                    flush(task, insert, rows.size(), batch.bytes());
+                    if (commits.afterBatch(batch.bytes())) {
+                        commit(target, task, lastKey);
+                    }
+                    if (rows.size() >= sizer.size()) {
+                        sizer.record(rows.size(), System.nanoTime() - start);
+                    }
+                } finally {
+                    memory.release(batch.bytes());
+                }
+            }
+            if (policy.commitsTable() && commits.isPending()) {
+                commit(target, task, lastKey);
+            }
+        } finally {
+            pipeline.close();
+        }
+
+        LOG.info("Loaded {}: waited {} ms for source and {} ms for target",
+            task, pipeline.getWriterWaitMillis(), pipeline.getReaderWaitMillis());
+        return row;
+    }
+
+    /**
+     * Log progress of copying a table. The total is an estimate unless counted exactly,
+     * so the percentage is capped and omitted if the total is not known.
+     */
+    private static void logProgress(CopyTask task, long row, long total) {
+        if (total > 0) {
+            LOG.info("Loading {} {}/{} rows ({}%)", task, row, total, Math.min(100 * row / total, 100));
+        } else {
+            LOG.info("Loading {} {} rows", task, row);
         }
     }
 
@@ -748,7 +2808,25 @@ public class CopyDb {
         db.commit();
     }
 
-    private String insertSqlForTable(Table table, List<Column> columns) {
+    /**
+     * Select only the source columns that are copied, in the same order as the converters,
+     * so that columns can be read by index.
+     */
+    private static String selectSqlForTable(Database db, Table table, List<ColumnDescriptor<?, ?>> converters) {
+        var sql = new StringBuilder();
+        sql.append("SELECT ");
+        for (int i = 0; i < converters.size(); i++) {
+            if (i != 0) {
+                sql.append(',');
+            }
+            sql.append(db.escapeObjectName(converters.get(i).getSource().getName(), Column.class));
+        }
+        sql.append(" FROM ");
+        sql.append(table.getName());
+        return sql.toString();
+    }
+
+    private static String insertSqlForTable(Table table, List<Column> columns, int rows) {
         var sql = new StringBuilder();
         sql.append("INSERT INTO ");
         sql.append(table.getName());
@@ -759,17 +2837,35 @@ public class CopyDb {
             }
             sql.append(columns.get(i).getName());
         }
-        sql.append(") VALUES(");
-        for (int i = 0; i < columns.size(); i++) {
-            sql.append(i == 0 ? "?" : ",?");
+        sql.append(") VALUES");
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "(" : ",(");
+            for (int i = 0; i < columns.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(")");
         }
-        sql.append(")");
         return sql.toString();
     }
 
+    private static boolean canDisableForeignKeys(Database db) {
+        return Set.of("h2", "oracle", "mysql", "mariadb", "postgresql").contains(db.getShortName());
+    }
+
+    /**
+     * Test if disabling foreign keys only affects the current session,
+     * in which case it must be done for each connection.
+     */
+    private static boolean isSessionScopedForeignKeys(Database db) {
+        return Set.of("mysql", "mariadb", "postgresql").contains(db.getShortName());
+    }
+
     private void toggleForeignKeys(DatabaseSnapshot snapshot, boolean enable) throws LiquibaseException {
+        toggleForeignKeys(snapshot.getDatabase(), snapshot, enable);
+    }
+
+    private void toggleForeignKeys(Database db, DatabaseSnapshot snapshot, boolean enable) throws LiquibaseException {
         List<SqlStatement> stmts = new ArrayList<>();
-        var db = snapshot.getDatabase();
         if ("h2".equals(db.getShortName())) {
             stmts.add(new RawParameterizedSqlStatement("SET REFERENTIAL_INTEGRITY " + enable));
         } else if ("oracle".equals(db.getShortName())) {
@@ -834,6 +2930,10 @@ public class CopyDb {
     }
 
     private ClassLoader createClassLoader(ClassLoader parent) {
+        if (classpath == null) {
+            return parent;
+        }
+
         final List<URL> urls = new ArrayList<>();
         for (String classpathEntry : classpath.split(File.pathSeparator)) {
             File f = new File(classpathEntry);
@@ -854,10 +2954,10 @@ public class CopyDb {
         }
     }
 
-    private void runChangelog(Database targetDb) throws Exception {
+    private void runChangelog(Database targetDb, String changelog) throws Exception {
         var classLoader = createClassLoader(Thread.currentThread().getContextClassLoader());
         Scope.child(Scope.Attr.classLoader, classLoader, () -> {
-            var liquibase = new Liquibase(resolvedChangelog, resourceAccessor, targetDb);
+            var liquibase = new Liquibase(changelog, resourceAccessor, targetDb);
             liquibase.update(tag, new Contexts(contexts), new LabelExpression(labelFilter));
             tableFilter.getExclude().addAll(Arrays.asList("DATABASECHANGELOG", "DATABASECHANGELOGLOCK"));
         });
@@ -886,15 +2986,23 @@ public class CopyDb {
                 command.execute();
             }
 
-            fixupAutoChangeLog(sourceDb, targetDb, changeLogPath);
+            var postDataPath = changeLogPath.resolveSibling("changelog.auto.post.xml");
+            fixupAutoChangeLog(sourceDb, targetDb, changeLogPath, postDataPath);
             resolvedChangelog = changeLogPath.getFileName().toString();
+            postDataChangelog = Files.exists(postDataPath) ? postDataPath.getFileName().toString() : null;
             resourceAccessor = new DirectoryResourceAccessor(changeLogPath.getParent());
         } catch (IOException e) {
             throw new LiquibaseException("Could not create changelog");
         }
     }
 
-    private void fixupAutoChangeLog(Database sourceDb, Database targetDb, Path path) throws IOException, LiquibaseException {
+    /**
+     * Adapt a generated changelog to the target database and split it in two: the tables, sequences and
+     * primary keys created before copying, and the indexes, unique constraints and foreign keys created
+     * after copying at {@code postDataPath}, so that rows are loaded without maintaining them.
+     */
+    private void fixupAutoChangeLog(Database sourceDb, Database targetDb, Path path, Path postDataPath)
+        throws IOException, LiquibaseException {
         var accessor = new DirectoryResourceAccessor(path.getParent());
         var parser = ChangeLogParserFactory.getInstance().getParser(path.getFileName().toString(), accessor);
         var changeLog = parser.parse(path.getFileName().toString(), new ChangeLogParameters(), accessor);
@@ -902,15 +3010,13 @@ public class CopyDb {
         boolean crossDb = !sourceDb.getShortName().equals(targetDb.getShortName());
         boolean fromOracle = "oracle".equals(sourceDb.getShortName());
         var changeSets = new ArrayList<ChangeSet>();
+        var postDataChangeSets = new ArrayList<ChangeSet>();
         int changeSetIndex = 0;
         var sourceSequenceMaxMax = DB_TYPE_SEQUENCE_MAX_MAX.get(sourceDb.getShortName());
         var targetSequenceMaxMax = DB_TYPE_SEQUENCE_MAX_MAX.get(targetDb.getShortName());
         for (var changeSet : changeLog.getChangeSets()) {
-            var outputChangeSet = new ChangeSet(String.valueOf(++changeSetIndex), changeSet.getAuthor(),
-                changeSet.isAlwaysRun(), changeSet.isRunOnChange(),
-                changeSet.getFilePath(),
-                null, null,
-                null, null);
+            ChangeSet outputChangeSet = null;
+            ChangeSet postDataChangeSet = null;
             for (var change : changeSet.getChanges()) {
                 if (change instanceof CreateSequenceChange create) {
                     var max = create.getMaxValue();
@@ -956,15 +3062,43 @@ public class CopyDb {
                         }
                     }
                 }
-                outputChangeSet.addChange(change);
+
+                if (change instanceof CreateIndexChange || change instanceof AddUniqueConstraintChange
+                    || change instanceof AddForeignKeyConstraintChange) {
+                    if (postDataChangeSet == null) {
+                        postDataChangeSet = autoChangeSet(++changeSetIndex, changeSet);
+                        postDataChangeSets.add(postDataChangeSet);
+                    }
+                    postDataChangeSet.addChange(change);
+                } else {
+                    if (outputChangeSet == null) {
+                        outputChangeSet = autoChangeSet(++changeSetIndex, changeSet);
+                        changeSets.add(outputChangeSet);
+                    }
+                    outputChangeSet.addChange(change);
+                }
             }
-            changeSets.add(outputChangeSet);
         }
 
+        var serializer = new XMLChangeLogSerializer();
         try (var os = Files.newOutputStream(path)) {
-            var serializer = new XMLChangeLogSerializer();
             serializer.write(changeSets, os);
         }
+        if (postDataChangeSets.isEmpty()) {
+            Files.deleteIfExists(postDataPath);
+        } else {
+            try (var os = Files.newOutputStream(postDataPath)) {
+                serializer.write(postDataChangeSets, os);
+            }
+        }
+    }
+
+    private static ChangeSet autoChangeSet(int id, ChangeSet changeSet) {
+        return new ChangeSet(String.valueOf(id), changeSet.getAuthor(),
+            changeSet.isAlwaysRun(), changeSet.isRunOnChange(),
+            changeSet.getFilePath(),
+            null, null,
+            null, null);
     }
 
     private DatabaseConnection getDatabaseConnection(JdbcProperties properties) throws DatabaseException {
@@ -189,6 +189,9 @@ public class CopyDbCli {
         var version = getVersion();
         os.printf("""
             Syntax: copydb [OPTIONS]
+                    copydb export --spool-dir=DIR [OPTIONS]
+                    copydb import --spool-dir=DIR [OPTIONS]
+                    copydb verify [OPTIONS]
 
             Version: %s
             """, version);
@@ -238,6 +241,92 @@ public class CopyDbCli {
               --truncate              truncate target database tables [COPYDB_TRUNCATE]
               --disable-foreign-keys  disable foreign keys during copy (default: true)
                                       [COPYDB_DISABLE_FOREIGN_KEYS]
+              --batch-size=N[,T=N..]  rows per batch insert (default: 500)
+                                      [COPYDB_BATCH_SIZE]
+              --adaptive-batch-size   adjust the batch size of each table to maximize
+                                      throughput, except for tables given a batch size
+                                      [COPYDB_ADAPTIVE_BATCH_SIZE]
+              --min-batch-size=N      smallest adaptive batch size (default: 100)
+                                      [COPYDB_MIN_BATCH_SIZE]
+              --max-batch-size=N      largest adaptive batch size (default: 50000)
+                                      [COPYDB_MAX_BATCH_SIZE]
+              --batch-bytes=SIZE[,T=SIZE..]
+                                      send a batch early when its rows reach SIZE bytes,
+                                      e.g. 64M (default: 32M) [COPYDB_BATCH_BYTES]
+              --max-memory=SIZE       bytes of rows held by all tables at a time, reading
+                                      waits when reached (default: 1/4 of the maximum
+                                      heap size, 0 for no limit) [COPYDB_MAX_MEMORY]
+              --commit=POLICY[,T=POLICY..]
+                                      when to commit: batch, batches:N, bytes:SIZE,
+                                      seconds:N, table or run (default: batch)
+                                      [COPYDB_COMMIT]
+              -j, --parallel=N        copy N tables at a time using separate connections,
+                                      largest tables first (default: 1) [COPYDB_PARALLEL]
+              --chunk-threshold=ROWS[,T=ROWS..]
+                                      split tables with at least ROWS rows into primary
+                                      key ranges copied in parallel [COPYDB_CHUNK_THRESHOLD]
+              --chunks=N              number of chunks per table (default: 4 x parallel)
+                                      [COPYDB_CHUNKS]
+              --fetch-size=N[,T=N..]  rows fetched from the source per round-trip
+                                      (default: depends on database) [COPYDB_FETCH_SIZE]
+              --pipeline              read and write each table in separate threads
+                                      [COPYDB_PIPELINE]
+              --queue-depth=N         batches buffered between reader and writer
+                                      (default: 4) [COPYDB_QUEUE_DEPTH]
+              --bulk-load             load with the fastest method of the target database,
+                                      COPY for PostgreSQL, falling back to INSERT for
+                                      tables with other column types [COPYDB_BULK_LOAD]
+              --rows-per-insert=N[,T=N..]
+                                      rows per INSERT statement, up to the number of
+                                      parameters the target allows (default: 1)
+                                      [COPYDB_ROWS_PER_INSERT]
+              --page-size=N[,T=N..]   read tables with a single column primary key in
+                                      pages of N rows ordered by the key, instead of
+                                      in one query (default: 0, one query)
+                                      [COPYDB_PAGE_SIZE]
+              --checkpoint=FILE       record the progress of each table in FILE
+                                      [COPYDB_CHECKPOINT]
+              --resume                skip tables the checkpoint records as copied and
+                                      continue paged tables after their last key,
+                                      deleting rows copied after it [COPYDB_RESUME]
+              --incremental=COLUMN[,T=COLUMN..]
+                                      copy only rows whose COLUMN is at least its largest
+                                      value copied by the last run, upserting them by
+                                      primary key; rows deleted from the source are not
+                                      deleted from the target [COPYDB_INCREMENTAL]
+              --watermarks=FILE       file keeping the largest value copied per table
+                                      between incremental runs [COPYDB_WATERMARKS]
+              --sync                  make target tables equal to the source by comparing
+                                      hashes of primary key ranges, writing only rows
+                                      that differ; tables need a single column primary
+                                      key [COPYDB_SYNC]
+              --verify                compare row counts and hashes of each table, in
+                                      key ranges and in parallel, after copying; the
+                                      verify command compares without copying
+                                      [COPYDB_VERIFY]
+              --verify-report=FILE    write compared ranges as JSON lines to FILE
+                                      instead of standard output [COPYDB_VERIFY_REPORT]
+              --defer-indexes         drop non-unique indexes of target tables while
+                                      copying and recreate them in parallel afterwards
+                                      [COPYDB_DEFER_INDEXES]
+              --index-file=FILE       file keeping the DDL of dropped indexes until they
+                                      are recreated, recreated by the next run if a copy
+                                      fails (default: copydb-indexes.sql)
+                                      [COPYDB_INDEX_FILE]
+              --snapshot-cache=DIR    keep snapshots of the database structure in DIR
+                                      and reuse them while the schema is unchanged,
+                                      for PostgreSQL, Oracle, SQL Server, MySQL, H2
+                                      and SQLite [COPYDB_SNAPSHOT_CACHE]
+              --refresh-snapshot-cache
+                                      snapshot again, replacing cached snapshots
+                                      [COPYDB_REFRESH_SNAPSHOT_CACHE]
+              --lazy-metadata         list tables by name and load the columns of each
+                                      table while copying, instead of snapshotting
+                                      both schemas first, for copying a few tables of
+                                      a large schema [COPYDB_LAZY_METADATA]
+              --row-count=MODE        how to count source rows for progress and
+                                      ordering: estimate from statistics, exact
+                                      or none (default: estimate) [COPYDB_ROW_COUNT]
 
             Sequences:
               --copy-sequences        enable copying of sequences [COPYDB_SEQUENCES_ENABLED]
@@ -246,6 +335,17 @@ public class CopyDbCli {
               -xs S1                  exclude sequences [COPYDB_SEQUENCES_EXCLUDE]
               --exclude-sequence S
 
+            Spool:
+              export                  write the source tables to compressed spool files,
+                                      one per table, without a target database
+              import                  load the spool files into the target database,
+                                      without a source database
+              --spool-dir=DIR         directory of the spool files [COPYDB_SPOOL_DIR]
+
+            Import uses the table, changelog and loading options of a copy, and
+            loads large files in parallel chunks with --parallel. Text and binary
+            values, LOBs included, are spooled up to 16 MiB each.
+
             General
               --properties=FILE       load settings from properties file
               --disable-triggers      disable triggers during copy (default: true)
@@ -326,6 +426,7 @@ public class CopyDbCli {
         System.setProperty("org.slf4j.simpleLogger.log.liquibase.executor", "warn");
 
         var copier = new CopyDb();
+        String command = "copy";
         try {
             Properties commandLineArgs = new Properties();
             var propertySources = new ArrayList<PropertySource>();
@@ -475,6 +576,37 @@ public class CopyDbCli {
                     commandLineArgs.put(parser.opt, Boolean.toString(parser.flag));
                 } else if (parser.arg("batch-size") || parser.arg("batch")) {
                     commandLineArgs.put("batch-size", parser.val);
+                } else if (parser.flag("adaptive-batch-size")) {
+                    commandLineArgs.put("adaptive-batch-size", Boolean.toString(parser.flag));
+                } else if (parser.arg("min-batch-size") || parser.arg("max-batch-size")
+                    || parser.arg("batch-bytes") || parser.arg("max-memory") || parser.arg("commit")) {
+                    commandLineArgs.put(parser.opt, parser.val);
+                } else if (parser.arg("parallel") || parser.arg("jobs") || parser.arg("j")) {
+                    commandLineArgs.put("parallel", parser.val);
+                } else if (parser.arg("chunk-threshold") || parser.arg("chunks")) {
+                    commandLineArgs.put(parser.opt, parser.val);
+                } else if (parser.arg("fetch-size")) {
+                    commandLineArgs.put("fetch-size", parser.val);
+                } else if (parser.flag("pipeline")) {
+                    commandLineArgs.put("pipeline", Boolean.toString(parser.flag));
+                } else if (parser.arg("queue-depth")) {
+                    commandLineArgs.put("queue-depth", parser.val);
+                } else if (parser.flag("bulk-load")) {
+                    commandLineArgs.put("bulk-load", Boolean.toString(parser.flag));
+                } else if (parser.arg("rows-per-insert")) {
+                    commandLineArgs.put("rows-per-insert", parser.val);
+                } else if (parser.arg("row-count")) {
+                    commandLineArgs.put("row-count", parser.val);
+                } else if (parser.arg("spool-dir")) {
+                    commandLineArgs.put("spool-dir", parser.val);
+                } else if (parser.arg("page-size") || parser.arg("checkpoint")
+                    || parser.arg("incremental") || parser.arg("watermarks") || parser.arg("verify-report")
+                    || parser.arg("index-file") || parser.arg("snapshot-cache")) {
+                    commandLineArgs.put(parser.opt, parser.val);
+                } else if (parser.flag("resume") || parser.flag("sync") || parser.flag("verify")
+                    || parser.flag("defer-indexes") || parser.flag("refresh-snapshot-cache")
+                    || parser.flag("lazy-metadata")) {
+                    commandLineArgs.put(parser.opt, Boolean.toString(parser.flag));
                 } else if (parser.arg("changelog") || parser.arg("changelog-file")) {
                     commandLineArgs.put("changelog", parser.val);
                 } else if (parser.arg("classpath") || parser.arg("class-path") || parser.arg("cp")) {
@@ -563,6 +695,8 @@ public class CopyDbCli {
                     System.exit(0);
                 } else if (parser.current().startsWith("-")) {
                     throw new CliException("invalid option: " + parser.current(), true);
+                } else if (parser.idx == 0 && List.of("copy", "export", "import", "verify").contains(parser.current())) {
+                    command = parser.next();
                 } else {
                     throw new CliException("too many arguments: " + parser.current(), true);
                 }
@@ -576,43 +710,97 @@ public class CopyDbCli {
 
             var source = copier.getSource();
             var target = copier.getTarget();
+            boolean needsSource = !"import".equals(command);
+            boolean needsTarget = !"export".equals(command);
+
+            if (!needsSource && target.getUrl() == null) {
+                // The only database given is the one to import into
+                target.setUrl(source.getUrl());
+                target.setUsername(source.getUsername());
+                target.setPassword(source.getPassword());
+            }
 
-            if (source.getUrl() == null || target.getUrl() == null) {
+            if (needsSource && needsTarget && (source.getUrl() == null || target.getUrl() == null)) {
                 throw new CliException("Source and target URL:s not specified");
+            } else if (needsSource && source.getUrl() == null) {
+                throw new CliException("Source URL not specified");
+            } else if (needsTarget && target.getUrl() == null) {
+                throw new CliException("Target URL not specified");
+            }
+
+            if (("export".equals(command) || "import".equals(command)) && copier.getSpoolDir() == null) {
+                throw new CliException("Spool directory not specified");
             }
 
-            if (source.getUsername() == null && target.getUsername() != null) {
-                source.setUsername(target.getUsername());
-            } else if (source.getUsername() == null) {
-                throw new CliException("Source database user not specified");
+            if (copier.isResume() && copier.getCheckpoint() == null) {
+                throw new CliException("--resume requires --checkpoint");
+            } else if (copier.isResume() && !Files.exists(Paths.get(copier.getCheckpoint()))) {
+                throw new CliException("Checkpoint " + copier.getCheckpoint() + " not found, nothing to resume");
             }
 
-            if (source.getPassword() == null) {
-                var console = System.console();
-                if (console == null) {
-                    throw new CliException("Source database password not specified");
+            if (copier.getIncremental() != null || copier.getWatermarks() != null) {
+                if (copier.getWatermarks() == null) {
+                    throw new CliException("--incremental requires --watermarks");
+                } else if (copier.isTruncate()) {
+                    throw new CliException("--incremental cannot be combined with --truncate");
                 }
+            }
 
-                var psw = console.readPassword("Source database password: ");
-                if (psw != null) {
-                    source.setPassword(new String(psw));
+            if (copier.isSync()) {
+                if (!"copy".equals(command)) {
+                    throw new CliException("--sync only applies to copy");
+                } else if (copier.isTruncate() || copier.getIncremental() != null) {
+                    throw new CliException("--sync cannot be combined with --truncate or --incremental");
                 }
             }
 
-            if (target.getUsername() == null) {
-                target.setUsername(source.getUsername());
-                if (target.getPassword() == null) {
-                    target.setPassword(source.getPassword());
+            if (copier.isDeferIndexes() && ("export".equals(command) || "verify".equals(command))) {
+                throw new CliException("--defer-indexes only applies to copy and import");
+            }
+
+            if (copier.isLazyMetadata() && !"copy".equals(command)) {
+                throw new CliException("--lazy-metadata only applies to copy");
+            }
+
+            if (needsSource) {
+                if (source.getUsername() == null && target.getUsername() != null) {
+                    source.setUsername(target.getUsername());
+                } else if (source.getUsername() == null) {
+                    throw new CliException("Source database user not specified");
                 }
-            } else if (target.getPassword() == null) {
-                var console = System.console();
-                if (console == null) {
-                    throw new CliException("Target database password not specified");
+
+                if (source.getPassword() == null) {
+                    var console = System.console();
+                    if (console == null) {
+                        throw new CliException("Source database password not specified");
+                    }
+
+                    var psw = console.readPassword("Source database password: ");
+                    if (psw != null) {
+                        source.setPassword(new String(psw));
+                    }
                 }
+            }
 
-                var psw = console.readPassword("Target database password: ");
-                if (psw != null) {
-                    target.setPassword(new String(psw));
+            if (needsTarget) {
+                if (target.getUsername() == null) {
+                    if (source.getUsername() == null) {
+                        throw new CliException("Target database user not specified");
+                    }
+                    target.setUsername(source.getUsername());
+                    if (target.getPassword() == null) {
+                        target.setPassword(source.getPassword());
+                    }
+                } else if (target.getPassword() == null) {
+                    var console = System.console();
+                    if (console == null) {
+                        throw new CliException("Target database password not specified");
+                    }
+
+                    var psw = console.readPassword("Target database password: ");
+                    if (psw != null) {
+                        target.setPassword(new String(psw));
+                    }
                 }
             }
 
@@ -625,7 +813,12 @@ public class CopyDbCli {
         }
 
         long start = System.currentTimeMillis();
-        copier.copy();
+        switch (command) {
+            case "export" -> copier.exportSpool();
+            case "import" -> copier.importSpool();
+            case "verify" -> copier.verify();
+            default -> copier.copy();
+        }
         long end = System.currentTimeMillis();
         CopyDb.LOG.info("Finished ({})", String.format("%.2f s", (end - start) / 1000.0));
     }
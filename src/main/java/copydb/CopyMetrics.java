@@ -0,0 +1,301 @@
+package copydb;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a run copying tables, registered as MBeans {@code copydb:type=Run} and
+ * {@code copydb:type=Table} for each table while the tables are copied.
+ * <p>
+ * Counters are updated once per batch by the threads copying the tables, and only with adders and
+ * atomic increments, so that workers copying chunks of the same table do not contend on locks.
+ */
+final class CopyMetrics {
+
+    private static final String DOMAIN = "copydb";
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private final int run = RUNS.incrementAndGet();
+    private final Counters total = new Counters(null);
+    private final Map<String, Counters> tables = new LinkedHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    CopyMetrics(Collection<String> tableNames) {
+        for (var name : tableNames) {
+            tables.computeIfAbsent(name, n -> new Counters(total));
+        }
+    }
+
+    /**
+     * Counters of a table, shared by its chunks.
+     */
+    Counters table(String name) {
+        var counters = tables.get(name);
+        if (counters == null) {
+            throw new IllegalArgumentException("Not copying " + name);
+        }
+        return counters;
+    }
+
+    /**
+     * Register the MBeans with the platform MBean server.
+     */
+    void register() throws JMException {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        register(server, new ObjectName(DOMAIN + ":type=Run,id=" + run), total);
+        for (var table : tables.entrySet()) {
+            register(server, new ObjectName(DOMAIN + ":type=Table,run=" + run + ",name=" + quoted(table.getKey())),
+                table.getValue());
+        }
+    }
+
+    private void register(MBeanServer server, ObjectName name, Counters counters) throws JMException {
+        server.registerMBean(new StandardMBean(counters, CopyMetricsMXBean.class, true), name);
+        registered.add(name);
+    }
+
+    /**
+     * Unregister the MBeans registered, the counters can still be read.
+     */
+    void unregister() {
+        var server = ManagementFactory.getPlatformMBeanServer();
+        for (var name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+                // Unregistered by someone else
+            }
+        }
+        registered.clear();
+    }
+
+    private static String quoted(String value) {
+        return value.chars().anyMatch(c -> ",=:\"*?\n".indexOf(c) >= 0) ? ObjectName.quote(value) : value;
+    }
+
+    /**
+     * Time spent reading rows since the last batch, by the thread reading them.
+     */
+    static final class ReadTimes {
+        long fetchNanos;
+        long conversionNanos;
+
+        /**
+         * Rows of a source not told apart from their conversion, timed as fetched.
+         */
+        RowSource fetching(RowSource rows) {
+            return new RowSource() {
+                @Override
+                public boolean next(Object[] values) throws SQLException {
+                    long start = System.nanoTime();
+                    try {
+                        return rows.next(values);
+                    } finally {
+                        fetchNanos += System.nanoTime() - start;
+                    }
+                }
+
+                @Override
+                public Object lastKey() {
+                    return rows.lastKey();
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    rows.close();
+                }
+            };
+        }
+    }
+
+    /**
+     * Counters of a table or of the run, those of a table also counted for the run.
+     */
+    static final class Counters implements CopyMetricsMXBean {
+        private final Counters parent;
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder rowsWritten = new LongAdder();
+        private final LongAdder bytesWritten = new LongAdder();
+        private final AtomicLong firstRead = new AtomicLong(Long.MIN_VALUE);
+        private final LongAccumulator lastWritten = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final Histogram fetch = new Histogram();
+        private final Histogram conversion = new Histogram();
+        private final Histogram executeBatch = new Histogram();
+        private final Histogram commit = new Histogram();
+
+        private Counters(Counters parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Count a batch read, with the time spent reading it since the last batch.
+         */
+        void read(int rows, long bytes, ReadTimes times) {
+            read(rows, bytes, times.fetchNanos, times.conversionNanos, System.nanoTime());
+            times.fetchNanos = 0;
+            times.conversionNanos = 0;
+        }
+
+        private void read(int rows, long bytes, long fetchNanos, long conversionNanos, long now) {
+            firstRead.compareAndSet(Long.MIN_VALUE, now - fetchNanos - conversionNanos);
+            rowsRead.add(rows);
+            bytesRead.add(bytes);
+            fetch.record(fetchNanos);
+            conversion.record(conversionNanos);
+            if (parent != null) {
+                parent.read(rows, bytes, fetchNanos, conversionNanos, now);
+            }
+        }
+
+        /**
+         * Count a batch written, with the time taken executing it.
+         */
+        void written(int rows, long bytes, long nanos) {
+            rowsWritten.add(rows);
+            bytesWritten.add(bytes);
+            lastWritten.accumulate(System.nanoTime());
+            executeBatch.record(nanos);
+            if (parent != null) {
+                parent.written(rows, bytes, nanos);
+            }
+        }
+
+        void committed(long nanos) {
+            commit.record(nanos);
+            if (parent != null) {
+                parent.committed(nanos);
+            }
+        }
+
+        @Override
+        public long getRowsRead() {
+            return rowsRead.sum();
+        }
+
+        @Override
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        @Override
+        public long getRowsWritten() {
+            return rowsWritten.sum();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            return bytesWritten.sum();
+        }
+
+        @Override
+        public double getRowsPerSecond() {
+            long first = firstRead.get();
+            long last = lastWritten.get();
+            long rows = rowsWritten.sum();
+            return first != Long.MIN_VALUE && last > first ? rows * 1e9 / (last - first) : 0;
+        }
+
+        @Override
+        public Latency getFetchLatency() {
+            return fetch.latency();
+        }
+
+        @Override
+        public Latency getConversionLatency() {
+            return conversion.latency();
+        }
+
+        @Override
+        public Latency getExecuteBatchLatency() {
+            return executeBatch.latency();
+        }
+
+        @Override
+        public Latency getCommitLatency() {
+            return commit.latency();
+        }
+    }
+
+    /**
+     * Histogram of latencies in buckets of a quarter of each power of two from 1 µs to about an hour,
+     * latencies below in the first bucket and above in the last.
+     */
+    static final class Histogram {
+        private static final int MIN_EXPONENT = 10;
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 1 + 32 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            counts.incrementAndGet(bucket(nanos));
+            sum.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        static int bucket(long nanos) {
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            if (exponent < MIN_EXPONENT) {
+                return 0;
+            }
+            int sub = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return Math.min(1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub, BUCKETS - 1);
+        }
+
+        /**
+         * @return nanoseconds the latencies in a bucket are below
+         */
+        static long upperBound(int bucket) {
+            if (bucket == 0) {
+                return 1L << MIN_EXPONENT;
+            }
+            int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+            int sub = (bucket - 1) % SUB_BUCKETS;
+            return (long) (SUB_BUCKETS + sub + 1) << (exponent - 2);
+        }
+
+        CopyMetricsMXBean.Latency latency() {
+            var snapshot = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                count += snapshot[i];
+            }
+            long maxNanos = max.get();
+            return new CopyMetricsMXBean.Latency(count, count > 0 ? sum.sum() / 1e6 / count : 0,
+                percentile(snapshot, count, 0.5, maxNanos), percentile(snapshot, count, 0.9, maxNanos),
+                percentile(snapshot, count, 0.99, maxNanos), maxNanos / 1e6);
+        }
+
+        private static double percentile(long[] counts, long count, double p, long maxNanos) {
+            long rank = (long) Math.ceil(p * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length && count > 0; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxNanos) / 1e6;
+                }
+            }
+            return 0;
+        }
+    }
+}
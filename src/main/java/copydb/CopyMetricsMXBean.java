@@ -0,0 +1,84 @@
+package copydb;
+
+/**
+ * Live metrics of copying a table, or all tables of a run, published over JMX while copying, e.g.
+ * for JConsole under {@code copydb}. Bytes are estimated as the converted values take in memory.
+ * <p>
+ * Latencies are of batches: the time to fetch the rows of a batch from the source and to convert
+ * them, to execute the batch in the target and to commit it, so that a slow source, conversion or
+ * target shows as the latency of that step.
+ */
+public interface CopyMetricsMXBean {
+
+    long getRowsRead();
+
+    long getBytesRead();
+
+    long getRowsWritten();
+
+    long getBytesWritten();
+
+    /**
+     * Rows written per second since the first batch was read until the last was written.
+     */
+    double getRowsPerSecond();
+
+    Latency getFetchLatency();
+
+    Latency getConversionLatency();
+
+    Latency getExecuteBatchLatency();
+
+    Latency getCommitLatency();
+
+    /**
+     * Latencies of a step, percentiles are the upper bounds of histogram buckets 25% wide.
+     */
+    final class Latency {
+        private final long count;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p90Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        Latency(long count, double meanMillis, double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+            this.count = count;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p90Millis = p90Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMillis() {
+            return meanMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP90Millis() {
+            return p90Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d, mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms",
+                count, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis);
+        }
+    }
+}
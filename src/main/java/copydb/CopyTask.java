@@ -0,0 +1,190 @@
+package copydb;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.structure.core.Table;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A table, or a chunk of a table, to be copied by a copy worker.
+ */
+class CopyTask {
+
+    /**
+     * The tables, only named until their metadata is loaded if the task was {@link #listed}.
+     */
+    Table sourceTable;
+    Table targetTable;
+
+    /**
+     * Key range of a chunk or null if the whole table is copied.
+     */
+    final KeyRange range;
+
+    /**
+     * Chunks of a spool file the rows are read from or null if read from the source database.
+     */
+    final SpoolReader.Part spool;
+
+    /**
+     * The table task this chunk was split from or null if not a chunk.
+     */
+    final CopyTask parent;
+    final int chunk;
+    final int chunks;
+
+    /**
+     * Number of rows in the source table, possibly estimated, or -1 if not known.
+     */
+    long rows = -1;
+
+    /**
+     * Batch sizes of the table, shared by its chunks.
+     */
+    BatchSizer batchSizer;
+
+    /**
+     * When rows of the table are committed in this run.
+     */
+    CommitPolicy commitPolicy;
+
+    /**
+     * Metrics of the table, shared by its chunks.
+     */
+    CopyMetrics.Counters metrics;
+
+    /**
+     * Column selecting the rows changed since the last incremental copy or null to copy all rows.
+     */
+    String watermarkColumn;
+
+    /**
+     * Rows with a watermark of at least this value are copied, all rows if null.
+     */
+    Object watermark;
+
+    /**
+     * Watermark to record when the table has been copied.
+     */
+    Object nextWatermark;
+
+    private final AtomicLong copied = new AtomicLong();
+    private CompletableFuture<Void> metadata = CompletableFuture.completedFuture(null);
+
+    CopyTask(Table sourceTable, Table targetTable) {
+        this(sourceTable, targetTable, null, null, null, 0, 0);
+    }
+
+    /**
+     * Create a task for loading a spool file, with the table as it was in the source database.
+     */
+    CopyTask(SpoolReader.Part spool, Table targetTable) {
+        this(spool.reader().getTable(), targetTable, null, spool, null, 0, 0);
+        this.rows = spool.rows();
+    }
+
+    /**
+     * Create a task for tables listed by name, whose columns and keys are {@link #loaded} later.
+     */
+    static CopyTask listed(Table sourceTable, Table targetTable) {
+        var task = new CopyTask(sourceTable, targetTable);
+        task.metadata = new CompletableFuture<>();
+        return task;
+    }
+
+    private CopyTask(Table sourceTable, Table targetTable, KeyRange range, SpoolReader.Part spool,
+                     CopyTask parent, int chunk, int chunks) {
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+        this.range = range;
+        this.spool = spool;
+        this.parent = parent;
+        this.chunk = chunk;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Create a task for copying a chunk of this table.
+     */
+    CopyTask chunk(KeyRange range, int chunk, int chunks) {
+        var task = new CopyTask(sourceTable, targetTable, range, null, this, chunk, chunks);
+        task.rows = rows < 0 ? -1 : rows / chunks;
+        task.batchSizer = batchSizer;
+        task.commitPolicy = commitPolicy;
+        task.metrics = metrics;
+        task.watermarkColumn = watermarkColumn;
+        task.watermark = watermark;
+        return task;
+    }
+
+    /**
+     * Create a task for loading a part of the spool file of this table.
+     */
+    CopyTask chunk(SpoolReader.Part part, int chunk, int chunks) {
+        var task = new CopyTask(sourceTable, targetTable, null, part, this, chunk, chunks);
+        task.rows = part.rows();
+        task.batchSizer = batchSizer;
+        task.commitPolicy = commitPolicy;
+        task.metrics = metrics;
+        return task;
+    }
+
+    boolean isLoaded() {
+        return metadata.isDone();
+    }
+
+    /**
+     * Replace the listed tables with their snapshots.
+     */
+    void loaded(Table sourceTable, Table targetTable) {
+        this.sourceTable = sourceTable;
+        this.targetTable = targetTable;
+        metadata.complete(null);
+    }
+
+    /**
+     * Record that the metadata of the tables could not be loaded.
+     */
+    void failed(Throwable cause) {
+        metadata.completeExceptionally(cause);
+    }
+
+    /**
+     * Wait until the columns and keys of the tables are loaded.
+     */
+    void awaitMetadata() throws LiquibaseException, InterruptedException {
+        try {
+            metadata.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof LiquibaseException le ? le : new LiquibaseException(e.getCause());
+        }
+    }
+
+    /**
+     * Record rows copied by this task, which also counts towards the table it was split from.
+     */
+    void addCopied(long n) {
+        copied.addAndGet(n);
+        if (parent != null) {
+            parent.addCopied(n);
+        }
+    }
+
+    /**
+     * Number of rows actually copied, as opposed to the possibly estimated {@link #rows}.
+     */
+    long getCopied() {
+        return copied.get();
+    }
+
+    String getName() {
+        return targetTable.getName();
+    }
+
+    @Override
+    public String toString() {
+        return parent == null ? getName() : getName() + "[" + (chunk + 1) + "/" + chunks + "]";
+    }
+}
@@ -0,0 +1,117 @@
+package copydb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes dropped before copying, kept as DDL in a file until they are recreated.
+ * <p>
+ * The file is written before any index is dropped and rewritten as each index is recreated,
+ * so that the indexes a failed copy left dropped can be recreated by the next run, or by
+ * running the file as SQL, without creating an index twice. The file is deleted when all are recreated.
+ * Each statement is on a line of its own after a comment naming its table.
+ */
+class DeferredIndexes {
+
+    private static final String TABLE = "-- table ";
+
+    private final Path file;
+    private final Map<String, List<String>> ddl = new LinkedHashMap<>();
+
+    private DeferredIndexes(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the indexes left dropped by an earlier run, if any.
+     */
+    static DeferredIndexes load(Path file) throws IOException {
+        var indexes = new DeferredIndexes(file);
+        if (Files.exists(file)) {
+            String table = null;
+            for (var line : Files.readAllLines(file)) {
+                if (line.startsWith(TABLE)) {
+                    table = line.substring(TABLE.length());
+                } else if (table != null && line.endsWith(";")) {
+                    indexes.add(table, line.substring(0, line.length() - 1));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    synchronized void add(String table, String createIndex) {
+        // One statement per line, an index left dropped by an earlier run and since recreated is only added once
+        var statement = createIndex.strip().replaceAll("\\s*\\R\\s*", " ");
+        var statements = ddl.computeIfAbsent(table, k -> new ArrayList<>());
+        if (!statements.contains(statement)) {
+            statements.add(statement);
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return ddl.isEmpty();
+    }
+
+    synchronized int size() {
+        return ddl.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Statements creating the indexes of each table.
+     */
+    synchronized Map<String, List<String>> byTable() {
+        var copy = new LinkedHashMap<String, List<String>>();
+        ddl.forEach((table, statements) -> copy.put(table, List.copyOf(statements)));
+        return copy;
+    }
+
+    /**
+     * Record that an index of a table has been recreated.
+     *
+     * @param createIndex statement as returned by {@link #byTable()}
+     */
+    synchronized void recreated(String table, String createIndex) {
+        var statements = ddl.get(table);
+        if (statements != null && statements.remove(createIndex) && statements.isEmpty()) {
+            ddl.remove(table);
+        }
+        save();
+    }
+
+    /**
+     * Write the file, or delete it if there is nothing left to recreate.
+     */
+    synchronized void save() {
+        try {
+            if (ddl.isEmpty()) {
+                Files.deleteIfExists(file);
+                return;
+            }
+
+            var lines = new ArrayList<String>();
+            lines.add("-- Indexes dropped by copydb, recreated after copying");
+            ddl.forEach((table, statements) -> {
+                lines.add(TABLE + table);
+                statements.forEach(s -> lines.add(s + ";"));
+            });
+            var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, lines);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write deferred indexes " + file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
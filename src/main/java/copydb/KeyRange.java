@@ -0,0 +1,202 @@
+package copydb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A range of key values in a table with exclusive lower bound and inclusive upper bound.
+ * A null bound means that the range is unbounded in that direction.
+ * <p>
+ * Ranges are compared in the source and the target, so the key column is given to queries
+ * as escaped for the database queried, e.g. by {@code Database.escapeObjectName}.
+ */
+class KeyRange {
+
+    final String column;
+    final Object lower;
+    final Object upper;
+
+    KeyRange(String column, Object lower, Object upper) {
+        this.column = column;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * SQL condition selecting the rows in the range or null if unbounded.
+     *
+     * @param key the key column escaped for the database queried
+     */
+    String predicate(String key) {
+        if (lower != null && upper != null) {
+            return key + " > ? AND " + key + " <= ?";
+        } else if (lower != null) {
+            return key + " > ?";
+        } else if (upper != null) {
+            return key + " <= ?";
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Bind the parameters of {@link #predicate(String)}.
+     *
+     * @return next parameter index
+     */
+    int bind(PreparedStatement stmt, int param) throws SQLException {
+        if (lower != null) {
+            stmt.setObject(param++, lower);
+        }
+        if (upper != null) {
+            stmt.setObject(param++, upper);
+        }
+        return param;
+    }
+
+    @Override
+    public String toString() {
+        return column + " (" + Objects.toString(lower, "") + ", " + Objects.toString(upper, "") + "]";
+    }
+
+    /**
+     * Split a table into ranges of the given key column.
+     * <p>
+     * Numeric keys are split into ranges of equal width between MIN and MAX
+     * which is cheap but assumes that keys are evenly distributed. Other keys,
+     * and floating point keys reaching NaN or infinity, are split at quantiles,
+     * which requires the database to sort all keys.
+     *
+     * @param key the key column escaped for the database queried
+     * @return ranges covering all rows in key order
+     */
+    static List<KeyRange> split(Connection conn, String table, String column, String key, int count) throws SQLException {
+        return new KeyRange(column, null, null).split(conn, table, key, count);
+    }
+
+    /**
+     * Split this range of a table into smaller ranges as {@link #split(Connection, String, String, String, int)} does.
+     *
+     * @param key the key column escaped for the database queried
+     * @return ranges covering this range in key order, or this range if it cannot be split
+     */
+    List<KeyRange> split(Connection conn, String table, String key, int count) throws SQLException {
+        if (count < 2) {
+            return List.of(this);
+        }
+
+        var predicate = predicate(key);
+        var where = predicate != null ? " WHERE " + predicate : "";
+        Object min;
+        Object max;
+        try (var stmt = conn.prepareStatement("SELECT MIN(" + key + "), MAX(" + key + ") FROM " + table + where)) {
+            bind(stmt, 1);
+            try (var rs = stmt.executeQuery()) {
+                rs.next();
+                min = rs.getObject(1);
+                max = rs.getObject(2);
+            }
+        }
+
+        if (min == null) {
+            return List.of(this);
+        }
+
+        List<Object> boundaries;
+        if (min instanceof Number lo && max instanceof Number hi && isFinite(lo) && isFinite(hi)) {
+            boundaries = equalWidthBoundaries(lo, hi, count);
+        } else {
+            boundaries = quantileBoundaries(conn, table, key, count, where);
+        }
+
+        var ranges = new ArrayList<KeyRange>(boundaries.size() + 1);
+        Object from = lower;
+        for (var b : boundaries) {
+            if (from == null || !from.equals(b)) {
+                ranges.add(new KeyRange(column, from, b));
+                from = b;
+            }
+        }
+        ranges.add(new KeyRange(column, from, upper));
+        return ranges;
+    }
+
+    /**
+     * Boundaries between {@code count} ranges of equal width, fewer if integral keys are too close together.
+     */
+    static List<Object> equalWidthBoundaries(Number min, Number max, int count) {
+        var lo = toBigDecimal(min);
+        var hi = toBigDecimal(max);
+        boolean integral = isIntegral(min) && isIntegral(max);
+        var width = hi.subtract(lo);
+        var boundaries = new ArrayList<Object>(count - 1);
+        for (int i = 1; i < count; i++) {
+            var offset = width.multiply(BigDecimal.valueOf(i));
+            var b = lo.add(integral
+                ? offset.divide(BigDecimal.valueOf(count), RoundingMode.FLOOR)
+                : offset.divide(BigDecimal.valueOf(count), MathContext.DECIMAL64));
+            if (b.compareTo(hi) >= 0) {
+                break;
+            }
+            if (integral) {
+                var bi = b.toBigInteger();
+                boundaries.add(bi.bitLength() < 64 ? (Object) bi.longValue() : bi);
+            } else {
+                boundaries.add(b);
+            }
+        }
+        return boundaries;
+    }
+
+    private List<Object> quantileBoundaries(Connection conn, String table, String key, int count, String where)
+        throws SQLException {
+        var sql = "SELECT MAX(copydb_key) FROM ("
+            + "SELECT " + key + " AS copydb_key, NTILE(" + count + ") OVER (ORDER BY " + key + ") AS copydb_tile FROM "
+            + table + where + ") q GROUP BY copydb_tile ORDER BY copydb_tile";
+        var boundaries = new ArrayList<>(count);
+        try (var stmt = conn.prepareStatement(sql)) {
+            bind(stmt, 1);
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    boundaries.add(rs.getObject(1));
+                }
+            }
+        }
+
+        // Last boundary is the maximum which is covered by the unbounded last range
+        if (!boundaries.isEmpty()) {
+            boundaries.remove(boundaries.size() - 1);
+        }
+        return boundaries;
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer || n instanceof Short || n instanceof Byte
+            || n instanceof BigInteger
+            || (n instanceof BigDecimal bd && bd.stripTrailingZeros().scale() <= 0);
+    }
+
+    private static boolean isFinite(Number n) {
+        return !(n instanceof Double d && !Double.isFinite(d) || n instanceof Float f && !Float.isFinite(f));
+    }
+
+    private static BigDecimal toBigDecimal(Number n) {
+        if (n instanceof BigDecimal bd) {
+            return bd;
+        } else if (n instanceof BigInteger bi) {
+            return new BigDecimal(bi);
+        } else if (isIntegral(n)) {
+            return BigDecimal.valueOf(n.longValue());
+        } else {
+            return BigDecimal.valueOf(n.doubleValue());
+        }
+    }
+}
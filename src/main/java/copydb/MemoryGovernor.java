@@ -0,0 +1,80 @@
+package copydb;
+
+/**
+ * Limits the estimated number of bytes of row data held in memory by all copy workers.
+ * <p>
+ * Rows are acquired when they are read and released when the batch they belong to
+ * has been sent to the target. A worker that cannot acquire must first send or hand
+ * over the rows it holds before waiting, otherwise workers holding partial batches
+ * could wait for each other forever. A single row is always admitted when nothing
+ * else is in flight, however large it is.
+ */
+class MemoryGovernor {
+
+    private final long limit;
+    private long inFlight;
+    private long waitNanos;
+
+    /**
+     * @param limit maximum number of bytes in flight or 0 for no limit
+     */
+    MemoryGovernor(long limit) {
+        this.limit = limit;
+    }
+
+    long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Acquire bytes if that does not exceed the limit.
+     *
+     * @return true if acquired, false if the caller should release what it holds and call {@link #acquire(long)}
+     */
+    boolean tryAcquire(long bytes) {
+        if (limit <= 0) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (inFlight == 0 || inFlight + bytes <= limit) {
+                inFlight += bytes;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Acquire bytes, waiting for other workers to release theirs.
+     */
+    void acquire(long bytes) throws InterruptedException {
+        if (limit <= 0) {
+            return;
+        }
+
+        synchronized (this) {
+            long start = System.nanoTime();
+            while (inFlight != 0 && inFlight + bytes > limit) {
+                wait();
+            }
+            inFlight += bytes;
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    void release(long bytes) {
+        if (limit <= 0 || bytes == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            inFlight -= bytes;
+            notifyAll();
+        }
+    }
+
+    synchronized long getWaitMillis() {
+        return waitNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,220 @@
+package copydb;
+
+import copydb.convert.ColumnDescriptor;
+import copydb.convert.Converters;
+import copydb.convert.DatabaseSupport;
+import copydb.convert.Lob;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hashes the rows of a table, or of a key range of a table, for comparing the source and target.
+ * <p>
+ * Ranges are hashed by the databases when both are of the same kind and have a hash aggregate,
+ * otherwise the rows are read and hashed here. Values are hashed in a canonical form, so that
+ * values converted for the target hash the same as the values read from it, e.g. a RAW(16)
+ * converted to a UUID hashes the same as the UUID. Row hashes are summed, which does not
+ * depend on the order of rows, as that may differ between databases.
+ * <p>
+ * Not thread-safe, each worker uses its own hasher.
+ */
+class RangeHasher {
+
+    /**
+     * A side of the comparison.
+     *
+     * @param key     key column of the ranges compared, escaped for the database of this side
+     * @param select  query for the compared columns, in the same order on both sides
+     * @param hashSql query for {@link DatabaseSupport#rangeHashSql} or null to hash rows here
+     * @param readers column readers returning values in the target types
+     */
+    record Side(Connection conn, DatabaseSupport support, String table, String key, String select, String hashSql,
+                List<ColumnDescriptor<?, ?>> readers, int fetchSize) {
+
+        /**
+         * Query the compared columns of the rows in a range.
+         */
+        PreparedStatement query(KeyRange range) throws SQLException {
+            var stmt = support.prepareQuery(conn, where(select, range, key), fetchSize);
+            try {
+                bind(stmt, range);
+            } catch (SQLException e) {
+                stmt.close();
+                throw e;
+            }
+            return stmt;
+        }
+
+        /**
+         * Read the compared columns of the current row.
+         */
+        void read(ResultSet rs, Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readers.get(i).read(rs, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Number of rows in a range and their hash, equal for equal rows.
+     */
+    record RangeHash(long rows, Object hash) {
+    }
+
+    private final MessageDigest digest;
+    private final byte[] length = new byte[4];
+    private final OutputStream lobDigest;
+
+    RangeHasher() {
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+            this.lobDigest = new DigestOutputStream(OutputStream.nullOutputStream(), digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param range key range or null for all rows
+     */
+    RangeHash hash(Side side, KeyRange range) throws SQLException {
+        if (side.hashSql() != null) {
+            try (var stmt = side.conn().prepareStatement(where(side.hashSql(), range, side.key()))) {
+                bind(stmt, range);
+                try (var rs = stmt.executeQuery()) {
+                    rs.next();
+                    var hash = rs.getObject(2);
+                    return new RangeHash(rs.getLong(1), hash != null ? hash.toString() : null);
+                }
+            }
+        }
+
+        long rows = 0;
+        long sum = 0;
+        try (var stmt = side.query(range);
+             var rs = stmt.executeQuery()) {
+            var values = new Object[side.readers().size()];
+            while (rs.next()) {
+                side.read(rs, values);
+                rows++;
+                sum += hash(values);
+            }
+        }
+        return new RangeHash(rows, sum);
+    }
+
+    /**
+     * Hash a row of values in their canonical form.
+     */
+    long hash(Object[] values) throws SQLException {
+        for (var value : values) {
+            if (value instanceof Lob lob) {
+                // Streamed into the digest, hashing the same as its content as bytes or a String
+                updateLength(lob.length());
+                try {
+                    lob.writeTo(lobDigest);
+                } catch (IOException e) {
+                    throw new SQLException("Failed to hash " + lob, e);
+                }
+                continue;
+            }
+
+            var canonical = canonical(value);
+            if (canonical == null) {
+                digest.update((byte) 0);
+                continue;
+            }
+
+            var bytes = canonical instanceof byte[] b ? b : ((String) canonical).getBytes(StandardCharsets.UTF_8);
+            updateLength(bytes.length);
+            digest.update(bytes);
+        }
+
+        long hash = 0;
+        var md5 = digest.digest();
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (md5[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private void updateLength(long len) {
+        digest.update((byte) 1);
+        length[0] = (byte) (len >>> 24);
+        length[1] = (byte) (len >>> 16);
+        length[2] = (byte) (len >>> 8);
+        length[3] = (byte) len;
+        digest.update(length);
+    }
+
+    /**
+     * A key in its canonical form, for matching keys read from both sides.
+     */
+    static String keyOf(Object key) throws SQLException {
+        var canonical = canonical(key);
+        return canonical instanceof byte[] b ? HexFormat.of().formatHex(b) : (String) canonical;
+    }
+
+    /**
+     * The value as a string or bytes that are the same for equal values of different classes.
+     */
+    private static Object canonical(Object value) throws SQLException {
+        if (value == null) {
+            return null;
+        } else if (value instanceof byte[]) {
+            return value;
+        } else if (value instanceof Blob blob) {
+            return Converters.extractBytes(blob);
+        } else if (value instanceof Clob clob) {
+            return Converters.extractString(clob);
+        } else if (value instanceof BigDecimal d) {
+            return d.signum() == 0 ? "0" : d.stripTrailingZeros().toPlainString();
+        } else if (value instanceof Double || value instanceof Float) {
+            return canonical(BigDecimal.valueOf(((Number) value).doubleValue()));
+        } else if (value instanceof Number) {
+            return value.toString();
+        } else if (value instanceof Boolean b) {
+            // The same as numeric columns used for booleans
+            return b ? "1" : "0";
+        } else if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime().toString();
+        } else if (value instanceof java.sql.Date d) {
+            return d.toLocalDate().toString();
+        } else if (value instanceof Time t) {
+            return t.toLocalTime().toString();
+        } else if (value instanceof OffsetDateTime odt) {
+            return odt.toInstant().toString();
+        } else {
+            return Objects.toString(value);
+        }
+    }
+
+    private static String where(String sql, KeyRange range, String key) {
+        var predicate = range != null ? range.predicate(key) : null;
+        return predicate != null ? sql + " WHERE " + predicate : sql;
+    }
+
+    private static void bind(PreparedStatement stmt, KeyRange range) throws SQLException {
+        if (range != null) {
+            range.bind(stmt, 1);
+        }
+    }
+}
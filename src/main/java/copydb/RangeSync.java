@@ -0,0 +1,154 @@
+package copydb;
+
+import copydb.RangeHasher.Side;
+import copydb.convert.RowWriter;
+import liquibase.database.Database;
+import liquibase.exception.LiquibaseException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+/**
+ * Makes a range of a target table equal to the source by comparing hashes of key ranges on both
+ * sides, as pt-table-sync does. Ranges with different hashes are split and compared again until
+ * they are small enough to compare row by row, and only the rows that differ are written: rows
+ * missing or changed in the target are upserted and rows no longer in the source are deleted.
+ * <p>
+ * Values that hash differently although equal, e.g. floating point values of different precision,
+ * only cost comparing their range row by row and rewriting the rows.
+ */
+class RangeSync {
+
+    /**
+     * Ranges with at most this many rows on both sides are compared row by row.
+     */
+    static final int LEAF_ROWS = 1000;
+
+    /**
+     * Number of ranges a range with different hashes computed by the databases is split into.
+     */
+    static final int FANOUT = 16;
+
+    private record Row(Object[] values, long hash) {
+    }
+
+    private final Side source;
+    private final Side target;
+    private final Database targetDb;
+    private final int keyIndex;
+    private final RowWriter upsert;
+    private final PreparedStatement delete;
+    private final RangeHasher hasher = new RangeHasher();
+    private long upserted;
+    private long deleted;
+    private long ranges;
+
+    /**
+     * @param keyIndex index of the key among the compared columns
+     * @param upsert   writer upserting rows of values read from the source
+     * @param delete   statement deleting the row with the key given as parameter
+     */
+    RangeSync(Side source, Side target, Database targetDb, int keyIndex, RowWriter upsert, PreparedStatement delete) {
+        this.source = source;
+        this.target = target;
+        this.targetDb = targetDb;
+        this.keyIndex = keyIndex;
+        this.upsert = upsert;
+        this.delete = delete;
+    }
+
+    /**
+     * Synchronize a range, committing the target after each range compared row by row.
+     */
+    void sync(KeyRange range) throws SQLException, LiquibaseException {
+        ranges++;
+        var sourceHash = hasher.hash(source, range);
+        var targetHash = hasher.hash(target, range);
+        if (sourceHash.equals(targetHash)) {
+            return;
+        }
+
+        long rows = Math.max(sourceHash.rows(), targetHash.rows());
+        if (rows > LEAF_ROWS) {
+            // Split at the keys of the larger side, so that extra rows in the target are split as well.
+            // Rows hashed here are read again at each level, so such ranges are split into leaves at once.
+            var larger = sourceHash.rows() >= targetHash.rows() ? source : target;
+            int count = source.hashSql() != null ? FANOUT : (int) (rows / LEAF_ROWS) + 1;
+            var subranges = range.split(larger.conn(), larger.table(), larger.key(), count);
+            if (subranges.size() > 1) {
+                for (var subrange : subranges) {
+                    sync(subrange);
+                }
+                return;
+            }
+        }
+
+        syncRows(range);
+    }
+
+    long getUpserted() {
+        return upserted;
+    }
+
+    long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Number of ranges compared by their hashes.
+     */
+    long getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Compare the rows of a range by key, holding the source rows in memory.
+     */
+    private void syncRows(KeyRange range) throws SQLException, LiquibaseException {
+        var rows = new HashMap<String, Row>();
+        try (var stmt = source.query(range);
+             var rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                var values = new Object[source.readers().size()];
+                source.read(rs, values);
+                rows.put(RangeHasher.keyOf(values[keyIndex]), new Row(values, hasher.hash(values)));
+            }
+        }
+
+        long deletes = 0;
+        long upserts = 0;
+        try (var stmt = target.query(range);
+             var rs = stmt.executeQuery()) {
+            var values = new Object[target.readers().size()];
+            while (rs.next()) {
+                target.read(rs, values);
+                var row = rows.remove(RangeHasher.keyOf(values[keyIndex]));
+                if (row == null) {
+                    delete.setObject(1, values[keyIndex]);
+                    delete.addBatch();
+                    deletes++;
+                } else if (row.hash() != hasher.hash(values)) {
+                    upsert.addRow(row.values());
+                    upserts++;
+                }
+            }
+        }
+        for (var row : rows.values()) {
+            upsert.addRow(row.values());
+            upserts++;
+        }
+
+        if (deletes != 0) {
+            delete.executeBatch();
+        }
+        if (upserts != 0) {
+            upsert.flush();
+        }
+        if (deletes != 0 || upserts != 0) {
+            targetDb.commit();
+        }
+        deleted += deletes;
+        upserted += upserts;
+    }
+}
@@ -0,0 +1,144 @@
+package copydb;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of row batches between a reader thread reading from the
+ * source and a writer thread writing to the target.
+ * <p>
+ * Time spent waiting on either side is recorded. A reader waiting for room in
+ * the queue means that the target is the bottleneck, and a writer waiting for
+ * rows means that the source is the bottleneck.
+ */
+class RowPipeline implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Reader {
+        void read(RowPipeline pipeline) throws SQLException, InterruptedException;
+    }
+
+    /**
+     * Rows, their estimated size in bytes and the source key of the last row, see {@link RowSource#lastKey()}.
+     */
+    record Batch(List<Object[]> rows, long bytes, Object lastKey) {
+    }
+
+    private static final Batch END = new Batch(List.of(), 0, null);
+
+    private final BlockingQueue<Batch> queue;
+    private final MemoryGovernor memory;
+    private final Thread thread;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private long readerWaitNanos;
+    private long writerWaitNanos;
+
+    /**
+     * @param memory governor the bytes of batches are acquired from, released here if batches are discarded
+     */
+    RowPipeline(String name, int depth, MemoryGovernor memory, Reader reader) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(depth, 1));
+        this.memory = memory;
+        this.thread = new Thread(() -> {
+            try {
+                reader.read(this);
+                put(END);
+            } catch (InterruptedException e) {
+                // Closed by writer
+            } catch (Throwable e) {
+                failure = e;
+                discard();
+                queue.offer(END);
+            }
+        }, name);
+        this.thread.setDaemon(true);
+    }
+
+    RowPipeline start() {
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Called by the reader to hand over a batch of rows, waiting for room in the queue.
+     */
+    void put(List<Object[]> rows, long bytes, Object lastKey) throws InterruptedException {
+        put(new Batch(rows, bytes, lastKey));
+    }
+
+    private void put(Batch batch) throws InterruptedException {
+        long start = System.nanoTime();
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (closed) {
+                throw new InterruptedException("Pipeline closed");
+            }
+        }
+        readerWaitNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Test if the writer has given up, in which case the reader should stop.
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Called by the writer to get the next batch of rows.
+     *
+     * @return batch or null when the reader is done
+     * @throws SQLException if the reader failed
+     */
+    Batch take() throws SQLException, InterruptedException {
+        long start = System.nanoTime();
+        var batch = queue.take();
+        writerWaitNanos += System.nanoTime() - start;
+        if (batch == END) {
+            var e = failure;
+            if (e instanceof SQLException ex) {
+                throw ex;
+            } else if (e instanceof RuntimeException ex) {
+                throw ex;
+            } else if (e instanceof Error err) {
+                throw err;
+            }
+            return null;
+        }
+        return batch;
+    }
+
+    long getReaderWaitMillis() {
+        return readerWaitNanos / 1_000_000;
+    }
+
+    long getWriterWaitMillis() {
+        return writerWaitNanos / 1_000_000;
+    }
+
+    /**
+     * Stop the reader and discard the batches it handed over. If interrupted while waiting for the
+     * reader, the interrupt is restored and the reader stops on its own once it sees it is closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        discard();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        discard();
+    }
+
+    private void discard() {
+        Batch batch;
+        while ((batch = queue.poll()) != null) {
+            memory.release(batch.bytes());
+        }
+    }
+}
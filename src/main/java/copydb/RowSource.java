@@ -0,0 +1,29 @@
+package copydb;
+
+import java.sql.SQLException;
+
+/**
+ * Rows of a table or chunk to be copied, converted for the target columns.
+ */
+@FunctionalInterface
+interface RowSource extends AutoCloseable {
+
+    /**
+     * Read the next row into values, one per target column.
+     *
+     * @return false if there are no more rows
+     */
+    boolean next(Object[] values) throws SQLException;
+
+    /**
+     * The key of the row last read as read from the source, for recording how far a copy got,
+     * or null if rows are not read in the order of a key.
+     */
+    default Object lastKey() {
+        return null;
+    }
+
+    @Override
+    default void close() throws SQLException {
+    }
+}
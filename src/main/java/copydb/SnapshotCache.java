@@ -0,0 +1,174 @@
+package copydb;
+
+import liquibase.GlobalConfiguration;
+import liquibase.Scope;
+import liquibase.database.Database;
+import liquibase.exception.LiquibaseException;
+import liquibase.parser.core.ParsedNode;
+import liquibase.parser.core.ParsedNodeException;
+import liquibase.serializer.core.json.JsonSnapshotSerializer;
+import liquibase.snapshot.DatabaseSnapshot;
+import liquibase.snapshot.RestoredDatabaseSnapshot;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshots of database structure kept in files between runs, so that a large schema is not
+ * snapshot by Liquibase again until it changes.
+ * <p>
+ * Each snapshot is stored with the schema fingerprint the database gave before it was taken,
+ * see {@link copydb.convert.DatabaseSupport#schemaFingerprint}, and is only reused while the
+ * fingerprint is the same. Files are named by a hash of the key identifying the database,
+ * schema and the types of objects snapshot.
+ */
+class SnapshotCache {
+
+    private static final String FINGERPRINT = "copydbFingerprint";
+
+    private final Path dir;
+
+    SnapshotCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @return snapshot restored for the database or null if none was saved with the fingerprint
+     */
+    DatabaseSnapshot load(Database db, String key, String fingerprint) throws IOException, LiquibaseException {
+        var file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Object parsed;
+        try (var in = Files.newInputStream(file)) {
+            parsed = new Yaml(new SafeConstructor(new LoaderOptions())).load(in);
+        } catch (YAMLException e) {
+            throw new IOException("Unreadable snapshot " + file, e);
+        }
+        if (!(parsed instanceof Map<?, ?> map) || !(map.get("snapshot") instanceof Map<?, ?> snapshot)
+            || !(snapshot.get("metadata") instanceof Map<?, ?> metadata)
+            || !fingerprint.equals(metadata.get(FINGERPRINT))) {
+            return null;
+        }
+
+        repair(snapshot);
+        try {
+            var restored = new RestoredDatabaseSnapshot(db);
+            restored.load(new ParsedNode(null, "snapshot").setValue(snapshot), null);
+            return restored;
+        } catch (ParsedNodeException e) {
+            throw new IOException("Unreadable snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Save a snapshot taken after the database gave the fingerprint, replacing any saved with the key.
+     */
+    void save(DatabaseSnapshot snapshot, String key, String fingerprint) throws IOException {
+        snapshot.getMetadata().put(FINGERPRINT, fingerprint);
+        Files.createDirectories(dir);
+        var file = fileFor(key);
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = Files.newOutputStream(tmp)) {
+            // Objects of types not snapshot, e.g. the backing index of a primary key, are left out
+            Scope.child(GlobalConfiguration.FAIL_ON_NULL_SNAPSHOT_ID.getKey(), false,
+                () -> new JsonSnapshotSerializer().write(snapshot, out));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Make a parsed snapshot restorable, as Liquibase only restores what it saved as references:
+     * objects of the snapshot saved embedded in others, e.g. the columns of a primary key whose
+     * index was not snapshot, are replaced by references to them, and references to objects not
+     * snapshot, which are saved without an id, are removed.
+     */
+    private static void repair(Map<?, ?> snapshot) {
+        if (!(snapshot.get("objects") instanceof Map<?, ?> objects)) {
+            return;
+        }
+
+        var references = new HashMap<String, String>();
+        forEachObject(objects, (type, object) -> {
+            if (object.get("snapshotId") instanceof String id) {
+                references.put(id, type + "#" + id);
+            }
+        });
+        forEachObject(objects, (type, object) -> repair(object, references));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void repair(Map<?, ?> object, Map<String, String> references) {
+        var values = (Map<Object, Object>) object;
+        values.values().removeIf(value -> value instanceof String s && s.startsWith("liquibase.") && s.endsWith("#null"));
+        values.replaceAll((name, value) -> repaired(value, references));
+    }
+
+    private static Object repaired(Object value, Map<String, String> references) {
+        if (value instanceof List<?> list) {
+            return list.stream().map(v -> repaired(v, references)).collect(Collectors.toCollection(ArrayList::new));
+        } else if (value instanceof Map<?, ?> map) {
+            if (map.size() == 1 && map.values().iterator().next() instanceof Map<?, ?> embedded
+                && embedded.get("snapshotId") instanceof String id && references.containsKey(id)) {
+                return references.get(id);
+            }
+            repair(map, references);
+        }
+        return value;
+    }
+
+    /**
+     * Objects are saved in lists by type, each wrapped in a map from its kind to its fields.
+     */
+    private static void forEachObject(Map<?, ?> objects, BiConsumer<Object, Map<?, ?>> action) {
+        objects.forEach((type, list) -> {
+            if (list instanceof List<?> wrappers) {
+                for (var wrapper : wrappers) {
+                    if (wrapper instanceof Map<?, ?> map) {
+                        map.values().forEach(object -> {
+                            if (object instanceof Map<?, ?> fields) {
+                                action.accept(type, fields);
+                            }
+                        });
+                    }
+                }
+            }
+        });
+    }
+
+    private Path fileFor(String key) {
+        try {
+            var hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return dir.toString();
+    }
+}
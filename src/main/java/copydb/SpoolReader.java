@@ -0,0 +1,354 @@
+package copydb;
+
+import copydb.convert.ColumnDescriptor;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.DataType;
+import liquibase.structure.core.Table;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static copydb.SpoolWriter.BIG_INTEGER;
+import static copydb.SpoolWriter.BYTE;
+import static copydb.SpoolWriter.BYTES;
+import static copydb.SpoolWriter.DATE;
+import static copydb.SpoolWriter.DECIMAL;
+import static copydb.SpoolWriter.DOUBLE;
+import static copydb.SpoolWriter.FALSE;
+import static copydb.SpoolWriter.FLOAT;
+import static copydb.SpoolWriter.INT;
+import static copydb.SpoolWriter.LOCAL_DATE;
+import static copydb.SpoolWriter.LOCAL_DATE_TIME;
+import static copydb.SpoolWriter.LOCAL_TIME;
+import static copydb.SpoolWriter.LONG;
+import static copydb.SpoolWriter.NULL;
+import static copydb.SpoolWriter.OFFSET_DATE_TIME;
+import static copydb.SpoolWriter.SHORT;
+import static copydb.SpoolWriter.STRING;
+import static copydb.SpoolWriter.TIME;
+import static copydb.SpoolWriter.TIMESTAMP;
+import static copydb.SpoolWriter.TRUE;
+import static copydb.SpoolWriter.UUID_BITS;
+
+/**
+ * Reads a spool file written by {@link SpoolWriter}.
+ * <p>
+ * Opening the file only reads the header and the chunk headers. Chunks are read through memory
+ * mappings of the file, so several threads can each read a {@link Part} of the chunks at once.
+ * Reading a chunk fails if its checksum does not match.
+ */
+class SpoolReader implements AutoCloseable {
+
+    private static final int CHUNK_HEADER_BYTES = 16;
+
+    private record Chunk(long offset, int rows, int length, int compressedLength, int checksum) {
+    }
+
+    /**
+     * A range of consecutive chunks of a spool file.
+     */
+    record Part(SpoolReader reader, int from, int to, long rows) {
+
+        /**
+         * Read the rows of the part converted for the target.
+         *
+         * @param converters column converters with the spool columns as source columns
+         */
+        RowSource open(List<ColumnDescriptor<?, ?>> converters) {
+            return reader.rows(from, to, converters);
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final String database;
+    private final Table table;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int maxLength;
+    private long rows;
+
+    private SpoolReader(Path file, FileChannel channel, String database, Table table) {
+        this.file = file;
+        this.channel = channel;
+        this.database = database;
+        this.table = table;
+    }
+
+    static SpoolReader open(Path file) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            // Not buffered, so that the channel position is where the header ends
+            var in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readInt() != SpoolWriter.MAGIC) {
+                throw new IOException("Not a spool file: " + file);
+            }
+            int version = in.readInt();
+            if (version != SpoolWriter.VERSION) {
+                throw new IOException("Unsupported spool file version " + version + ": " + file);
+            }
+
+            var database = in.readUTF();
+            var table = new Table();
+            table.setName(in.readUTF());
+            int columns = in.readInt();
+            for (int i = 0; i < columns; i++) {
+                var column = new Column(in.readUTF());
+                var type = new DataType(in.readUTF());
+                int size = in.readInt();
+                int digits = in.readInt();
+                type.setColumnSize(size >= 0 ? size : null);
+                type.setDecimalDigits(digits >= 0 ? digits : null);
+                column.setType(type);
+                column.setRelation(table);
+                column.setOrder(i + 1);
+                table.addColumn(column);
+            }
+
+            var reader = new SpoolReader(file, channel, database, table);
+            reader.readChunkHeaders(channel.position());
+            return reader;
+        } catch (EOFException e) {
+            channel.close();
+            throw new IOException("Incomplete spool file: " + file, e);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readChunkHeaders(long offset) throws IOException {
+        var header = ByteBuffer.allocate(CHUNK_HEADER_BYTES);
+        while (true) {
+            header.clear();
+            header.limit(4);
+            readFully(header, offset);
+            int chunkRows = header.getInt(0);
+            if (chunkRows == 0) {
+                header.clear();
+                header.limit(8);
+                readFully(header, offset + 4);
+                if (header.getLong(0) != rows) {
+                    throw new IOException("Spool file has " + rows + " rows, expected " + header.getLong(0) + ": " + file);
+                }
+                return;
+            }
+
+            header.clear();
+            readFully(header, offset);
+            var chunk = new Chunk(offset + CHUNK_HEADER_BYTES, chunkRows, header.getInt(4), header.getInt(8), header.getInt(12));
+            chunks.add(chunk);
+            rows += chunkRows;
+            maxLength = Math.max(maxLength, chunk.length());
+            offset = chunk.offset() + chunk.compressedLength();
+        }
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    /**
+     * Short name of the database the rows were read from.
+     */
+    String getDatabase() {
+        return database;
+    }
+
+    /**
+     * The table as it was in the source database, with the columns in the order of the values.
+     */
+    Table getTable() {
+        return table;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * All chunks of the file.
+     */
+    Part whole() {
+        return new Part(this, 0, chunks.size(), rows);
+    }
+
+    /**
+     * Split the chunks into at most the given number of parts of about the same number of rows.
+     */
+    List<Part> split(int parts) {
+        parts = Math.max(Math.min(parts, chunks.size()), 1);
+        var result = new ArrayList<Part>(parts);
+        int from = 0;
+        long partRows = 0;
+        long rowsLeft = rows;
+        for (int i = 0; i < chunks.size(); i++) {
+            partRows += chunks.get(i).rows();
+            int partsLeft = parts - result.size();
+            if (partsLeft > 1 && partRows >= rowsLeft / partsLeft && chunks.size() - i - 1 >= partsLeft - 1) {
+                result.add(new Part(this, from, i + 1, partRows));
+                rowsLeft -= partRows;
+                from = i + 1;
+                partRows = 0;
+            }
+        }
+        if (from < chunks.size() || result.isEmpty()) {
+            result.add(new Part(this, from, chunks.size(), partRows));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    private RowSource rows(int from, int to, List<ColumnDescriptor<?, ?>> converters) {
+        var columns = new int[converters.size()];
+        for (int i = 0; i < columns.length; i++) {
+            var column = table.getColumn(converters.get(i).getSource().getName());
+            columns[i] = table.getColumns().indexOf(column);
+        }
+
+        return new RowSource() {
+            private final Inflater inflater = new Inflater();
+            private final CRC32C checksum = new CRC32C();
+            private final byte[] buf = new byte[maxLength];
+            private final Object[] raw = new Object[table.getColumns().size()];
+            private ByteBuffer rowData = ByteBuffer.allocate(0);
+            private int next = from;
+            private int rowsLeft;
+
+            @Override
+            public boolean next(Object[] values) throws SQLException {
+                while (rowsLeft == 0) {
+                    if (next == to) {
+                        return false;
+                    }
+                    load(next++);
+                }
+
+                for (int i = 0; i < raw.length; i++) {
+                    raw[i] = readValue(rowData);
+                }
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = converters.get(i).convert(raw[columns[i]]);
+                }
+                rowsLeft--;
+                return true;
+            }
+
+            private void load(int index) {
+                var chunk = chunks.get(index);
+                try {
+                    var mapped = channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset(), chunk.compressedLength());
+                    inflater.reset();
+                    inflater.setInput(mapped);
+                    int length = 0;
+                    while (!inflater.finished() && length < buf.length) {
+                        int n = inflater.inflate(buf, length, buf.length - length);
+                        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            break;
+                        }
+                        length += n;
+                    }
+
+                    checksum.reset();
+                    checksum.update(buf, 0, length);
+                    if (!inflater.finished() || length != chunk.length() || (int) checksum.getValue() != chunk.checksum()) {
+                        throw new IOException("Corrupt chunk " + (index + 1) + " of " + chunks.size() + " in " + file);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (DataFormatException e) {
+                    throw new UncheckedIOException(new IOException("Corrupt chunk " + (index + 1) + " of " + chunks.size() + " in " + file, e));
+                }
+                rowData = ByteBuffer.wrap(buf, 0, chunk.length());
+                rowsLeft = chunk.rows();
+            }
+
+            @Override
+            public void close() {
+                inflater.end();
+            }
+        };
+    }
+
+    private static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> {
+                int len = in.getInt();
+                var s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+                in.position(in.position() + len);
+                yield s;
+            }
+            case BYTES -> readBytes(in);
+            case LONG -> in.getLong();
+            case INT -> in.getInt();
+            case SHORT -> in.getShort();
+            case BYTE -> in.get();
+            case DOUBLE -> in.getDouble();
+            case FLOAT -> in.getFloat();
+            case DECIMAL -> {
+                int scale = in.getInt();
+                yield new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case BIG_INTEGER -> new BigInteger(readBytes(in));
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case TIMESTAMP -> Timestamp.valueOf(LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC));
+            case DATE -> java.sql.Date.valueOf(LocalDate.ofEpochDay(in.getLong()));
+            case TIME -> java.sql.Time.valueOf(LocalTime.ofNanoOfDay(in.getLong()));
+            case OFFSET_DATE_TIME -> {
+                var instant = Instant.ofEpochSecond(in.getLong(), in.getInt());
+                yield OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.getInt()));
+            }
+            case LOCAL_DATE_TIME -> LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+            case LOCAL_DATE -> LocalDate.ofEpochDay(in.getLong());
+            case LOCAL_TIME -> LocalTime.ofNanoOfDay(in.getLong());
+            case UUID_BITS -> new UUID(in.getLong(), in.getLong());
+            default -> throw new IllegalStateException("Invalid value tag " + tag);
+        };
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        var b = new byte[in.getInt()];
+        in.get(b);
+        return b;
+    }
+}
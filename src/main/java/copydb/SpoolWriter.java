@@ -0,0 +1,282 @@
+package copydb;
+
+import copydb.convert.Lob;
+import liquibase.structure.core.Column;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the rows of a table to a spool file, to be loaded into a target database later by {@link SpoolReader}.
+ * <p>
+ * The file starts with a header naming the source database, the table and its columns, followed by
+ * chunks of rows compressed with deflate. Each chunk has a header with its number of rows, its
+ * uncompressed and compressed lengths and a CRC-32C checksum of the uncompressed rows. A chunk
+ * header of zero rows followed by the total number of rows ends the file, so that a truncated
+ * file is detected.
+ * <p>
+ * Values are written as returned by the column readers, each tagged with its type, so that they
+ * can be converted for any target when loaded. A row is written into its chunk as a whole, LOBs
+ * included, and chunks are held in memory when written and loaded, so text and binary values
+ * are limited to {@link #MAX_VALUE_BYTES}.
+ */
+class SpoolWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x43444253; // CDBS
+    static final int VERSION = 1;
+
+    /**
+     * Uncompressed bytes of rows per chunk, which is also the unit of parallel loading.
+     */
+    static final int CHUNK_BYTES = 4 << 20;
+
+    /**
+     * Largest text, as UTF-8, or binary value spooled, which bounds the memory of a chunk with large values.
+     */
+    static final int MAX_VALUE_BYTES = 16 << 20;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte BYTES = 2;
+    static final byte LONG = 3;
+    static final byte INT = 4;
+    static final byte SHORT = 5;
+    static final byte BYTE = 6;
+    static final byte DOUBLE = 7;
+    static final byte FLOAT = 8;
+    static final byte DECIMAL = 9;
+    static final byte BIG_INTEGER = 10;
+    static final byte TRUE = 11;
+    static final byte FALSE = 12;
+    static final byte TIMESTAMP = 13;
+    static final byte DATE = 14;
+    static final byte TIME = 15;
+    static final byte OFFSET_DATE_TIME = 16;
+    static final byte LOCAL_DATE_TIME = 17;
+    static final byte LOCAL_DATE = 18;
+    static final byte LOCAL_TIME = 19;
+    static final byte UUID_BITS = 20;
+
+    /**
+     * Rows of the current chunk, with access to the internal array to avoid copying it.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    private final DataOutputStream out;
+    private final Buffer chunk = new Buffer(CHUNK_BYTES + (CHUNK_BYTES >> 3));
+    private final DataOutputStream row = new DataOutputStream(chunk);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32C checksum = new CRC32C();
+    private byte[] compressed = new byte[CHUNK_BYTES];
+    private int rowsInChunk;
+    private long rows;
+
+    /**
+     * @param database short name of the source database, for choosing conversions when loading
+     */
+    SpoolWriter(Path file, String database, String table, List<Column> columns) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(database);
+        out.writeUTF(table);
+        out.writeInt(columns.size());
+        for (var column : columns) {
+            var type = column.getType();
+            out.writeUTF(column.getName());
+            out.writeUTF(type.getTypeName());
+            out.writeInt(type.getColumnSize() != null ? type.getColumnSize() : -1);
+            out.writeInt(type.getDecimalDigits() != null ? type.getDecimalDigits() : -1);
+        }
+    }
+
+    /**
+     * Add a row of values read by the column readers.
+     *
+     * @return true if a chunk was written
+     */
+    boolean addRow(Object[] values) throws IOException {
+        for (var val : values) {
+            writeValue(val);
+        }
+        rowsInChunk++;
+        rows++;
+
+        if (chunk.size() >= CHUNK_BYTES) {
+            writeChunk();
+            return true;
+        }
+        return false;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * Write the last chunk and the end of the file.
+     */
+    void finish() throws IOException {
+        if (rowsInChunk != 0) {
+            writeChunk();
+        }
+        out.writeInt(0);
+        out.writeLong(rows);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        int length = chunk.size();
+        checksum.reset();
+        checksum.update(chunk.array(), 0, length);
+
+        deflater.reset();
+        deflater.setInput(chunk.array(), 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        out.writeInt(rowsInChunk);
+        out.writeInt(length);
+        out.writeInt(compressedLength);
+        out.writeInt((int) checksum.getValue());
+        out.write(compressed, 0, compressedLength);
+
+        chunk.reset();
+        rowsInChunk = 0;
+    }
+
+    private void writeValue(Object val) throws IOException {
+        if (val == null) {
+            row.writeByte(NULL);
+        } else if (val instanceof String s) {
+            row.writeByte(STRING);
+            writeBytes(s.getBytes(StandardCharsets.UTF_8));
+        } else if (val instanceof byte[] b) {
+            row.writeByte(BYTES);
+            writeBytes(b);
+        } else if (val instanceof Lob lob) {
+            // Text is held as UTF-8, the same as a spooled String
+            checkLength(lob.length());
+            row.writeByte(lob.isText() ? STRING : BYTES);
+            row.writeInt((int) lob.length());
+            lob.writeTo(row);
+        } else if (val instanceof Long n) {
+            row.writeByte(LONG);
+            row.writeLong(n);
+        } else if (val instanceof Integer n) {
+            row.writeByte(INT);
+            row.writeInt(n);
+        } else if (val instanceof Short n) {
+            row.writeByte(SHORT);
+            row.writeShort(n);
+        } else if (val instanceof Byte n) {
+            row.writeByte(BYTE);
+            row.writeByte(n);
+        } else if (val instanceof Double n) {
+            row.writeByte(DOUBLE);
+            row.writeDouble(n);
+        } else if (val instanceof Float n) {
+            row.writeByte(FLOAT);
+            row.writeFloat(n);
+        } else if (val instanceof BigDecimal n) {
+            row.writeByte(DECIMAL);
+            row.writeInt(n.scale());
+            writeBytes(n.unscaledValue().toByteArray());
+        } else if (val instanceof BigInteger n) {
+            row.writeByte(BIG_INTEGER);
+            writeBytes(n.toByteArray());
+        } else if (val instanceof Boolean b) {
+            row.writeByte(b ? TRUE : FALSE);
+        } else if (val instanceof Timestamp ts) {
+            // Local date and time, independent of the time zone of the reading JVM
+            var dt = ts.toLocalDateTime();
+            row.writeByte(TIMESTAMP);
+            row.writeLong(dt.toEpochSecond(ZoneOffset.UTC));
+            row.writeInt(dt.getNano());
+        } else if (val instanceof java.sql.Date d) {
+            row.writeByte(DATE);
+            row.writeLong(d.toLocalDate().toEpochDay());
+        } else if (val instanceof java.sql.Time t) {
+            row.writeByte(TIME);
+            row.writeLong(t.toLocalTime().toNanoOfDay());
+        } else if (val instanceof java.util.Date d) {
+            writeValue(new Timestamp(d.getTime()));
+        } else if (val instanceof OffsetDateTime dt) {
+            row.writeByte(OFFSET_DATE_TIME);
+            row.writeLong(dt.toEpochSecond());
+            row.writeInt(dt.getNano());
+            row.writeInt(dt.getOffset().getTotalSeconds());
+        } else if (val instanceof LocalDateTime dt) {
+            row.writeByte(LOCAL_DATE_TIME);
+            row.writeLong(dt.toEpochSecond(ZoneOffset.UTC));
+            row.writeInt(dt.getNano());
+        } else if (val instanceof LocalDate d) {
+            row.writeByte(LOCAL_DATE);
+            row.writeLong(d.toEpochDay());
+        } else if (val instanceof LocalTime t) {
+            row.writeByte(LOCAL_TIME);
+            row.writeLong(t.toNanoOfDay());
+        } else if (val instanceof UUID uuid) {
+            row.writeByte(UUID_BITS);
+            row.writeLong(uuid.getMostSignificantBits());
+            row.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            // Driver specific types are loaded from their text representation
+            writeValue(val.toString());
+        }
+    }
+
+    private void writeBytes(byte[] b) throws IOException {
+        checkLength(b.length);
+        row.writeInt(b.length);
+        row.write(b);
+    }
+
+    private static void checkLength(long length) throws IOException {
+        if (length > MAX_VALUE_BYTES) {
+            throw new IOException("Cannot spool a value of " + length + " bytes, values are limited to "
+                + MAX_VALUE_BYTES + " bytes");
+        }
+    }
+}
@@ -94,6 +94,31 @@ final class StringUtil {
         return parseInt(s).orElse(defaultValue);
     }
 
+    /**
+     * Parse a number of bytes with an optional K, M or G suffix (powers of 1024), e.g. {@code 64M}.
+     */
+    static long parseSize(String s) {
+        s = s.trim();
+        if (s.isEmpty()) {
+            throw new NumberFormatException("Empty size");
+        }
+
+        int shift = switch (Character.toUpperCase(s.charAt(s.length() - 1))) {
+            case 'K' -> 10;
+            case 'M' -> 20;
+            case 'G' -> 30;
+            default -> 0;
+        };
+        if (shift != 0) {
+            s = s.substring(0, s.length() - 1).trim();
+        }
+        return Long.parseLong(s) << shift;
+    }
+
+    static long parseSize(String s, long defaultValue) {
+        return parse(s, StringUtil::parseSize).orElse(defaultValue);
+    }
+
     static Set<String> caseInsensitiveSet(Collection<String> l) {
         Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
         set.addAll(l);
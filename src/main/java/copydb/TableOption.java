@@ -0,0 +1,63 @@
+package copydb;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * An option with a default value that can be overridden per table,
+ * specified as {@code VALUE,TABLE=VALUE,...}, e.g. {@code 10000,BIGTAB=1000}.
+ */
+class TableOption<T> {
+
+    private final Map<String, T> tables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private T defaultValue;
+
+    TableOption(T defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    T get(String table) {
+        return tables.getOrDefault(table, defaultValue);
+    }
+
+    /**
+     * Test if a value has been given for the table, rather than falling back to the default.
+     */
+    boolean isSet(String table) {
+        return tables.containsKey(table);
+    }
+
+    T getDefault() {
+        return defaultValue;
+    }
+
+    void setDefault(T defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * A copy with the default and all table values replaced.
+     */
+    TableOption<T> map(UnaryOperator<T> operator) {
+        var option = new TableOption<>(operator.apply(defaultValue));
+        tables.forEach((table, value) -> option.tables.put(table, operator.apply(value)));
+        return option;
+    }
+
+    void load(String s, Function<String, T> parser) {
+        if (s == null) {
+            return;
+        }
+
+        for (var e : StringUtil.parseList(s)) {
+            var kv = e.split("\\s*=\\s*", 2);
+            if (kv.length == 2) {
+                tables.put(kv[0], parser.apply(kv[1]));
+            } else {
+                defaultValue = parser.apply(e);
+            }
+        }
+    }
+}
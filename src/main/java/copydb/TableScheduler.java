@@ -0,0 +1,141 @@
+package copydb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static copydb.CopyDb.LOG;
+
+/**
+ * Hands out tables to copy workers.
+ * <p>
+ * Tables are handed out in the order they were added. A table that depends on
+ * other tables (through foreign keys that cannot be disabled) is held back
+ * until the tables it depends on have been copied.
+ * <p>
+ * A large table may be split into chunks by the worker that takes it.
+ * The chunks are handed out before any other tables, so idle workers
+ * steal chunks from tables already in progress rather than starting new ones.
+ * A split table is completed when all of its chunks are completed.
+ */
+class TableScheduler {
+
+    private final List<CopyTask> pending;
+    private final Map<CopyTask, Set<CopyTask>> dependencies = new HashMap<>();
+    private final Set<CopyTask> running = new HashSet<>();
+    private final Set<CopyTask> completed = new HashSet<>();
+    private final Map<CopyTask, Integer> remainingChunks = new HashMap<>();
+    private boolean aborted;
+
+    TableScheduler(List<CopyTask> tasks) {
+        this.pending = new ArrayList<>(tasks);
+    }
+
+    /**
+     * Register that {@code task} may not start before {@code dependsOn} is completed.
+     */
+    synchronized void addDependency(CopyTask task, CopyTask dependsOn) {
+        if (task != dependsOn) {
+            dependencies.computeIfAbsent(task, k -> new HashSet<>()).add(dependsOn);
+        }
+    }
+
+    /**
+     * Take the next table to copy, waiting for dependencies to complete if necessary.
+     *
+     * @return next table or null if there is nothing more to copy.
+     */
+    synchronized CopyTask take() throws InterruptedException {
+        while (!aborted && !pending.isEmpty()) {
+            for (var it = pending.iterator(); it.hasNext(); ) {
+                var task = it.next();
+                if (isReady(task)) {
+                    it.remove();
+                    running.add(task);
+                    return task;
+                }
+            }
+
+            if (running.isEmpty() && remainingChunks.isEmpty()) {
+                // Circular dependencies, nothing will ever become ready
+                var task = pending.remove(0);
+                LOG.warn("Circular foreign key dependencies, copying {} before {}", task, dependencies.get(task));
+                running.add(task);
+                return task;
+            }
+
+            wait();
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the pending tables in an order that satisfies the dependencies
+     * as far as possible, i.e. the order a single worker would copy them in.
+     */
+    synchronized List<CopyTask> dependencyOrder() {
+        var order = new ArrayList<CopyTask>(pending.size());
+        var left = new ArrayList<>(pending);
+        var done = new HashSet<>(completed);
+        while (!left.isEmpty()) {
+            var task = left.stream()
+                .filter(t -> !dependencies.containsKey(t) || done.containsAll(dependencies.get(t)))
+                .findFirst()
+                .orElse(left.get(0));
+            left.remove(task);
+            done.add(task);
+            order.add(task);
+        }
+        return order;
+    }
+
+    /**
+     * Replace a table that has been taken with chunks that are handed out next.
+     */
+    synchronized void split(CopyTask task, List<CopyTask> chunks) {
+        running.remove(task);
+        remainingChunks.put(task, chunks.size());
+        pending.addAll(0, chunks);
+        notifyAll();
+    }
+
+    /**
+     * Mark a table or chunk as done.
+     *
+     * @return the table if it is now completed or null if chunks of it remain
+     */
+    synchronized CopyTask done(CopyTask task) {
+        running.remove(task);
+        CopyTask table = null;
+        if (task.parent != null) {
+            int remaining = remainingChunks.merge(task.parent, -1, Integer::sum);
+            if (remaining == 0) {
+                remainingChunks.remove(task.parent);
+                completed.add(task.parent);
+                table = task.parent;
+            }
+        } else {
+            completed.add(task);
+            table = task;
+        }
+        notifyAll();
+        return table;
+    }
+
+    /**
+     * Stop handing out tables, typically because a worker failed.
+     */
+    synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    private boolean isReady(CopyTask task) {
+        var deps = dependencies.get(task);
+        return deps == null || completed.containsAll(deps);
+    }
+}
@@ -0,0 +1,67 @@
+package copydb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Encodes key and watermark values as text tagged with their type, so that they are
+ * bound as parameters of the same type when read back.
+ */
+final class ValueCodec {
+
+    private ValueCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is of a type that cannot be read back
+     */
+    static String encode(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return "long:" + value;
+        } else if (value instanceof BigDecimal d) {
+            return "decimal:" + d.toPlainString();
+        } else if (value instanceof BigInteger n) {
+            return "decimal:" + n;
+        } else if (value instanceof UUID) {
+            return "uuid:" + value;
+        } else if (value instanceof Timestamp ts) {
+            return "timestamp:" + ts.toLocalDateTime();
+        } else if (value instanceof LocalDateTime) {
+            return "timestamp:" + value;
+        } else if (value instanceof OffsetDateTime) {
+            return "timestamptz:" + value;
+        } else if (value instanceof java.sql.Date d) {
+            return "date:" + d.toLocalDate();
+        } else if (value instanceof LocalDate) {
+            return "date:" + value;
+        } else if (value instanceof byte[] bytes) {
+            return "bytes:" + HexFormat.of().formatHex(bytes);
+        } else if (value instanceof String) {
+            return "string:" + value;
+        } else {
+            throw new IllegalArgumentException("Cannot record a key or watermark of type " + value.getClass().getName());
+        }
+    }
+
+    static Object decode(String value) {
+        int colon = value.indexOf(':');
+        var s = value.substring(colon + 1);
+        return switch (value.substring(0, Math.max(colon, 0))) {
+            case "long" -> Long.parseLong(s);
+            case "decimal" -> new BigDecimal(s);
+            case "uuid" -> UUID.fromString(s);
+            case "timestamp" -> Timestamp.valueOf(LocalDateTime.parse(s));
+            case "timestamptz" -> OffsetDateTime.parse(s);
+            case "date" -> java.sql.Date.valueOf(LocalDate.parse(s));
+            case "bytes" -> HexFormat.of().parseHex(s);
+            case "string" -> s;
+            default -> throw new IllegalArgumentException("Invalid value: " + value);
+        };
+    }
+}
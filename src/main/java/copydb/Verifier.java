@@ -0,0 +1,128 @@
+package copydb;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compares tables, or key ranges of tables, in the source and target by their row counts and hashes,
+ * and reports the compared ranges as JSON lines, one object per range.
+ * <p>
+ * Ranges are compared concurrently by several workers, each with its own {@link RangeHasher}.
+ */
+class Verifier {
+
+    /**
+     * Tables with a primary key are verified in chunks from this many rows unless a chunk threshold is given.
+     */
+    static final long CHUNK_ROWS = 100_000;
+
+    /**
+     * A table or chunk compared by {@link #verify}.
+     */
+    record VerifiedRange(CopyTask task, long sourceRows, long targetRows, boolean matches) {
+    }
+
+    private final List<VerifiedRange> results = new ArrayList<>();
+
+    /**
+     * Compare the rows of a table or chunk in the source and target.
+     */
+    VerifiedRange verify(CopyTask task, RangeHasher.Side source, RangeHasher.Side target,
+                         RangeHasher hasher) throws SQLException {
+        var sourceHash = hasher.hash(source, task.range);
+        var targetHash = hasher.hash(target, task.range);
+        var result = new VerifiedRange(task, sourceHash.rows(), targetHash.rows(), sourceHash.equals(targetHash));
+        add(result);
+        return result;
+    }
+
+    synchronized void add(VerifiedRange result) {
+        results.add(result);
+    }
+
+    /**
+     * The compared ranges by table and chunk.
+     */
+    synchronized List<VerifiedRange> getResults() {
+        var sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparing((VerifiedRange v) -> v.task().getName()).thenComparingInt(v -> v.task().chunk));
+        return sorted;
+    }
+
+    /**
+     * The compared ranges that differ, by table and chunk.
+     */
+    List<VerifiedRange> getMismatched() {
+        return getResults().stream().filter(v -> !v.matches()).toList();
+    }
+
+    /**
+     * Write the report to a file, or to standard output if none is given.
+     */
+    void writeReport(Path file) throws IOException {
+        if (file != null) {
+            try (var out = new PrintWriter(Files.newBufferedWriter(file))) {
+                writeReport(out);
+            }
+        } else {
+            var out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            writeReport(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Write the compared ranges as JSON lines, by table and chunk.
+     */
+    void writeReport(PrintWriter out) {
+        for (var v : getResults()) {
+            var range = v.task().range;
+            out.print("{\"table\":" + json(v.task().getName()));
+            if (range != null) {
+                out.print(",\"chunk\":" + (v.task().chunk + 1) + ",\"chunks\":" + v.task().chunks
+                    + ",\"column\":" + json(range.column)
+                    + ",\"lower\":" + json(range.lower) + ",\"upper\":" + json(range.upper));
+            }
+            out.println(",\"sourceRows\":" + v.sourceRows() + ",\"targetRows\":" + v.targetRows()
+                + ",\"match\":" + v.matches() + "}");
+        }
+    }
+
+    /**
+     * A value as JSON, numbers JSON cannot represent, NaN and infinities, as strings.
+     */
+    static String json(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof BigDecimal d) {
+            return d.toPlainString();
+        } else if (value instanceof Double d && !Double.isFinite(d) || value instanceof Float f && !Float.isFinite(f)) {
+            return "\"" + value + "\"";
+        } else if (value instanceof Number) {
+            return value.toString();
+        }
+
+        var s = value.toString();
+        var sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,64 @@
+package copydb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Watermarks of incremental copies kept in a file between runs, one per table:
+ * the largest value of the watermark column copied by the last successful run.
+ */
+class Watermarks {
+
+    private final Path file;
+    private final Properties values = new Properties();
+
+    private Watermarks(Path file) {
+        this.file = file;
+    }
+
+    static Watermarks load(Path file) throws IOException {
+        var watermarks = new Watermarks(file);
+        if (Files.exists(file)) {
+            try (var in = Files.newBufferedReader(file)) {
+                watermarks.values.load(in);
+            }
+        }
+        return watermarks;
+    }
+
+    /**
+     * @return watermark or null if the table has not been copied incrementally
+     */
+    synchronized Object get(String table, String column) {
+        var value = values.getProperty(keyOf(table, column));
+        return value != null ? ValueCodec.decode(value) : null;
+    }
+
+    /**
+     * Record the watermark of a table after its rows have been committed.
+     */
+    synchronized void put(String table, String column, Object value) {
+        values.setProperty(keyOf(table, column), ValueCodec.encode(value));
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (var out = Files.newBufferedWriter(tmp)) {
+                values.store(out, "copydb watermarks");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write watermarks " + file, e);
+        }
+    }
+
+    /**
+     * Watermarks are kept per column, so that changing the column of a table starts over.
+     */
+    private static String keyOf(String table, String column) {
+        return (table + "." + column).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,45 @@
+package copydb.convert;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writes rows as JDBC batches of a single row {@code INSERT} statement.
+ */
+public class BatchInsertWriter implements RowWriter {
+
+    private final String sql;
+    private final List<ColumnDescriptor<?, ?>> columns;
+    private final PreparedStatement stmt;
+
+    public BatchInsertWriter(Connection conn, String sql, List<ColumnDescriptor<?, ?>> columns) throws SQLException {
+        this.sql = sql;
+        this.columns = columns;
+        this.stmt = conn.prepareStatement(sql);
+    }
+
+    @Override
+    public void addRow(Object[] values) throws SQLException {
+        for (var i = 0; i < values.length; i++) {
+            columns.get(i).bind(stmt, i + 1, values[i]);
+        }
+        stmt.addBatch();
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        stmt.executeBatch();
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        stmt.close();
+    }
+}
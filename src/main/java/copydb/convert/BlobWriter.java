@@ -33,10 +33,18 @@ public class BlobWriter implements ColumnWriter<Blob> {
     }
 
     @Override
-    public Blob write(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
-        var blob = convert(target, val);
-        stmt.setBlob(param, blob);
-        return blob;
+    public ColumnWriter<Blob> conversionFor(Class<?> type) {
+        return type == byte[].class ? (target, val) -> new SerialBlob((byte[]) val) : null;
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return Lob.Binding.BLOB;
+    }
+
+    @Override
+    public void bind(Column target, Blob val, PreparedStatement stmt, int param) throws SQLException {
+        stmt.setBlob(param, val);
     }
 
     static final BlobWriter INSTANCE = new BlobWriter();
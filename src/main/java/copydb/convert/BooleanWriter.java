@@ -25,6 +25,16 @@ public class BooleanWriter implements ColumnWriter<Boolean> {
         throw new IllegalArgumentException("Cannot convert " + val + " to " + column);
     }
 
+    @Override
+    public ColumnWriter<Boolean> conversionFor(Class<?> type) {
+        if (type == Boolean.class) {
+            return (column, val) -> (Boolean) val;
+        } else if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return (column, val) -> ((Number) val).longValue() != 0;
+        }
+        return null;
+    }
+
     static final BooleanWriter INSTANCE = new BooleanWriter();
 
 }
@@ -26,10 +26,18 @@ class ByteArrayWriter implements ColumnWriter<byte[]> {
     }
 
     @Override
-    public byte[] write(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
-        byte[] tgt = convert(target, val);
-        stmt.setBytes(param, tgt);
-        return tgt;
+    public ColumnWriter<byte[]> conversionFor(Class<?> type) {
+        return type == byte[].class ? (column, val) -> (byte[]) val : null;
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return Lob.Binding.BINARY;
+    }
+
+    @Override
+    public void bind(Column target, byte[] val, PreparedStatement stmt, int param) throws SQLException {
+        stmt.setBytes(param, val);
     }
 
     static final ByteArrayWriter INSTANCE = new ByteArrayWriter();
@@ -2,34 +2,178 @@ package copydb.convert;
 
 import liquibase.structure.core.Column;
 
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 
+/**
+ * Reads a source column and converts its values for a target column.
+ * <p>
+ * The first value read specializes the column: values of the class of the first value are converted
+ * by the writer's conversion for that class, without testing the class of each value. A value of another class makes
+ * the column go back to the general conversion of the writer.
+ * <p>
+ * BLOBs and CLOBs are read as a {@link Lob} bound as a stream, when the writer has a {@link ColumnWriter#lobBinding()}.
+ * <p>
+ * Not thread-safe, each copy of a table or chunk creates its own descriptors.
+ */
 public class ColumnDescriptor<S,T> {
 
+    /**
+     * Marks a column whose values are converted by the general conversion of the writer.
+     */
+    private static final Class<?> GENERAL = Void.class;
+
     private final Column source;
     private final Column target;
     private final ColumnReader<S> reader;
     private final ColumnWriter<T> writer;
+    private final int nullType;
+    private final Lob.Binding lobBinding;
+    private Class<?> valueClass;
+    private ColumnWriter<T> conversion;
 
     public ColumnDescriptor(Column source, Column target, ColumnReader<S> reader, ColumnWriter<T> writer) {
         this.source = source;
         this.target = target;
         this.reader = reader;
         this.writer = writer;
+        this.nullType = nullTypeOf(target);
+        this.lobBinding = writer.lobBinding();
+    }
+
+    public Column getSource() {
+        return source;
+    }
+
+    public Column getTarget() {
+        return target;
+    }
+
+    public ColumnWriter<T> getWriter() {
+        return writer;
+    }
+
+    /**
+     * Read the source column and convert it to the target type without binding it,
+     * for when reading and binding happen at different times.
+     */
+    public T read(ResultSet rs, int columnIndex) throws SQLException {
+        S src = reader.get(source, rs, columnIndex);
+        return src == null ? null : convertValue(src);
+    }
+
+    /**
+     * Convert a value read by the source column reader at another time, e.g. from a spool file.
+     */
+    public T convert(Object src) throws SQLException {
+        return src == null ? null : convertValue(src);
+    }
+
+    /**
+     * Bind a value previously returned by {@link #read(ResultSet, int)}.
+     */
+    public void bind(PreparedStatement stmt, int paramIndex, Object val) throws SQLException {
+        if (val == null) {
+            bindNull(stmt, paramIndex);
+        } else {
+            bindValue(stmt, paramIndex, val);
+        }
     }
 
-    public T copy(ResultSet rs, PreparedStatement stmt, int paramIndex) throws SQLException {
-        S src = reader.get(source, rs);
-        if (src == null) {
+    @SuppressWarnings("unchecked")
+    private void bindValue(PreparedStatement stmt, int paramIndex, Object val) throws SQLException {
+        if (val instanceof Lob lob) {
+            lob.bind(stmt, paramIndex);
+        } else {
+            writer.bind(target, (T) val, stmt, paramIndex);
+        }
+    }
+
+    private void bindNull(PreparedStatement stmt, int paramIndex) throws SQLException {
+        if (nullType != Types.NULL) {
+            stmt.setNull(paramIndex, nullType);
+        } else {
             stmt.setObject(paramIndex, null);
-            return null;
+        }
+    }
+
+    /**
+     * The JDBC type to bind nulls of a column as, so that the driver need not work it out, or
+     * {@link Types#NULL} to leave it to the driver. Only types all drivers take for their columns
+     * are used, e.g. a VARCHAR null is refused by PostgreSQL for an enum column.
+     */
+    private static int nullTypeOf(Column column) {
+        Integer id = column.getType() != null ? column.getType().getDataTypeId() : null;
+        if (id == null) {
+            return Types.NULL;
+        }
+        return switch (id) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.NUMERIC, Types.DECIMAL,
+                 Types.DOUBLE, Types.REAL, Types.BOOLEAN, Types.DATE, Types.TIMESTAMP -> id;
+            default -> Types.NULL;
+        };
+    }
+
+    private T convertValue(Object src) throws SQLException {
+        var type = src.getClass();
+        if (type == valueClass) {
+            return conversion.convert(target, src);
         }
 
-        return writer.write(target, src, stmt, paramIndex);
+        if (valueClass == null) {
+            conversion = writer.conversionFor(type);
+            valueClass = conversion != null ? type : GENERAL;
+            if (conversion != null) {
+                return conversion.convert(target, src);
+            }
+        } else if (valueClass != GENERAL) {
+            valueClass = GENERAL;
+            conversion = null;
+        }
+        return convertGeneral(src);
     }
 
+    /**
+     * Convert with the general conversion of the writer, or read a BLOB or CLOB the writer streams.
+     * Such a value is held as a {@link Lob} rather than a T, which only {@link #bindValue} binds.
+     */
+    @SuppressWarnings("unchecked")
+    private T convertGeneral(Object src) throws SQLException {
+        if (lobBinding != null && lobBinding.accepts(src)) {
+            return (T) Lob.read(src, lobBinding);
+        }
+        return writer.convert(target, src);
+    }
+
+    /**
+     * Estimate the number of bytes a converted value occupies in memory, for limiting batch sizes.
+     * Large objects that are not held in memory are counted by their length nonetheless, since
+     * most drivers materialize them when binding.
+     */
+    public static long estimateSize(Object val) throws SQLException {
+        if (val == null) {
+            return 0;
+        } else if (val instanceof byte[] b) {
+            return VALUE_OVERHEAD + b.length;
+        } else if (val instanceof String s) {
+            return VALUE_OVERHEAD + 2L * s.length();
+        } else if (val instanceof Lob lob) {
+            return VALUE_OVERHEAD + lob.estimateSize();
+        } else if (val instanceof Blob blob) {
+            return VALUE_OVERHEAD + blob.length();
+        } else if (val instanceof Clob clob) {
+            return VALUE_OVERHEAD + 2 * clob.length();
+        } else {
+            return VALUE_OVERHEAD;
+        }
+    }
+
+    private static final int VALUE_OVERHEAD = 16;
+
     @Override
     public String toString() {
         return source.getName() + " " + source.getType() + " -> " + target.getName() + " " + target.getType() + " [" + reader.getClass().getSimpleName() + ":" + writer.getClass().getSimpleName() + "]";
@@ -10,8 +10,11 @@ public interface ColumnReader<T> {
 
     T convert(Column column, Object val) throws SQLException;
 
-    default T get(Column column, ResultSet rs) throws SQLException {
-        var val = rs.getObject(column.getName());
+    /**
+     * Read the value at the given index of the current row.
+     */
+    default T get(Column column, ResultSet rs, int index) throws SQLException {
+        var val = rs.getObject(index);
         return val == null ? null : convert(column, val);
     }
 
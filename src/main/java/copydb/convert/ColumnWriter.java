@@ -10,10 +10,27 @@ public interface ColumnWriter<T> {
 
     T convert(Column target, Object val) throws SQLException;
 
-    default T write(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
-        T tgt = convert(target, val);
-        stmt.setObject(param, tgt);
-        return tgt;
+    /**
+     * Conversion of values of exactly the given class without testing the class of each value,
+     * or null if {@link #convert} is used for them.
+     */
+    default ColumnWriter<T> conversionFor(Class<?> type) {
+        return null;
+    }
+
+    /**
+     * How BLOB and CLOB values are streamed to the target as a {@link Lob}, or null if they are
+     * converted like other values.
+     */
+    default Lob.Binding lobBinding() {
+        return null;
+    }
+
+    /**
+     * Bind a value previously returned by {@link #convert(Column, Object)}.
+     */
+    default void bind(Column target, T val, PreparedStatement stmt, int param) throws SQLException {
+        stmt.setObject(param, val);
     }
 
 }
@@ -4,13 +4,11 @@ import liquibase.database.Database;
 import liquibase.structure.core.Column;
 import liquibase.structure.core.DataType;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.UUID;
 
@@ -18,29 +16,65 @@ public final class Converters {
 
     private static final Map<String, DatabaseSupport> DATABASES = Map.of(
         "oracle", OracleSupport.INSTANCE,
-        "postgresql", PostgresSupport.INSTANCE
+        "postgresql", PostgresSupport.INSTANCE,
+        "mysql", MySqlSupport.INSTANCE,
+        "mariadb", MySqlSupport.INSTANCE,
+        "h2", H2Support.INSTANCE,
+        "sqlite", SqliteSupport.INSTANCE,
+        "mssql", MsSqlSupport.INSTANCE
     );
 
     private Converters() {
     }
 
+    public static DatabaseSupport supportFor(Database db) {
+        return DATABASES.getOrDefault(db.getShortName(), GenericDatabaseSupport.INSTANCE);
+    }
+
     public static ColumnDescriptor<?, ?> converterFor(Database source, Column sourceColumn,
                                                       Database target, Column targetColumn) {
 
-        var sourceDb = DATABASES.getOrDefault(source.getShortName(), GenericDatabaseSupport.INSTANCE);
-        var targetDb = DATABASES.getOrDefault(target.getShortName(), GenericDatabaseSupport.INSTANCE);
+        var sourceDb = supportFor(source);
         ColumnReader<?> reader = sourceDb.readerFor(source, sourceColumn);
+        return new ColumnDescriptor<>(sourceColumn, targetColumn, reader, writerFor(sourceDb, sourceColumn, target, targetColumn));
+    }
+
+    /**
+     * Converter for values already read from a database by its column readers, e.g. from a spool file.
+     * Only the conversion for the target is used, the reader of the converter returns values as they are.
+     *
+     * @param source short name of the database the values were read from
+     */
+    public static ColumnDescriptor<?, ?> converterFor(String source, Column sourceColumn,
+                                                      Database target, Column targetColumn) {
+        var sourceDb = DATABASES.getOrDefault(source, GenericDatabaseSupport.INSTANCE);
+        return new ColumnDescriptor<>(sourceColumn, targetColumn, DefaultReader.INSTANCE,
+            writerFor(sourceDb, sourceColumn, target, targetColumn));
+    }
+
+    /**
+     * Converter for reading values from a database without converting them for a target.
+     * Large objects are read into memory and driver specific date and time classes are
+     * replaced by the standard classes.
+     */
+    public static ColumnDescriptor<?, ?> readerFor(Database source, Column sourceColumn) {
+        ColumnReader<?> reader = supportFor(source).readerFor(source, sourceColumn);
+        return new ColumnDescriptor<>(sourceColumn, sourceColumn, reader, DefaultWriter.INSTANCE);
+    }
+
+    private static ColumnWriter<?> writerFor(DatabaseSupport sourceDb, Column sourceColumn,
+                                             Database target, Column targetColumn) {
+        var targetDb = supportFor(target);
         DataType sourceType = sourceColumn.getType();
         String sourceTypeName = sourceType.getTypeName();
 
         DataType targetType = targetColumn.getType();
         String targetTypeName = targetType.getTypeName();
         if (sourceTypeName.equalsIgnoreCase(targetTypeName) && targetDb == sourceDb) {
-            return new ColumnDescriptor<>(sourceColumn, targetColumn, reader, DefaultWriter.INSTANCE);
+            return DefaultWriter.forColumn(targetColumn);
         }
 
-        var writer = targetDb.writerFor(target, targetColumn);
-        return new ColumnDescriptor<>(sourceColumn, targetColumn, reader, writer);
+        return targetDb.writerFor(target, targetColumn);
     }
 
     public static byte[] extractBytes(Blob blob) throws SQLException {
@@ -49,21 +83,29 @@ public final class Converters {
             return blob.getBytes(1, (int) len);
         }
 
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        if (len > Integer.MAX_VALUE - 8) {
+            throw new SQLException("BLOB of " + len + " bytes is too large for a byte array");
+        }
+
+        // Read into an array of the length rather than a growing buffer copied at the end
+        var bytes = new byte[(int) len];
         try (var is = blob.getBinaryStream()) {
-            byte[] buf = new byte[4096];
-            int n;
-            while ((n = is.read(buf)) > 0) {
-                os.write(buf, 0, n);
-            }
+            int n = is.readNBytes(bytes, 0, bytes.length);
+            return n == bytes.length ? bytes : Arrays.copyOf(bytes, n);
         } catch (IOException e) {
             throw new SQLException("Failed to read BLOB", e);
         }
-        return os.toByteArray();
     }
 
+    /**
+     * The content of a CLOB encoded as UTF-8 as it's read, without a String of the whole content.
+     */
     public static byte[] extractBytes(Clob clob) throws SQLException {
-        return extractString(clob).getBytes(StandardCharsets.UTF_8);
+        try {
+            return Lob.read(clob, Lob.Binding.BINARY).toBytes();
+        } catch (IOException e) {
+            throw new SQLException("Failed reading CLOB", e);
+        }
     }
 
     public static String extractString(Clob clob) throws SQLException {
@@ -103,10 +145,18 @@ public final class Converters {
     }
 
     public static byte[] uuidToBytes(UUID uuid) {
-        ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
-        bb.putLong(uuid.getMostSignificantBits());
-        bb.putLong(uuid.getLeastSignificantBits());
-        return bb.array();
+        return uuidToBytes(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    static byte[] uuidToBytes(long msb, long lsb) {
+        var bytes = new byte[16];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) msb;
+            bytes[i + 8] = (byte) lsb;
+            msb >>>= 8;
+            lsb >>>= 8;
+        }
+        return bytes;
     }
 
 }
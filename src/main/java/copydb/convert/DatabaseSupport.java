@@ -2,10 +2,88 @@ package copydb.convert;
 
 import liquibase.database.Database;
 import liquibase.structure.core.Column;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
 
 public interface DatabaseSupport {
 
     ColumnReader<?> readerFor(Database source, Column sourceColumn);
     ColumnWriter<?> writerFor(Database target, Column targetColumn);
 
+    /**
+     * Prepare a forward-only, read-only query that streams its result
+     * instead of loading it into memory.
+     *
+     * @param fetchSize rows per round-trip or 0 for the dialect default
+     */
+    PreparedStatement prepareQuery(Connection conn, String sql, int fetchSize) throws SQLException;
+
+    /**
+     * Estimate the number of rows in a table from catalog statistics, without scanning it.
+     *
+     * @return estimated number of rows or -1 if not available
+     */
+    long estimateRowCount(Connection conn, Table table);
+
+    /**
+     * Create a writer that loads rows faster than batched {@code INSERT} statements.
+     *
+     * @param columns target columns in the order of the row values
+     * @return writer or null if bulk loading is not supported for the table
+     */
+    RowWriter bulkWriter(Connection conn, Table table, List<ColumnDescriptor<?, ?>> columns) throws SQLException;
+
+    /**
+     * Maximum number of rows in one {@code INSERT ... VALUES (...),(...),...} statement,
+     * as limited by the number of parameters a statement may have.
+     *
+     * @return rows or 1 if multi-row inserts are not supported
+     */
+    int maxRowsPerInsert(int columns);
+
+    /**
+     * Limit an ordered query to its first rows.
+     */
+    String limitRows(String query, int rows);
+
+    /**
+     * Statement inserting a row, or updating the row with the same key if there is one,
+     * with parameters for the columns in order.
+     *
+     * @param keyColumns primary key columns, a subset of the columns
+     * @return statement or null if not supported
+     */
+    String upsertSql(String table, List<String> columns, List<String> keyColumns);
+
+    /**
+     * Query counting the rows of a table and aggregating a hash of their values that does not depend
+     * on the order of the rows, for comparing a table between two databases of the same kind.
+     * A condition selecting a range of rows may be appended with {@code WHERE}.
+     *
+     * @return query or null if not supported
+     */
+    String rangeHashSql(String table, List<String> columns);
+
+    /**
+     * Statement recreating an index as the database defines it, including what a snapshot
+     * does not record, e.g. the condition of a partial index.
+     *
+     * @return statement or null to generate it from the snapshot
+     */
+    String indexDdl(Connection conn, Index index) throws SQLException;
+
+    /**
+     * A value that changes when the tables of a schema change, e.g. when columns, keys or
+     * indexes are added, altered or dropped, for reusing a snapshot taken with the same value.
+     * Only cheap catalog queries are used, not what a snapshot reads.
+     *
+     * @return fingerprint or null if changes cannot be detected
+     */
+    String schemaFingerprint(Connection conn, String schema) throws SQLException;
+
 }
@@ -4,6 +4,7 @@ import liquibase.structure.core.Column;
 
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 
@@ -21,11 +22,11 @@ public class DefaultWriter implements ColumnWriter<Object> {
 
         if (val instanceof Timestamp ts) {
             if (ts.getClass() != Timestamp.class) {
-                return Timestamp.valueOf(ts.toString());
+                return TextCodec.copyOf(ts);
             }
         } else if (val instanceof java.sql.Date d) {
             if (d.getClass() != java.sql.Date.class) {
-                return java.sql.Date.valueOf(d.toString());
+                return TextCodec.copyOf(d);
             }
         } else if (val instanceof java.util.Date d) {
             if (d.getClass() != java.util.Date.class) {
@@ -36,5 +37,51 @@ public class DefaultWriter implements ColumnWriter<Object> {
         return val;
     }
 
+    @Override
+    public ColumnWriter<Object> conversionFor(Class<?> type) {
+        if (Clob.class.isAssignableFrom(type) || Blob.class.isAssignableFrom(type)
+            || (java.util.Date.class.isAssignableFrom(type) && type != Timestamp.class
+                && type != java.sql.Date.class && type != java.util.Date.class)) {
+            return null;
+        }
+        return (column, val) -> val;
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return Lob.Binding.STREAM;
+    }
+
+    /**
+     * Writer for values of the same type in the same kind of database, binding numbers with the setter
+     * for the JDBC type of the column, see {@link NumberWriter#forColumn}.
+     */
+    static ColumnWriter<Object> forColumn(Column column) {
+        var numberWriter = NumberWriter.primitiveWriter(column);
+        if (numberWriter == null) {
+            return INSTANCE;
+        }
+
+        return new NumberBindingWriter(numberWriter);
+    }
+
     static final ColumnWriter<Object> INSTANCE = new DefaultWriter();
+
+    private static class NumberBindingWriter extends DefaultWriter {
+
+        private final NumberWriter numberWriter;
+
+        NumberBindingWriter(NumberWriter numberWriter) {
+            this.numberWriter = numberWriter;
+        }
+
+        @Override
+        public void bind(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
+            if (val instanceof Number n) {
+                numberWriter.bind(target, n, stmt, param);
+            } else {
+                stmt.setObject(param, val);
+            }
+        }
+    }
 }
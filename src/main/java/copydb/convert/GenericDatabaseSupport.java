@@ -3,7 +3,14 @@ package copydb.convert;
 import liquibase.database.Database;
 import liquibase.structure.core.Column;
 import liquibase.structure.core.DataType;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -93,14 +100,33 @@ public class GenericDatabaseSupport implements DatabaseSupport {
         String targetType = sourceColumn.getType().getTypeName();
         var reader = READERS.get(targetType);
         if (reader != null) {
-            return reader;
+            return numberReader(reader, sourceColumn);
         }
 
         if (isTimestampType(sourceColumn)) {
-            return GenericDatabaseSupport.isTimestampTzType(sourceColumn) ? TimestampTzReader.INSTANCE : TimestampReader.INSTANCE;
+            return GenericDatabaseSupport.isTimestampTzType(sourceColumn) ? new TimestampTzReader() : TimestampReader.INSTANCE;
         }
 
-        return DefaultReader.INSTANCE;
+        return numberReader(DefaultReader.INSTANCE, sourceColumn);
+    }
+
+    /**
+     * Reader using the getter for the JDBC type of a numeric column, see {@link NumberReader#forColumn},
+     * or null to read values as objects.
+     */
+    protected ColumnReader<?> primitiveReader(Column column) {
+        return NumberReader.forColumn(column);
+    }
+
+    /**
+     * Replace the general number reader, or the default reader, with the primitive reader of a column.
+     */
+    protected ColumnReader<?> numberReader(ColumnReader<?> reader, Column column) {
+        if (reader != NumberReader.INSTANCE && reader != DefaultReader.INSTANCE) {
+            return reader;
+        }
+        var primitive = primitiveReader(column);
+        return primitive != null ? primitive : reader;
     }
 
     @Override
@@ -108,7 +134,9 @@ public class GenericDatabaseSupport implements DatabaseSupport {
         DataType type = targetColumn.getType();
         String name = type.getTypeName();
         var writer = WRITERS.get(name);
-        if (writer != null) {
+        if (writer == NumberWriter.INSTANCE) {
+            return NumberWriter.forColumn(targetColumn);
+        } else if (writer != null) {
             return writer;
         }
 
@@ -143,6 +171,183 @@ public class GenericDatabaseSupport implements DatabaseSupport {
         return DefaultWriter.INSTANCE;
     }
 
+    /**
+     * Fetch size to use when none is specified or 0 to use the driver default.
+     */
+    protected int defaultFetchSize(Connection conn) throws SQLException {
+        return 0;
+    }
+
+    @Override
+    public PreparedStatement prepareQuery(Connection conn, String sql, int fetchSize) throws SQLException {
+        var stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        if (fetchSize == 0) {
+            fetchSize = defaultFetchSize(conn);
+        }
+        if (fetchSize != 0) {
+            stmt.setFetchSize(fetchSize);
+        }
+        return stmt;
+    }
+
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        return -1;
+    }
+
+    @Override
+    public RowWriter bulkWriter(Connection conn, Table table, List<ColumnDescriptor<?, ?>> columns) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return 1;
+    }
+
+    /**
+     * The SQL:2008 syntax, supported by PostgreSQL, Oracle 12c, H2, DB2 and Derby.
+     */
+    @Override
+    public String limitRows(String query, int rows) {
+        return query + " FETCH FIRST " + rows + " ROWS ONLY";
+    }
+
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        return null;
+    }
+
+    @Override
+    public String rangeHashSql(String table, List<String> columns) {
+        return null;
+    }
+
+    @Override
+    public String indexDdl(Connection conn, Index index) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        return null;
+    }
+
+    /**
+     * {@code INSERT ... ON CONFLICT}, as in PostgreSQL and SQLite.
+     */
+    static String insertOnConflict(String table, List<String> columns, List<String> keyColumns) {
+        var sql = new StringBuilder(insertSql(table, columns));
+        sql.append(" ON CONFLICT (").append(String.join(",", keyColumns)).append(")");
+        var update = nonKeyColumns(columns, keyColumns);
+        if (update.isEmpty()) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        sql.append(" DO UPDATE SET ");
+        for (int i = 0; i < update.size(); i++) {
+            if (i != 0) {
+                sql.append(',');
+            }
+            sql.append(update.get(i)).append("=EXCLUDED.").append(update.get(i));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * The standard {@code MERGE} with the row given by a dialect specific {@code USING} clause
+     * that names its columns as the target columns and is aliased {@code s}.
+     */
+    static String merge(String table, String using, List<String> columns, List<String> keyColumns) {
+        var sql = new StringBuilder();
+        sql.append("MERGE INTO ").append(table).append(" t USING ").append(using).append(" ON (");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i != 0) {
+                sql.append(" AND ");
+            }
+            sql.append("t.").append(keyColumns.get(i)).append("=s.").append(keyColumns.get(i));
+        }
+        sql.append(")");
+        var update = nonKeyColumns(columns, keyColumns);
+        if (!update.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ");
+            for (int i = 0; i < update.size(); i++) {
+                if (i != 0) {
+                    sql.append(',');
+                }
+                sql.append("t.").append(update.get(i)).append("=s.").append(update.get(i));
+            }
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(",", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i != 0) {
+                sql.append(',');
+            }
+            sql.append("s.").append(columns.get(i));
+        }
+        return sql.append(")").toString();
+    }
+
+    static String insertSql(String table, List<String> columns) {
+        return "INSERT INTO " + table + "(" + String.join(",", columns) + ") VALUES(" + parameters(columns.size()) + ")";
+    }
+
+    static String parameters(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    static List<String> nonKeyColumns(List<String> columns, List<String> keyColumns) {
+        return columns.stream()
+            .filter(c -> keyColumns.stream().noneMatch(c::equalsIgnoreCase))
+            .toList();
+    }
+
+    /**
+     * Rows of a multi-row insert that fit within a limit on the number of parameters per statement.
+     */
+    static int rowsWithin(int maxParameters, int columns) {
+        return Math.max(maxParameters / Math.max(columns, 1), 1);
+    }
+
+    /**
+     * Run a catalog query with the schema and table name as parameters, returning the first column
+     * of the first row as a number, or -1 if there is no such row or the query fails.
+     */
+    static long queryRowCount(Connection conn, String sql, String... params) {
+        try (var stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setString(i + 1, params[i]);
+            }
+            try (var rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    long n = rs.getLong(1);
+                    return rs.wasNull() ? -1 : n;
+                }
+            }
+        } catch (SQLException e) {
+            // Statistics not available
+        }
+        return -1;
+    }
+
+    /**
+     * Query a single string, e.g. DDL, from the catalog.
+     *
+     * @return string or null if there is no row
+     */
+    static String queryString(Connection conn, String sql, String... params) throws SQLException {
+        try (var stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setString(i + 1, params[i]);
+            }
+            try (var rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    static String schemaName(Table table) {
+        return table.getSchema() != null ? table.getSchema().getName() : null;
+    }
 
     static final DatabaseSupport INSTANCE = new GenericDatabaseSupport();
 }
@@ -0,0 +1,48 @@
+package copydb.convert;
+
+import liquibase.structure.core.Table;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class H2Support extends GenericDatabaseSupport {
+
+    private H2Support() {
+    }
+
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        return queryRowCount(conn,
+            "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?",
+            schemaName(table), table.getName());
+    }
+
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return rowsWithin(Short.MAX_VALUE, columns);
+    }
+
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        return "MERGE INTO " + table + "(" + String.join(",", columns) + ") KEY(" + String.join(",", keyColumns)
+            + ") VALUES(" + parameters(columns.size()) + ")";
+    }
+
+    /**
+     * A hash of the columns, index columns and constraints in the information schema of H2 2.x.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        return queryString(conn, "SELECT RAWTOHEX(HASH('SHA-256', LISTAGG(D, ',') WITHIN GROUP (ORDER BY D))) FROM ("
+            + "SELECT CONCAT_WS(':', TABLE_NAME, ORDINAL_POSITION, COLUMN_NAME, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH,"
+            + " NUMERIC_PRECISION, NUMERIC_SCALE, IS_NULLABLE, COLUMN_DEFAULT) D"
+            + " FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ?"
+            + " UNION ALL SELECT CONCAT_WS(':', TABLE_NAME, INDEX_NAME, ORDINAL_POSITION, COLUMN_NAME)"
+            + " FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE TABLE_SCHEMA = ?"
+            + " UNION ALL SELECT CONCAT_WS(':', TABLE_NAME, CONSTRAINT_NAME, CONSTRAINT_TYPE)"
+            + " FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS WHERE TABLE_SCHEMA = ?)", schema, schema, schema);
+    }
+
+    static final DatabaseSupport INSTANCE = new H2Support();
+}
@@ -0,0 +1,362 @@
+package copydb.convert;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A large object read from the source and bound as a stream, without converting it to a String or
+ * byte array of its whole content.
+ * <p>
+ * The content is read when the row is read, as the source may invalidate a BLOB or CLOB once the
+ * result set moves on, whereas rows are bound later, e.g. in batches or by another thread. Content of
+ * at most {@link #INLINE_LIMIT} bytes is held in memory, read through a buffer of the reading thread,
+ * larger content is spilled to a temporary file deleted once the value is no longer referenced.
+ * CLOBs are held encoded as UTF-8, encoded as their characters are read.
+ */
+public final class Lob {
+
+    /**
+     * How a writer binds large objects, see {@link ColumnWriter#lobBinding()}.
+     */
+    public enum Binding {
+        /**
+         * A BLOB as a binary stream and a CLOB as a character stream.
+         */
+        STREAM,
+        /**
+         * As a binary stream, CLOBs encoded as UTF-8.
+         */
+        BINARY,
+        /**
+         * As a BLOB read from a binary stream, CLOBs encoded as UTF-8.
+         */
+        BLOB,
+        /**
+         * A CLOB as a character stream, BLOBs are converted by the writer.
+         */
+        CHARACTER;
+
+        boolean accepts(Object val) {
+            return val instanceof Clob || (val instanceof Blob && this != CHARACTER);
+        }
+    }
+
+    /**
+     * Values of at most this many bytes are held in memory.
+     */
+    static final int INLINE_LIMIT = 1 << 20;
+
+    private static final int CHUNK = 8192;
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Set<Path> FILES = ConcurrentHashMap.newKeySet();
+
+    static {
+        // Files of values still referenced when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> FILES.forEach(Lob::delete), "copydb-lob-cleanup"));
+    }
+
+    private final Binding binding;
+    private final boolean text;
+    private final byte[] bytes;
+    private final Path file;
+    private final long length;
+    private final long chars;
+
+    private Lob(Binding binding, boolean text, byte[] bytes, Path file, long length, long chars) {
+        this.binding = binding;
+        this.text = text;
+        this.bytes = bytes;
+        this.file = file;
+        this.length = length;
+        this.chars = chars;
+        if (file != null) {
+            CLEANER.register(this, () -> delete(file));
+        }
+    }
+
+    /**
+     * Read a BLOB or CLOB accepted by the binding.
+     */
+    static Lob read(Object val, Binding binding) throws SQLException {
+        if (val instanceof Clob clob) {
+            try {
+                return readClob(clob, binding);
+            } catch (IOException e) {
+                throw new SQLException("Failed reading CLOB", e);
+            }
+        }
+
+        try {
+            return readBlob((Blob) val, binding);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read BLOB", e);
+        }
+    }
+
+    private static Lob readBlob(Blob blob, Binding binding) throws SQLException, IOException {
+        long len = blob.length();
+        if (len <= INLINE_LIMIT) {
+            return new Lob(binding, false, blob.getBytes(1, (int) len), null, len, 0);
+        }
+
+        var buf = BUFFERS.get().bytes;
+        var spill = new Spill();
+        try (var in = blob.getBinaryStream()) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                spill.write(buf, 0, n);
+            }
+            return spill.finish(binding, false, 0);
+        } finally {
+            spill.discard();
+        }
+    }
+
+    private static Lob readClob(Clob clob, Binding binding) throws SQLException, IOException {
+        var buffers = BUFFERS.get();
+        var encoder = buffers.encoder.reset();
+        var chars = buffers.chars.clear();
+        var out = ByteBuffer.wrap(buffers.bytes);
+        boolean text = binding == Binding.STREAM || binding == Binding.CHARACTER;
+        long count = 0;
+        Spill spill = null;
+        try (var reader = clob.getCharacterStream()) {
+            boolean eof = false;
+            while (true) {
+                if (!eof && chars.hasRemaining()) {
+                    int n = reader.read(chars.array(), chars.position(), chars.remaining());
+                    if (n < 0) {
+                        eof = true;
+                    } else {
+                        chars.position(chars.position() + n);
+                        count += n;
+                    }
+                }
+
+                // A surrogate pair split between reads is kept until its second half is read
+                chars.flip();
+                var result = encoder.encode(chars, out, eof);
+                chars.compact();
+                if (result.isOverflow()) {
+                    spill = drain(out, spill);
+                } else if (eof) {
+                    while (encoder.flush(out).isOverflow()) {
+                        spill = drain(out, spill);
+                    }
+                    break;
+                }
+            }
+
+            if (spill == null) {
+                return new Lob(binding, text, Arrays.copyOf(out.array(), out.position()), null, out.position(), count);
+            }
+            drain(out, spill);
+            return spill.finish(binding, text, count);
+        } finally {
+            if (spill != null) {
+                spill.discard();
+            }
+        }
+    }
+
+    /**
+     * Write the encoded bytes to the spill file, created when the buffer first fills up.
+     */
+    private static Spill drain(ByteBuffer out, Spill spill) throws IOException {
+        if (spill == null) {
+            spill = new Spill();
+        }
+        spill.write(out.array(), 0, out.position());
+        out.clear();
+        return spill;
+    }
+
+    /**
+     * Whether the value is bound as characters, otherwise it's bound as bytes.
+     */
+    public boolean isText() {
+        return text;
+    }
+
+    /**
+     * Length in bytes, encoded as UTF-8 for text.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Estimate of the bytes the value occupies in memory when bound, see {@link ColumnDescriptor#estimateSize}.
+     */
+    long estimateSize() {
+        return text ? 2 * chars : length;
+    }
+
+    /**
+     * Stream of the content, as UTF-8 for text.
+     */
+    public InputStream openStream() throws IOException {
+        if (bytes != null) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return new FileStream(this, Files.newInputStream(file));
+    }
+
+    /**
+     * Write the content, as UTF-8 for text.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (bytes != null) {
+            out.write(bytes);
+        } else {
+            Files.copy(file, out);
+        }
+    }
+
+    /**
+     * The content as bytes, as UTF-8 for text.
+     */
+    byte[] toBytes() throws IOException {
+        return bytes != null ? bytes : Files.readAllBytes(file);
+    }
+
+    void bind(PreparedStatement stmt, int param) throws SQLException {
+        if (binding == Binding.BLOB) {
+            stmt.setBlob(param, stream(), length);
+        } else if (text) {
+            var reader = new InputStreamReader(stream(), StandardCharsets.UTF_8);
+            if (chars <= Integer.MAX_VALUE) {
+                stmt.setCharacterStream(param, reader, (int) chars);
+            } else {
+                stmt.setCharacterStream(param, reader, chars);
+            }
+        } else if (bytes != null) {
+            stmt.setBytes(param, bytes);
+        } else if (length <= Integer.MAX_VALUE) {
+            // Not all drivers implement the setters taking a long length
+            stmt.setBinaryStream(param, stream(), (int) length);
+        } else {
+            stmt.setBinaryStream(param, stream(), length);
+        }
+    }
+
+    private InputStream stream() throws SQLException {
+        try {
+            return openStream();
+        } catch (IOException e) {
+            throw new SQLException("Failed to read " + file, e);
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left in the temporary directory
+        }
+        FILES.remove(file);
+    }
+
+    @Override
+    public String toString() {
+        return (text ? "CLOB" : "BLOB") + " of " + length + " bytes" + (file != null ? " in " + file : "");
+    }
+
+    /**
+     * Buffers of a thread reading large objects, the byte buffer holds content up to the inline limit.
+     */
+    private static final class Buffers {
+        final byte[] bytes = new byte[INLINE_LIMIT];
+        final CharBuffer chars = CharBuffer.allocate(CHUNK);
+        // Unpaired surrogates are replaced by ? like String.getBytes
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Temporary file content is spilled to, deleted unless handed over to a value.
+     */
+    private static final class Spill {
+        private final Path file;
+        private final OutputStream out;
+        private long length;
+        private boolean finished;
+
+        Spill() throws IOException {
+            file = Files.createTempFile("copydb-lob", ".tmp");
+            FILES.add(file);
+            out = Files.newOutputStream(file);
+        }
+
+        void write(byte[] b, int off, int n) throws IOException {
+            out.write(b, off, n);
+            length += n;
+        }
+
+        Lob finish(Binding binding, boolean text, long chars) throws IOException {
+            out.close();
+            finished = true;
+            return new Lob(binding, text, null, file, length, chars);
+        }
+
+        void discard() throws IOException {
+            if (!finished) {
+                out.close();
+                delete(file);
+            }
+        }
+    }
+
+    /**
+     * Stream of a spilled file, closed at its end as drivers need not close streams bound to statements.
+     * It references the value so that the file is not deleted while it's read.
+     */
+    private static final class FileStream extends FilterInputStream {
+        @SuppressWarnings({"unused", "FieldCanBeLocal"})
+        private final Lob lob;
+
+        FileStream(Lob lob, InputStream in) {
+            super(in);
+            this.lob = lob;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                close();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                close();
+            }
+            return n;
+        }
+    }
+}
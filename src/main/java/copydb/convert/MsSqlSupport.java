@@ -0,0 +1,48 @@
+package copydb.convert;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class MsSqlSupport extends GenericDatabaseSupport {
+
+    private MsSqlSupport() {
+    }
+
+    /**
+     * A statement may have at most 2100 parameters and a table value constructor at most 1000 rows.
+     */
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return Math.min(rowsWithin(2100, columns), 1000);
+    }
+
+    /**
+     * {@code FETCH} requires an {@code OFFSET} clause.
+     */
+    @Override
+    public String limitRows(String query, int rows) {
+        return query + " OFFSET 0 ROWS FETCH NEXT " + rows + " ROWS ONLY";
+    }
+
+    /**
+     * A {@code MERGE} statement must be terminated by a semicolon.
+     */
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        var using = "(VALUES (" + parameters(columns.size()) + ")) s (" + String.join(",", columns) + ")";
+        return merge(table, using, columns, keyColumns) + ";";
+    }
+
+    /**
+     * The latest modification time and number of objects, altering a table or its indexes
+     * updates the time of the table.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        return queryString(conn, "SELECT CONVERT(varchar(30), MAX(modify_date), 126) + '/' + CAST(COUNT(*) AS varchar(20))"
+            + " FROM sys.objects WHERE schema_id = SCHEMA_ID(?)", schema);
+    }
+
+    static final DatabaseSupport INSTANCE = new MsSqlSupport();
+}
@@ -0,0 +1,109 @@
+package copydb.convert;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Writes rows with {@code INSERT ... VALUES (...),(...),...} statements carrying many rows each,
+ * which databases that execute JDBC batches statement by statement load much faster.
+ * <p>
+ * Full statements are added to a JDBC batch of one prepared statement. Rows left over when
+ * the batch is flushed are written with a second statement prepared for that number of rows,
+ * which is kept as long as the number of rows left over stays the same.
+ */
+public class MultiRowInsertWriter implements RowWriter {
+
+    private final Connection conn;
+    private final IntFunction<String> sqlForRows;
+    private final List<ColumnDescriptor<?, ?>> columns;
+    private final int rowsPerStatement;
+    private final PreparedStatement full;
+    private final Object[][] pending;
+    private int pendingRows;
+    private boolean batched;
+    private PreparedStatement remainder;
+    private int remainderRows;
+
+    /**
+     * @param sqlForRows creates the insert statement for a number of rows
+     */
+    public MultiRowInsertWriter(Connection conn, IntFunction<String> sqlForRows,
+                                List<ColumnDescriptor<?, ?>> columns, int rowsPerStatement) throws SQLException {
+        this.conn = conn;
+        this.sqlForRows = sqlForRows;
+        this.columns = columns;
+        this.rowsPerStatement = rowsPerStatement;
+        this.pending = new Object[rowsPerStatement][columns.size()];
+        this.full = conn.prepareStatement(sqlForRows.apply(rowsPerStatement));
+    }
+
+    @Override
+    public void addRow(Object[] values) throws SQLException {
+        System.arraycopy(values, 0, pending[pendingRows++], 0, values.length);
+        if (pendingRows == rowsPerStatement) {
+            bindPending(full);
+            full.addBatch();
+            batched = true;
+        }
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        if (batched) {
+            full.executeBatch();
+            batched = false;
+        }
+
+        if (pendingRows != 0) {
+            if (remainderRows != pendingRows) {
+                closeRemainder();
+                remainder = conn.prepareStatement(sqlForRows.apply(pendingRows));
+                remainderRows = pendingRows;
+            }
+            bindPending(remainder);
+            remainder.executeUpdate();
+        }
+    }
+
+    /**
+     * Bind the pending rows and release them, so that the values are not held after they have been sent.
+     */
+    private void bindPending(PreparedStatement stmt) throws SQLException {
+        int param = 1;
+        for (int row = 0; row < pendingRows; row++) {
+            var values = pending[row];
+            for (int i = 0; i < values.length; i++) {
+                columns.get(i).bind(stmt, param++, values[i]);
+            }
+            Arrays.fill(values, null);
+        }
+        pendingRows = 0;
+    }
+
+    @Override
+    public String getSql() {
+        return sqlForRows.apply(1) + ",... (" + rowsPerStatement + " rows per statement)";
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            full.close();
+        } finally {
+            closeRemainder();
+        }
+    }
+
+    private void closeRemainder() throws SQLException {
+        if (remainder != null) {
+            var stmt = remainder;
+            remainder = null;
+            remainderRows = 0;
+            stmt.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package copydb.convert;
+
+import liquibase.structure.core.Table;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * MySQL and MariaDB.
+ */
+public final class MySqlSupport extends GenericDatabaseSupport {
+
+    private MySqlSupport() {
+    }
+
+    private static boolean isMariaDbDriver(Connection conn) {
+        return conn.getClass().getName().startsWith("org.mariadb.");
+    }
+
+    /**
+     * Both drivers read the whole result into memory by default. The MariaDB driver
+     * streams with any fetch size. The MySQL driver streams row by row with a fetch size
+     * of {@link Integer#MIN_VALUE} and only uses the fetch size with {@code useCursorFetch=true}.
+     */
+    @Override
+    public PreparedStatement prepareQuery(Connection conn, String sql, int fetchSize) throws SQLException {
+        if (isMariaDbDriver(conn)) {
+            return super.prepareQuery(conn, sql, fetchSize > 0 ? fetchSize : 1000);
+        }
+
+        if (fetchSize <= 0 || !conn.getMetaData().getURL().contains("useCursorFetch=true")) {
+            fetchSize = Integer.MIN_VALUE;
+        }
+        return super.prepareQuery(conn, sql, fetchSize);
+    }
+
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        return queryRowCount(conn,
+            "SELECT TABLE_ROWS FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+            table.getName());
+    }
+
+    /**
+     * Placeholders are counted with 16 bits in the prepared statement protocol.
+     */
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return rowsWithin(65535, columns);
+    }
+
+    @Override
+    public String limitRows(String query, int rows) {
+        return query + " LIMIT " + rows;
+    }
+
+    /**
+     * Without columns to update, updating a key column to itself makes the insert a no-op.
+     */
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        var update = nonKeyColumns(columns, keyColumns);
+        if (update.isEmpty()) {
+            update = List.of(keyColumns.get(0));
+        }
+        var sql = new StringBuilder(insertSql(table, columns));
+        sql.append(" ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < update.size(); i++) {
+            if (i != 0) {
+                sql.append(',');
+            }
+            sql.append(update.get(i)).append("=VALUES(").append(update.get(i)).append(")");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * XORs the first 64 bits of the MD5 of each row, as pt-table-checksum does. NULL is told apart
+     * from an empty string by appending the ISNULL flags, since CONCAT_WS skips NULL values.
+     */
+    @Override
+    public String rangeHashSql(String table, List<String> columns) {
+        var nulls = columns.stream().map(c -> "ISNULL(" + c + ")").toList();
+        return "SELECT COUNT(*), BIT_XOR(CAST(CONV(SUBSTRING(MD5(CONCAT_WS('#', " + String.join(", ", columns)
+            + ", CONCAT(" + String.join(", ", nulls) + "))), 1, 16), 16, 10) AS UNSIGNED)) FROM " + table;
+    }
+
+    /**
+     * Counts and hashes of the columns, index columns and key columns of the current database,
+     * combined as in {@link #rangeHashSql}, as {@code GROUP_CONCAT} truncates long results.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        return queryString(conn, "SELECT CONCAT_WS('/',"
+            + fingerprintOf("COLUMNS", "TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, COLUMN_TYPE, IS_NULLABLE,"
+            + " COLUMN_DEFAULT, EXTRA") + ","
+            + fingerprintOf("STATISTICS", "TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX, COLUMN_NAME, NON_UNIQUE") + ","
+            + fingerprintOf("KEY_COLUMN_USAGE", "TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION, COLUMN_NAME,"
+            + " REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME") + ")");
+    }
+
+    private static String fingerprintOf(String view, String columns) {
+        return "(SELECT CONCAT(COUNT(*), ':', BIT_XOR(CAST(CONV(SUBSTRING(MD5(CONCAT_WS('#', " + columns
+            + ")), 1, 16), 16, 10) AS UNSIGNED))) FROM INFORMATION_SCHEMA." + view + " WHERE TABLE_SCHEMA = DATABASE())";
+    }
+
+    static final DatabaseSupport INSTANCE = new MySqlSupport();
+}
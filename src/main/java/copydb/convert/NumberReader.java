@@ -1,10 +1,14 @@
 package copydb.convert;
 
 import liquibase.structure.core.Column;
+import liquibase.structure.core.DataType;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
 
 public class NumberReader implements ColumnReader<Number> {
 
@@ -27,6 +31,89 @@ public class NumberReader implements ColumnReader<Number> {
         throw new IllegalArgumentException("Cannot convert " + val + " to number");
     }
 
+    /**
+     * Reader using the getter for the JDBC type of a numeric column instead of {@code getObject},
+     * e.g. {@code getLong} for integer NUMERIC columns some drivers return as BigDecimal, or null if
+     * the values of the column are not known to fit a getter.
+     */
+    static ColumnReader<Number> forColumn(Column column) {
+        DataType type = column.getType();
+        Integer id = type.getDataTypeId();
+        if (id == null || type.getTypeName().toUpperCase(Locale.ROOT).contains("UNSIGNED")) {
+            return null;
+        }
+
+        return switch (id) {
+            case Types.BIGINT -> LONG;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+            case Types.DOUBLE -> DOUBLE;
+            case Types.NUMERIC, Types.DECIMAL -> isLongDecimal(type) ? LONG : DECIMAL;
+            default -> null;
+        };
+    }
+
+    /**
+     * Test if a NUMERIC or DECIMAL type has no fraction digits and few enough digits for a long.
+     */
+    static boolean isLongDecimal(DataType type) {
+        Integer size = type.getColumnSize();
+        Integer digits = type.getDecimalDigits();
+        return size != null && size > 0 && size <= 18 && (digits == null || digits == 0);
+    }
+
     static final ColumnReader<Number> INSTANCE = new NumberReader();
 
+    // Values a getter cannot return, e.g. NaN in a PostgreSQL NUMERIC column, are read as objects
+
+    private static final ColumnReader<Number> LONG = new LongReader();
+    private static final ColumnReader<Number> INT = new IntReader();
+    private static final ColumnReader<Number> DOUBLE = new DoubleReader();
+    private static final ColumnReader<Number> DECIMAL = new DecimalReader();
+
+    private static class LongReader extends NumberReader {
+        @Override
+        public Number get(Column column, ResultSet rs, int index) throws SQLException {
+            try {
+                long val = rs.getLong(index);
+                return val == 0 && rs.wasNull() ? null : val;
+            } catch (SQLException e) {
+                return super.get(column, rs, index);
+            }
+        }
+    }
+
+    private static class IntReader extends NumberReader {
+        @Override
+        public Number get(Column column, ResultSet rs, int index) throws SQLException {
+            try {
+                int val = rs.getInt(index);
+                return val == 0 && rs.wasNull() ? null : val;
+            } catch (SQLException e) {
+                return super.get(column, rs, index);
+            }
+        }
+    }
+
+    private static class DoubleReader extends NumberReader {
+        @Override
+        public Number get(Column column, ResultSet rs, int index) throws SQLException {
+            try {
+                double val = rs.getDouble(index);
+                return val == 0 && rs.wasNull() ? null : val;
+            } catch (SQLException e) {
+                return super.get(column, rs, index);
+            }
+        }
+    }
+
+    private static class DecimalReader extends NumberReader {
+        @Override
+        public Number get(Column column, ResultSet rs, int index) throws SQLException {
+            try {
+                return rs.getBigDecimal(index);
+            } catch (SQLException e) {
+                return super.get(column, rs, index);
+            }
+        }
+    }
 }
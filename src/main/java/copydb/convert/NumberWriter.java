@@ -1,6 +1,13 @@
 package copydb.convert;
 
 import liquibase.structure.core.Column;
+import liquibase.structure.core.DataType;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
 
 public class NumberWriter implements ColumnWriter<Number> {
 
@@ -15,6 +22,90 @@ public class NumberWriter implements ColumnWriter<Number> {
         throw new IllegalArgumentException("Cannot convert " + val + " to " + column);
     }
 
+    @Override
+    public ColumnWriter<Number> conversionFor(Class<?> type) {
+        return Number.class.isAssignableFrom(type) ? (column, val) -> (Number) val : null;
+    }
+
+    /**
+     * Writer binding numbers with the setter for the JDBC type of the target column instead of
+     * {@code setObject}, which leaves the driver to work out the type of each value.
+     */
+    static ColumnWriter<Number> forColumn(Column column) {
+        var writer = primitiveWriter(column);
+        return writer != null ? writer : INSTANCE;
+    }
+
+    /**
+     * @return writer with a primitive setter for the column or null if there is none
+     */
+    static NumberWriter primitiveWriter(Column column) {
+        DataType type = column.getType();
+        Integer id = type.getDataTypeId();
+        if (id == null || type.getTypeName().toUpperCase(Locale.ROOT).contains("UNSIGNED")) {
+            return null;
+        }
+
+        return switch (id) {
+            case Types.BIGINT -> LONG;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+            case Types.DOUBLE -> DOUBLE;
+            case Types.NUMERIC, Types.DECIMAL -> NumberReader.isLongDecimal(type) ? LONG : DECIMAL;
+            default -> null;
+        };
+    }
+
     static final ColumnWriter<Number> INSTANCE = new NumberWriter();
 
+    // Values of other classes than the setter takes are bound as objects
+
+    private static final NumberWriter LONG = new LongWriter();
+    private static final NumberWriter INT = new IntWriter();
+    private static final NumberWriter DOUBLE = new DoubleWriter();
+    private static final NumberWriter DECIMAL = new DecimalWriter();
+
+    private static class LongWriter extends NumberWriter {
+        @Override
+        public void bind(Column target, Number val, PreparedStatement stmt, int param) throws SQLException {
+            if (val instanceof Long || val instanceof Integer || val instanceof Short || val instanceof Byte) {
+                stmt.setLong(param, val.longValue());
+            } else {
+                stmt.setObject(param, val);
+            }
+        }
+    }
+
+    private static class IntWriter extends NumberWriter {
+        @Override
+        public void bind(Column target, Number val, PreparedStatement stmt, int param) throws SQLException {
+            if (val instanceof Integer || val instanceof Short || val instanceof Byte
+                || (val instanceof Long l && l == l.intValue())) {
+                stmt.setInt(param, val.intValue());
+            } else {
+                stmt.setObject(param, val);
+            }
+        }
+    }
+
+    private static class DoubleWriter extends NumberWriter {
+        @Override
+        public void bind(Column target, Number val, PreparedStatement stmt, int param) throws SQLException {
+            if (val instanceof Double d) {
+                stmt.setDouble(param, d);
+            } else {
+                stmt.setObject(param, val);
+            }
+        }
+    }
+
+    private static class DecimalWriter extends NumberWriter {
+        @Override
+        public void bind(Column target, Number val, PreparedStatement stmt, int param) throws SQLException {
+            if (val instanceof BigDecimal d) {
+                stmt.setBigDecimal(param, d);
+            } else {
+                stmt.setObject(param, val);
+            }
+        }
+    }
 }
@@ -3,7 +3,12 @@ package copydb.convert;
 import liquibase.database.Database;
 import liquibase.structure.core.Column;
 import liquibase.structure.core.DataType;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Map.entry;
@@ -27,7 +32,7 @@ public final class OracleSupport extends GenericDatabaseSupport {
         String targetType = sourceColumn.getType().getTypeName();
         var reader = READERS.get(targetType);
         if (reader != null) {
-            return reader;
+            return numberReader(reader, sourceColumn);
         }
         return super.readerFor(source, sourceColumn);
     }
@@ -41,13 +46,71 @@ public final class OracleSupport extends GenericDatabaseSupport {
         }
 
         var writer = WRITERS.get(name);
-        if (writer != null) {
+        if (writer == NumberWriter.INSTANCE) {
+            return NumberWriter.forColumn(targetColumn);
+        } else if (writer != null) {
             return writer;
         }
 
         return super.writerFor(target, targetColumn);
     }
 
+    /**
+     * The driver default of 10 rows per round-trip is far too small for copying.
+     */
+    @Override
+    protected int defaultFetchSize(Connection conn) {
+        return 1000;
+    }
+
+    /**
+     * Row count from the last time statistics were gathered.
+     */
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        var schema = schemaName(table);
+        if (schema == null) {
+            return queryRowCount(conn, "SELECT NUM_ROWS FROM USER_TABLES WHERE TABLE_NAME = ?", table.getName());
+        }
+        return queryRowCount(conn, "SELECT NUM_ROWS FROM ALL_TABLES WHERE OWNER = ? AND TABLE_NAME = ?",
+            schema, table.getName());
+    }
+
+    @Override
+    public String indexDdl(Connection conn, Index index) throws SQLException {
+        var schema = index.getSchema() != null ? index.getSchema().getName() : null;
+        if (schema == null) {
+            return queryString(conn, "SELECT DBMS_METADATA.GET_DDL('INDEX', ?) FROM DUAL", index.getName());
+        }
+        return queryString(conn, "SELECT DBMS_METADATA.GET_DDL('INDEX', ?, ?) FROM DUAL", index.getName(), schema);
+    }
+
+    /**
+     * The latest DDL time and number of objects. Truncating a table is DDL as well, so a truncated
+     * schema is snapshot again.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        var sql = "SELECT TO_CHAR(MAX(LAST_DDL_TIME), 'YYYY-MM-DD HH24:MI:SS') || '/' || COUNT(*)";
+        if (schema == null) {
+            return queryString(conn, sql + " FROM USER_OBJECTS");
+        }
+        return queryString(conn, sql + " FROM ALL_OBJECTS WHERE OWNER = ?", schema);
+    }
+
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        var using = new StringBuilder("(SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i != 0) {
+                using.append(',');
+            }
+            using.append("? ").append(columns.get(i));
+        }
+        using.append(" FROM DUAL) s");
+        return merge(table, using.toString(), columns, keyColumns);
+    }
+
     static final DatabaseSupport INSTANCE = new OracleSupport();
 
 }
@@ -2,12 +2,17 @@ package copydb.convert;
 
 import liquibase.database.Database;
 import liquibase.structure.core.Column;
+import liquibase.structure.core.Index;
+import liquibase.structure.core.Table;
 import org.postgresql.util.PGobject;
 
 import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 
 import static java.util.Map.entry;
@@ -44,7 +49,7 @@ public final class PostgresSupport extends GenericDatabaseSupport {
         String type = sourceColumn.getType().getTypeName();
         var reader = READERS.get(type);
         if (reader != null) {
-            return reader;
+            return numberReader(reader, sourceColumn);
         }
 
         return super.readerFor(source, sourceColumn);
@@ -54,7 +59,9 @@ public final class PostgresSupport extends GenericDatabaseSupport {
     public ColumnWriter<?> writerFor(Database target, Column targetColumn) {
         String targetType = targetColumn.getType().getTypeName();
         var writer = WRITERS.get(targetType);
-        if (writer != null) {
+        if (writer == NumberWriter.INSTANCE) {
+            return NumberWriter.forColumn(targetColumn);
+        } else if (writer != null) {
             return writer;
         }
 
@@ -65,6 +72,89 @@ public final class PostgresSupport extends GenericDatabaseSupport {
         return super.writerFor(target, targetColumn);
     }
 
+    @Override
+    protected int defaultFetchSize(Connection conn) {
+        return 1000;
+    }
+
+    /**
+     * The driver only uses a cursor, rather than reading the whole result into memory,
+     * when auto-commit is off and a fetch size is set.
+     */
+    @Override
+    public PreparedStatement prepareQuery(Connection conn, String sql, int fetchSize) throws SQLException {
+        if (conn.getAutoCommit()) {
+            conn.setAutoCommit(false);
+        }
+        return super.prepareQuery(conn, sql, fetchSize);
+    }
+
+    /**
+     * Row count estimated by the planner statistics, which is -1 if the table was never analyzed.
+     */
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        var schema = schemaName(table);
+        var name = schema != null ? "\"" + schema + "\".\"" + table.getName() + "\"" : "\"" + table.getName() + "\"";
+        return queryRowCount(conn, "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", name);
+    }
+
+    /**
+     * Load rows with {@code COPY FROM STDIN} unless a column type cannot be encoded as text.
+     */
+    @Override
+    public RowWriter bulkWriter(Connection conn, Table table, List<ColumnDescriptor<?, ?>> columns) throws SQLException {
+        return PostgresCopyWriter.create(conn, table, columns);
+    }
+
+    /**
+     * Parameters are counted with 16 bits in the extended query protocol.
+     */
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return rowsWithin(65535, columns);
+    }
+
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        return insertOnConflict(table, columns, keyColumns);
+    }
+
+    @Override
+    public String indexDdl(Connection conn, Index index) throws SQLException {
+        var schema = index.getSchema() != null ? index.getSchema().getName() : null;
+        var name = schema != null ? "\"" + schema + "\".\"" + index.getName() + "\"" : "\"" + index.getName() + "\"";
+        return queryString(conn, "SELECT pg_get_indexdef(to_regclass(?))", name);
+    }
+
+    /**
+     * A hash of the definitions of columns, defaults, constraints and indexes. Row versions of
+     * {@code pg_class} are not used, as truncating and vacuuming change them as well.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        var namespace = "\"" + schema + "\"";
+        return queryString(conn, "SELECT md5(string_agg(d, ',' ORDER BY d)) FROM ("
+            + "SELECT concat_ws(':', c.relname, c.relkind, a.attnum, a.attname, a.atttypid, a.atttypmod, a.attnotnull,"
+            + " pg_get_expr(ad.adbin, ad.adrelid)) AS d"
+            + " FROM pg_class c JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped"
+            + " LEFT JOIN pg_attrdef ad ON ad.adrelid = c.oid AND ad.adnum = a.attnum"
+            + " WHERE c.relnamespace = to_regnamespace(?)"
+            + " UNION ALL SELECT concat_ws(':', conrelid::regclass, conname, pg_get_constraintdef(oid))"
+            + " FROM pg_constraint WHERE connamespace = to_regnamespace(?)"
+            + " UNION ALL SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i JOIN pg_class c ON c.oid = i.indrelid"
+            + " WHERE c.relnamespace = to_regnamespace(?)) x", namespace, namespace, namespace);
+    }
+
+    /**
+     * Sums the first 64 bits of the MD5 of each row as text, the sum is numeric and does not overflow.
+     */
+    @Override
+    public String rangeHashSql(String table, List<String> columns) {
+        return "SELECT COUNT(*), SUM(('x' || SUBSTR(MD5(ROW(" + String.join(",", columns) + ")::text), 1, 16))::bit(64)::bigint)"
+            + " FROM " + table;
+    }
+
     static class JsonReader implements ColumnReader<String> {
 
         @Override
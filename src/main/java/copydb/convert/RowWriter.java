@@ -0,0 +1,28 @@
+package copydb.convert;
+
+import java.sql.SQLException;
+
+/**
+ * Writes rows of values converted by {@link ColumnDescriptor#read} to a target table.
+ */
+public interface RowWriter extends AutoCloseable {
+
+    /**
+     * Add a row to the current batch. The values array may be reused by the caller once this returns.
+     */
+    void addRow(Object[] values) throws SQLException;
+
+    /**
+     * Write all rows added since the last flush.
+     */
+    void flush() throws SQLException;
+
+    /**
+     * The statement rows are written with, for logging.
+     */
+    String getSql();
+
+    @Override
+    void close() throws SQLException;
+
+}
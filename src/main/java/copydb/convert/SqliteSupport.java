@@ -0,0 +1,70 @@
+package copydb.convert;
+
+import liquibase.structure.core.Column;
+import liquibase.structure.core.Table;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+public final class SqliteSupport extends GenericDatabaseSupport {
+
+    private SqliteSupport() {
+    }
+
+    /**
+     * Columns of any type may hold values of any class, which getters would silently convert.
+     */
+    @Override
+    protected ColumnReader<?> primitiveReader(Column column) {
+        return null;
+    }
+
+    /**
+     * Row count recorded by ANALYZE, the first number of the {@code sqlite_stat1} statistics.
+     */
+    @Override
+    public long estimateRowCount(Connection conn, Table table) {
+        try (var stmt = conn.prepareStatement("SELECT stat FROM sqlite_stat1 WHERE tbl = ? LIMIT 1")) {
+            stmt.setString(1, table.getName());
+            try (var rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getString(1) != null) {
+                    var stat = rs.getString(1);
+                    int end = stat.indexOf(' ');
+                    return Long.parseLong(end < 0 ? stat : stat.substring(0, end));
+                }
+            }
+        } catch (SQLException | NumberFormatException e) {
+            // Not analyzed
+        }
+        return -1;
+    }
+
+    /**
+     * The default {@code SQLITE_MAX_VARIABLE_NUMBER} since SQLite 3.32.
+     */
+    @Override
+    public int maxRowsPerInsert(int columns) {
+        return rowsWithin(32766, columns);
+    }
+
+    @Override
+    public String limitRows(String query, int rows) {
+        return query + " LIMIT " + rows;
+    }
+
+    @Override
+    public String upsertSql(String table, List<String> columns, List<String> keyColumns) {
+        return insertOnConflict(table, columns, keyColumns);
+    }
+
+    /**
+     * The schema version, incremented by SQLite whenever the schema changes.
+     */
+    @Override
+    public String schemaFingerprint(Connection conn, String schema) throws SQLException {
+        return queryString(conn, "PRAGMA schema_version");
+    }
+
+    static final DatabaseSupport INSTANCE = new SqliteSupport();
+}
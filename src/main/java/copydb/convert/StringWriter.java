@@ -25,10 +25,18 @@ public class StringWriter implements ColumnWriter<String> {
     }
 
     @Override
-    public String write(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
-        String tgt = convert(target, val);
-        stmt.setString(param, tgt);
-        return tgt;
+    public ColumnWriter<String> conversionFor(Class<?> type) {
+        return type == String.class ? (column, val) -> (String) val : null;
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return Lob.Binding.CHARACTER;
+    }
+
+    @Override
+    public void bind(Column target, String val, PreparedStatement stmt, int param) throws SQLException {
+        stmt.setString(param, val);
     }
 
     static final ColumnWriter<String> INSTANCE = new StringWriter();
@@ -0,0 +1,334 @@
+package copydb.convert;
+
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Parsing and formatting of UUIDs, hex and JDBC or ISO 8601 timestamps directly from characters and
+ * into bytes, without regular expressions or intermediate strings, for conversions done on every value.
+ * <p>
+ * Parsers take the common strict form of their format and return null for any other text, for the
+ * caller to fall back to the more lenient parsing of the JDK, which also reports the errors.
+ */
+final class TextCodec {
+
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private static final int[] POWERS_OF_TEN = {
+        1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    /**
+     * Values of hex digits by ASCII character, -1 for other characters. A lookup rather than comparisons,
+     * as the digits and letters of random values such as UUIDs make comparisons mispredicted.
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_VALUES[HEX[i]] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(HEX[i])] = (byte) i;
+        }
+    }
+
+    private TextCodec() {
+    }
+
+    /**
+     * @return value of a hex digit of either case, or -1 if the character is not one
+     */
+    static int hexDigit(char c) {
+        return c < 128 ? HEX_VALUES[c] : -1;
+    }
+
+    /**
+     * Parse hex digits of either case, two per byte.
+     *
+     * @return bytes or null if the text has an odd length or a character that is not a hex digit
+     */
+    static byte[] parseHex(CharSequence s) {
+        int n = s.length();
+        if ((n & 1) != 0) {
+            return null;
+        }
+
+        var bytes = new byte[n / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = hexDigit(s.charAt(2 * i));
+            int lo = hexDigit(s.charAt(2 * i + 1));
+            if ((hi | lo) < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((hi << 4) | lo);
+        }
+        return bytes;
+    }
+
+    /**
+     * Parse a UUID in its canonical form of 36 characters, hex digits of either case.
+     *
+     * @return UUID or null if the text is not in the canonical form
+     */
+    static UUID parseUuid(CharSequence s) {
+        if (!hasUuidDashes(s)) {
+            return null;
+        }
+        long time = hexBits(s, 0, 8);
+        long mid = hexBits(s, 9, 13);
+        long high = hexBits(s, 14, 18);
+        long clock = hexBits(s, 19, 23);
+        long node = hexBits(s, 24, 36);
+        if ((time | mid | high | clock | node) < 0) {
+            return null;
+        }
+        return new UUID(time << 32 | mid << 16 | high, clock << 48 | node);
+    }
+
+    /**
+     * Parse a UUID in its canonical form of 36 characters into its 16 bytes, as {@link Converters#uuidToBytes}.
+     *
+     * @return bytes or null if the text is not in the canonical form
+     */
+    static byte[] parseUuidBytes(CharSequence s) {
+        var uuid = parseUuid(s);
+        return uuid != null ? Converters.uuidToBytes(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) : null;
+    }
+
+    private static boolean hasUuidDashes(CharSequence s) {
+        return s.length() == 36 && s.charAt(8) == '-' && s.charAt(13) == '-' && s.charAt(18) == '-' && s.charAt(23) == '-';
+    }
+
+    /**
+     * Bits of up to 15 hex digits.
+     *
+     * @return bits or -1 if a character is not a hex digit
+     */
+    private static long hexBits(CharSequence s, int start, int end) {
+        long bits = 0;
+        int invalid = 0;
+        for (int i = start; i < end; i++) {
+            int digit = hexDigit(s.charAt(i));
+            invalid |= digit;
+            bits = (bits << 4) | (digit & 0xf);
+        }
+        return invalid < 0 ? -1 : bits;
+    }
+
+    /**
+     * Write the canonical form of a UUID as 36 ASCII bytes.
+     *
+     * @return offset after the written bytes
+     */
+    static int formatUuid(UUID uuid, byte[] dst, int off) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        off = formatHexBits(msb >>> 32, 8, dst, off);
+        dst[off++] = '-';
+        off = formatHexBits(msb >>> 16, 4, dst, off);
+        dst[off++] = '-';
+        off = formatHexBits(msb, 4, dst, off);
+        dst[off++] = '-';
+        off = formatHexBits(lsb >>> 48, 4, dst, off);
+        dst[off++] = '-';
+        return formatHexBits(lsb, 12, dst, off);
+    }
+
+    private static int formatHexBits(long bits, int digits, byte[] dst, int off) {
+        for (int i = digits - 1; i >= 0; i--) {
+            dst[off + i] = HEX[(int) bits & 0xf];
+            bits >>>= 4;
+        }
+        return off + digits;
+    }
+
+    /**
+     * The separator of the date and time of text starting with {@code yyyy-mm-dd?hh:mm:ss}.
+     *
+     * @return the character between date and time, or 0 if the text does not start with a date and time
+     */
+    static char dateTimeSeparator(CharSequence s) {
+        if (s.length() < 19
+            || digits(s, 0, 4) < 0 || s.charAt(4) != '-' || digits(s, 5, 7) < 0 || s.charAt(7) != '-'
+            || digits(s, 8, 10) < 0 || digits(s, 11, 13) < 0 || s.charAt(13) != ':'
+            || digits(s, 14, 16) < 0 || s.charAt(16) != ':' || digits(s, 17, 19) < 0) {
+            return 0;
+        }
+        return s.charAt(10);
+    }
+
+    /**
+     * Parse a timestamp in the JDBC escape format {@code yyyy-mm-dd hh:mm:ss[.f...]}, or with a T between
+     * the date and time as in ISO 8601, the same as {@link Timestamp#valueOf(String)}.
+     *
+     * @return timestamp or null if the text is not in the format or a field is out of range
+     */
+    @SuppressWarnings("deprecation")
+    static Timestamp parseTimestamp(CharSequence s) {
+        char separator = dateTimeSeparator(s);
+        if (separator != ' ' && separator != 'T') {
+            return null;
+        }
+
+        int n = s.length();
+        int nanos = 0;
+        if (n > 19) {
+            nanos = s.charAt(19) == '.' ? fraction(s, 20, n) : -1;
+            if (nanos < 0) {
+                return null;
+            }
+        }
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 7);
+        int day = digits(s, 8, 10);
+        int hour = digits(s, 11, 13);
+        int minute = digits(s, 14, 16);
+        int second = digits(s, 17, 19);
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        // The constructor Timestamp.valueOf uses, lenient about days past the end of the month as well
+        return new Timestamp(year - 1900, month - 1, day, hour, minute, second, nanos);
+    }
+
+    /**
+     * Parse a timestamp with an offset in the form {@code yyyy-mm-ddThh:mm:ss[.f...](Z|+hh:mm|-hh:mm)},
+     * or with a space between the date and time, the same as {@link OffsetDateTime#parse} with the T.
+     *
+     * @return timestamp or null if the text is not in the form or not a valid date, time and offset
+     */
+    static OffsetDateTime parseOffsetDateTime(CharSequence s) {
+        char separator = dateTimeSeparator(s);
+        if (separator != ' ' && separator != 'T') {
+            return null;
+        }
+
+        int n = s.length();
+        int end = n;
+        int offsetSeconds;
+        if (s.charAt(n - 1) == 'Z') {
+            end = n - 1;
+            offsetSeconds = 0;
+        } else if (n >= 25 && s.charAt(n - 3) == ':' && (s.charAt(n - 6) == '+' || s.charAt(n - 6) == '-')) {
+            end = n - 6;
+            int hours = digits(s, n - 5, n - 3);
+            int minutes = digits(s, n - 2, n);
+            if (hours < 0 || minutes < 0 || minutes > 59) {
+                return null;
+            }
+            offsetSeconds = (s.charAt(end) == '-' ? -1 : 1) * (hours * 3600 + minutes * 60);
+        } else {
+            return null;
+        }
+
+        int nanos = 0;
+        if (end > 19) {
+            nanos = s.charAt(19) == '.' ? fraction(s, 20, end) : -1;
+            if (nanos < 0) {
+                return null;
+            }
+        } else if (end < 19) {
+            return null;
+        }
+
+        try {
+            return OffsetDateTime.of(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10),
+                digits(s, 11, 13), digits(s, 14, 16), digits(s, 17, 19), nanos,
+                ZoneOffset.ofTotalSeconds(offsetSeconds));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a timestamp in the JDBC escape format as {@link Timestamp#toString()} does, with at least one
+     * digit of the fraction of the second and no trailing zeros, as up to 29 ASCII bytes.
+     *
+     * @return offset after the written bytes, or -1 if the year has other than four digits
+     */
+    @SuppressWarnings("deprecation")
+    static int formatTimestamp(Timestamp ts, byte[] dst, int off) {
+        int year = ts.getYear() + 1900;
+        if (year < 1000 || year > 9999) {
+            return -1;
+        }
+
+        off = formatDigits(year, 4, dst, off);
+        dst[off++] = '-';
+        off = formatDigits(ts.getMonth() + 1, 2, dst, off);
+        dst[off++] = '-';
+        off = formatDigits(ts.getDate(), 2, dst, off);
+        dst[off++] = ' ';
+        off = formatDigits(ts.getHours(), 2, dst, off);
+        dst[off++] = ':';
+        off = formatDigits(ts.getMinutes(), 2, dst, off);
+        dst[off++] = ':';
+        off = formatDigits(ts.getSeconds(), 2, dst, off);
+        dst[off++] = '.';
+
+        int nanos = ts.getNanos();
+        int digits = 9;
+        while (digits > 1 && nanos % 10 == 0) {
+            nanos /= 10;
+            digits--;
+        }
+        return formatDigits(nanos, digits, dst, off);
+    }
+
+    private static int formatDigits(int value, int digits, byte[] dst, int off) {
+        for (int i = digits - 1; i >= 0; i--) {
+            dst[off + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return off + digits;
+    }
+
+    /**
+     * @return value of the decimal digits in a range, or -1 if a character is not a digit
+     */
+    private static int digits(CharSequence s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    /**
+     * @return nanoseconds of one to nine digits of a fraction of a second, or -1 if not such digits
+     */
+    private static int fraction(CharSequence s, int start, int end) {
+        int n = end - start;
+        if (n < 1 || n > 9) {
+            return -1;
+        }
+        int value = digits(s, start, end);
+        return value < 0 ? -1 : value * POWERS_OF_TEN[9 - n];
+    }
+
+    /**
+     * A copy of a timestamp of a driver specific subclass as a plain {@link Timestamp}.
+     */
+    static Timestamp copyOf(Timestamp ts) {
+        var copy = new Timestamp(ts.getTime());
+        copy.setNanos(ts.getNanos());
+        return copy;
+    }
+
+    /**
+     * A copy of a date of a driver specific subclass as a plain {@link java.sql.Date} at the start of the day.
+     */
+    @SuppressWarnings("deprecation")
+    static java.sql.Date copyOf(java.sql.Date d) {
+        return new java.sql.Date(d.getYear(), d.getMonth(), d.getDate());
+    }
+}
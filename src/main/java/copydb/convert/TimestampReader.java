@@ -9,7 +9,6 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 public class TimestampReader implements ColumnReader<Timestamp> {
 
@@ -17,9 +16,6 @@ public class TimestampReader implements ColumnReader<Timestamp> {
         "oracle.sql.TIMESTAMP"
     );
 
-    static final Pattern JDBC_TIMESTAMP_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
-    static final Pattern ISO8601_TIMESTAMP_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
-
     @Override
     public Timestamp convert(Column column, Object val) throws SQLException {
         if (val instanceof Timestamp ts) {
@@ -31,19 +27,30 @@ public class TimestampReader implements ColumnReader<Timestamp> {
         } else if (val instanceof Instant ts) {
             return Timestamp.from(ts);
         } else if (TimestampReader.WELL_KNOWN_TIMESTAMP_TYPES.contains(val.getClass().getName())) {
-            return Timestamp.valueOf(val.toString());
+            return parse(val.toString());
         } else if (val instanceof String s) {
-            if (ISO8601_TIMESTAMP_PATTERN.matcher(s).find()) {
-                s = s.substring(0, 10) + ' ' + s.substring(11);
-            }
-            return Timestamp.valueOf(s);
+            return parse(s);
         }
         throw new IllegalArgumentException("Cannot convert " + val + " to timestamp");
     }
 
+    /**
+     * Parse a timestamp in the JDBC format, or with a T between the date and time as in ISO 8601.
+     */
+    static Timestamp parse(String s) {
+        var ts = TextCodec.parseTimestamp(s);
+        if (ts != null) {
+            return ts;
+        }
+        if (TextCodec.dateTimeSeparator(s) == 'T') {
+            s = s.substring(0, 10) + ' ' + s.substring(11);
+        }
+        return Timestamp.valueOf(s);
+    }
+
     @Override
-    public Timestamp get(Column column, ResultSet rs) throws SQLException {
-        return rs.getTimestamp(column.getName());
+    public Timestamp get(Column column, ResultSet rs, int index) throws SQLException {
+        return rs.getTimestamp(index);
     }
 
     static final ColumnReader<Timestamp> INSTANCE = new TimestampReader();
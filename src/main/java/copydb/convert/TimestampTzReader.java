@@ -4,7 +4,6 @@ import liquibase.structure.core.Column;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -13,63 +12,94 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Optional;
 
-import static copydb.convert.TimestampReader.ISO8601_TIMESTAMP_PATTERN;
-import static copydb.convert.TimestampReader.JDBC_TIMESTAMP_PATTERN;
 import static copydb.convert.TimestampReader.WELL_KNOWN_TIMESTAMP_TYPES;
 
+/**
+ * Reads timestamps with time zone as OffsetDateTime, or as Timestamp from drivers without OffsetDateTime support.
+ * <p>
+ * Not thread-safe, as it keeps to the getter that worked for the column, each column read has its own reader.
+ */
 public class TimestampTzReader implements ColumnReader<OffsetDateTime> {
 
+    private boolean offsetDateTimeRead;
+    private boolean timestampOnly;
+
     public static Optional<OffsetDateTime> toOffsetDateTime(Object val) {
+        return Optional.ofNullable(offsetDateTimeOf(val));
+    }
+
+    /**
+     * The same as {@link #toOffsetDateTime(Object)} without an Optional for each value.
+     *
+     * @return timestamp or null if the value cannot be converted
+     */
+    static OffsetDateTime offsetDateTimeOf(Object val) {
         if (val instanceof OffsetDateTime dt) {
-            return Optional.of(dt);
+            return dt;
         }
 
         if (val instanceof java.util.Date date) {
             int ofs = date.getTimezoneOffset();
-            return Optional.of(date.toInstant().atOffset(ZoneOffset.ofHoursMinutes(ofs / 60, ofs % 60)));
+            return date.toInstant().atOffset(ZoneOffset.ofHoursMinutes(ofs / 60, ofs % 60));
         } else if (val instanceof Instant ts) {
-            return Optional.of(ts.atZone(ZoneOffset.systemDefault()).toOffsetDateTime());
+            return ts.atZone(ZoneOffset.systemDefault()).toOffsetDateTime();
         } else if (val instanceof LocalDateTime dt) {
-            return Optional.of(dt.atZone(ZoneOffset.systemDefault()).toOffsetDateTime());
+            return dt.atZone(ZoneOffset.systemDefault()).toOffsetDateTime();
         } else if (val instanceof ZonedDateTime dt) {
-            return Optional.of(dt.toOffsetDateTime());
+            return dt.toOffsetDateTime();
         } else if (WELL_KNOWN_TIMESTAMP_TYPES.contains(val.getClass().getName())) {
-            var ts = Timestamp.valueOf(val.toString());
+            var ts = TimestampReader.parse(val.toString());
             int ofs = ts.getTimezoneOffset();
-            return Optional.of(ts.toInstant().atOffset(ZoneOffset.ofHoursMinutes(ofs / 60, ofs % 60)));
+            return ts.toInstant().atOffset(ZoneOffset.ofHoursMinutes(ofs / 60, ofs % 60));
         } else if (val instanceof String s) {
-            if (JDBC_TIMESTAMP_PATTERN.matcher(s).find()) {
-                s = s.replaceFirst(" ", "T");
-            } else if (!ISO8601_TIMESTAMP_PATTERN.matcher(s).find()) {
-                return Optional.empty();
+            var dt = TextCodec.parseOffsetDateTime(s);
+            if (dt != null) {
+                return dt;
+            }
+
+            char separator = TextCodec.dateTimeSeparator(s);
+            if (separator == ' ') {
+                s = s.substring(0, 10) + 'T' + s.substring(11);
+            } else if (separator != 'T') {
+                return null;
             }
 
             try {
-                return Optional.of(OffsetDateTime.parse(s));
+                return OffsetDateTime.parse(s);
             } catch (DateTimeParseException _ignored) {
                 // IGNORED
             }
         }
 
-        return Optional.empty();
+        return null;
     }
 
     @Override
     public OffsetDateTime convert(Column column, Object val) throws SQLException {
-        return toOffsetDateTime(val)
-            .orElseThrow(() -> new IllegalArgumentException("Cannot convert " + val + " to timestamp"));
+        var dt = offsetDateTimeOf(val);
+        if (dt == null) {
+            throw new IllegalArgumentException("Cannot convert " + val + " to timestamp");
+        }
+        return dt;
     }
 
+    /**
+     * Read as OffsetDateTime, going back to Timestamp for values the driver cannot read so, and only as
+     * Timestamp once a driver failed before reading any OffsetDateTime, as it then fails on every value.
+     */
     @Override
-    public OffsetDateTime get(Column column, ResultSet rs) throws SQLException {
-        try {
-            return rs.getObject(column.getName(), OffsetDateTime.class);
-        } catch (SQLException _ignored) {
-            // IGNORED
+    public OffsetDateTime get(Column column, ResultSet rs, int index) throws SQLException {
+        if (!timestampOnly) {
+            try {
+                var dt = rs.getObject(index, OffsetDateTime.class);
+                offsetDateTimeRead |= dt != null;
+                return dt;
+            } catch (SQLException _ignored) {
+                timestampOnly = !offsetDateTimeRead;
+            }
         }
 
-        return convert(column, rs.getTimestamp(column.getName()));
+        var ts = rs.getTimestamp(index);
+        return ts == null ? null : convert(column, ts);
     }
-
-    static final ColumnReader<OffsetDateTime> INSTANCE = new TimestampTzReader();
 }
@@ -8,8 +8,13 @@ public class TimestampTzWriter implements ColumnWriter<OffsetDateTime> {
 
     @Override
     public OffsetDateTime convert(Column column, Object val) {
-        return TimestampTzReader.toOffsetDateTime(val)
-            .orElseGet(() -> OffsetDateTime.parse(val.toString()));
+        var dt = TimestampTzReader.offsetDateTimeOf(val);
+        return dt != null ? dt : OffsetDateTime.parse(val.toString());
+    }
+
+    @Override
+    public ColumnWriter<OffsetDateTime> conversionFor(Class<?> type) {
+        return type == OffsetDateTime.class ? (column, val) -> (OffsetDateTime) val : null;
     }
 
     static final TimestampTzWriter INSTANCE = new TimestampTzWriter();
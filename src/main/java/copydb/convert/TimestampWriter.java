@@ -16,7 +16,7 @@ public class TimestampWriter implements ColumnWriter<Timestamp> {
         // TODO: transform to pattern matching in Java 21
         if (val instanceof Timestamp ts) {
             if (ts.getClass() != Timestamp.class) {
-                return Timestamp.valueOf(ts.toString());
+                return TextCodec.copyOf(ts);
             }
 
             return ts;
@@ -31,7 +31,9 @@ public class TimestampWriter implements ColumnWriter<Timestamp> {
         } else if (val instanceof java.util.Date date) {
             return new Timestamp(date.getTime());
         } else {
-            return Timestamp.valueOf(val.toString());
+            var s = val.toString();
+            var ts = TextCodec.parseTimestamp(s);
+            return ts != null ? ts : Timestamp.valueOf(s);
         }
     }
 
@@ -41,10 +43,20 @@ public class TimestampWriter implements ColumnWriter<Timestamp> {
     }
 
     @Override
-    public Timestamp write(Column target, Object val, PreparedStatement stmt, int param) throws SQLException {
-        var ts = convert(target, val);
-        stmt.setTimestamp(param, ts);
-        return ts;
+    public ColumnWriter<Timestamp> conversionFor(Class<?> type) {
+        if (type == Timestamp.class) {
+            return (column, val) -> (Timestamp) val;
+        } else if (type == LocalDateTime.class) {
+            return (column, val) -> Timestamp.valueOf((LocalDateTime) val);
+        } else if (type == OffsetDateTime.class) {
+            return (column, val) -> Timestamp.from(((OffsetDateTime) val).toInstant());
+        }
+        return null;
+    }
+
+    @Override
+    public void bind(Column target, Timestamp val, PreparedStatement stmt, int param) throws SQLException {
+        stmt.setTimestamp(param, val);
     }
 
     static final TimestampWriter INSTANCE = new TimestampWriter();
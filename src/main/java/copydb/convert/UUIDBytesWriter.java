@@ -4,7 +4,6 @@ import liquibase.structure.core.Column;
 
 import java.sql.Blob;
 import java.sql.SQLException;
-import java.util.HexFormat;
 import java.util.UUID;
 
 public class UUIDBytesWriter extends ByteArrayWriter {
@@ -13,14 +12,21 @@ public class UUIDBytesWriter extends ByteArrayWriter {
     public byte[] convert(Column column, Object val) throws SQLException {
         if (val instanceof String s) {
             if (s.length() == 36) {
+                var bytes = TextCodec.parseUuidBytes(s);
+                if (bytes != null) {
+                    return bytes;
+                }
                 try {
                     UUID uuid = UUID.fromString(s);
                     return Converters.uuidToBytes(uuid);
                 } catch (IllegalArgumentException _ignored) {
                     // IGNORED
                 }
-            } else if (s.length() == 32 && s.matches("[0-9a-fA-F]*")) {
-                return HexFormat.of().parseHex(s);
+            } else if (s.length() == 32) {
+                var bytes = TextCodec.parseHex(s);
+                if (bytes != null) {
+                    return bytes;
+                }
             }
         } else if (val instanceof UUID uuid) {
             return Converters.uuidToBytes(uuid);
@@ -33,5 +39,18 @@ public class UUIDBytesWriter extends ByteArrayWriter {
         throw new IllegalArgumentException("Cannot convert " + val + " to " + column);
     }
 
+    @Override
+    public ColumnWriter<byte[]> conversionFor(Class<?> type) {
+        if (type == UUID.class) {
+            return (column, val) -> Converters.uuidToBytes((UUID) val);
+        }
+        return super.conversionFor(type);
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return null;
+    }
+
     static final UUIDBytesWriter INSTANCE = new UUIDBytesWriter();
 }
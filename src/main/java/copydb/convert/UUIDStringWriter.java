@@ -19,5 +19,18 @@ class UUIDStringWriter extends StringWriter {
         throw new IllegalArgumentException("Cannot convert " + val + " to " + column);
     }
 
+    @Override
+    public ColumnWriter<String> conversionFor(Class<?> type) {
+        if (type == UUID.class) {
+            return (column, val) -> val.toString();
+        }
+        return super.conversionFor(type);
+    }
+
+    @Override
+    public Lob.Binding lobBinding() {
+        return null;
+    }
+
     static final UUIDStringWriter INSTANCE = new UUIDStringWriter();
 }
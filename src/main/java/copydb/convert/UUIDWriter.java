@@ -23,5 +23,15 @@ public class UUIDWriter implements ColumnWriter<UUID> {
         return toUUID(val);
     }
 
+    @Override
+    public ColumnWriter<UUID> conversionFor(Class<?> type) {
+        if (type == UUID.class) {
+            return (column, val) -> (UUID) val;
+        } else if (type == String.class) {
+            return (column, val) -> UUID.fromString((String) val);
+        }
+        return null;
+    }
+
     static final UUIDWriter INSTANCE = new UUIDWriter();
 }
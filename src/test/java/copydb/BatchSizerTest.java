@@ -0,0 +1,71 @@
+package copydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSizerTest {
+
+    @Test
+    void fixedIgnoresTimings() {
+        var sizer = BatchSizer.fixed(500);
+        sizer.record(500, 1);
+        sizer.record(500, Long.MAX_VALUE);
+        assertFalse(sizer.isAdaptive());
+        assertEquals(500, sizer.size());
+        assertEquals(0, sizer.getChanges());
+    }
+
+    @Test
+    void growsToTheMaximumWhileThroughputImproves() {
+        var sizer = BatchSizer.adaptive(100, 10, 5000, 0);
+        // 1 ms per batch and 1 µs per row, larger batches are always faster
+        run(sizer, 100, n -> 1_000_000 + n * 1_000L);
+        assertEquals(5000, sizer.size());
+    }
+
+    @Test
+    void settlesNearTheSizeOfBestThroughput() {
+        var sizer = BatchSizer.adaptive(100, 10, 100_000, 0);
+        // Rows get slower as batches grow, throughput is best at 2000 rows
+        run(sizer, 200, n -> 1_000_000 + n * 1_000L + (long) (n * (double) n / 4));
+        int settled = sizer.size();
+        assertTrue(settled >= 1000 && settled <= 4000, "Settled on " + settled);
+
+        int changes = sizer.getChanges();
+        run(sizer, 100, n -> 1_000_000 + n * 1_000L + (long) (n * (double) n / 4));
+        assertEquals(settled, sizer.size());
+        assertEquals(changes, sizer.getChanges());
+    }
+
+    @Test
+    void staysBelowTheLatencyLimit() {
+        var sizer = BatchSizer.adaptive(100, 10, 100_000, 10);
+        // 10 µs per row, batches of more than 900 rows exceed 10 ms
+        IntToLongFunction nanos = n -> 1_000_000 + n * 10_000L;
+        run(sizer, 100, nanos);
+        int settled = sizer.size();
+        assertTrue(nanos.applyAsLong(settled) <= 10_000_000, "Settled on " + settled);
+        assertTrue(nanos.applyAsLong(settled * 2) > 10_000_000, "Settled on " + settled);
+    }
+
+    @Test
+    void halvesSlowBatchesDownToTheMinimum() {
+        var sizer = BatchSizer.adaptive(1000, 50, 10_000, 10);
+        for (int i = 0; i < 10; i++) {
+            sizer.record(sizer.size(), 20_000_000);
+        }
+        assertEquals(50, sizer.size());
+    }
+
+    private static void run(BatchSizer sizer, int batches, IntToLongFunction nanos) {
+        for (int i = 0; i < batches; i++) {
+            int rows = sizer.size();
+            sizer.record(rows, nanos.applyAsLong(rows));
+        }
+    }
+}
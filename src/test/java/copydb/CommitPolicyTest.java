@@ -0,0 +1,51 @@
+package copydb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommitPolicyTest {
+
+    @Test
+    void batchCommitsEveryBatch() {
+        var commits = CommitPolicy.parse("batch").start();
+        assertTrue(commits.afterBatch(10));
+        assertFalse(commits.isPending());
+        assertTrue(commits.afterBatch(10));
+        assertFalse(commits.isPending());
+    }
+
+    @Test
+    void batchesCommitEveryNBatches() {
+        var commits = CommitPolicy.parse("batches:3").start();
+        assertFalse(commits.afterBatch(10));
+        assertFalse(commits.afterBatch(10));
+        assertTrue(commits.isPending());
+        assertTrue(commits.afterBatch(10));
+        assertFalse(commits.isPending());
+        assertFalse(commits.afterBatch(10));
+        assertTrue(commits.isPending());
+    }
+
+    @Test
+    void bytesCommitOnceTheSizeIsReached() {
+        var commits = CommitPolicy.parse("bytes:1K").start();
+        assertFalse(commits.afterBatch(1000));
+        assertTrue(commits.isPending());
+        assertTrue(commits.afterBatch(24));
+        assertFalse(commits.isPending());
+    }
+
+    @Test
+    void tableAndRunNeverCommitAfterBatches() {
+        for (var policy : new String[]{"table", "run"}) {
+            var commits = CommitPolicy.parse(policy).start();
+            assertFalse(commits.afterBatch(10));
+            assertFalse(commits.afterBatch(10));
+            assertTrue(commits.isPending());
+        }
+        assertTrue(CommitPolicy.parse("table").commitsTable());
+        assertFalse(CommitPolicy.parse("run").commitsTable());
+    }
+}
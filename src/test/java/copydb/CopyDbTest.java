@@ -0,0 +1,204 @@
+package copydb;
+
+import liquibase.exception.LiquibaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Copies between in-memory H2 databases.
+ */
+class CopyDbTest {
+
+    private static final String SOURCE = "jdbc:h2:mem:copydb-source;DB_CLOSE_DELAY=-1";
+    private static final String TARGET = "jdbc:h2:mem:copydb-target;DB_CLOSE_DELAY=-1";
+
+    private Connection source;
+    private Connection target;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        source = DriverManager.getConnection(SOURCE, "sa", "");
+        target = DriverManager.getConnection(TARGET, "sa", "");
+    }
+
+    @AfterEach
+    void dropDatabases() throws SQLException {
+        for (var conn : new Connection[]{source, target}) {
+            try (var stmt = conn.createStatement()) {
+                stmt.execute("DROP ALL OBJECTS");
+            }
+            conn.close();
+        }
+    }
+
+    @Test
+    void lastPartialBatchIsCommittedWhenALaterTableFails() throws SQLException {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE a (id INT PRIMARY KEY, v VARCHAR(10))");
+            // Rows of b fail to insert in the target, where v is required
+            execute(conn, "CREATE TABLE b (id INT PRIMARY KEY, a_id INT REFERENCES a (id), v VARCHAR(10)"
+                + (conn == target ? " NOT NULL" : "") + ")");
+        }
+        execute(source, "INSERT INTO a SELECT x, 'a' || x FROM SYSTEM_RANGE(1, 25)");
+        execute(source, "INSERT INTO b VALUES (1, 1, NULL)");
+
+        for (var policy : new String[]{"batch", "batches:2", "table"}) {
+            for (boolean pipeline : new boolean[]{false, true}) {
+                var copyDb = copyDb();
+                copyDb.setCommitPolicy(policy);
+                copyDb.setPipeline(pipeline);
+                assertThrows(LiquibaseException.class, copyDb::copy);
+                assertEquals(25, count("a"), policy + (pipeline ? " pipelined" : ""));
+                execute(target, "DELETE FROM a");
+            }
+        }
+    }
+
+    @Test
+    void watermarkColumnIsEscaped(@TempDir Path dir) throws Exception {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE c (id INT PRIMARY KEY, \"VALUE\" TIMESTAMP)");
+        }
+        execute(source, "INSERT INTO c VALUES (1, TIMESTAMP '2024-01-01 00:00:00'), (2, TIMESTAMP '2024-01-02 00:00:00')");
+        copyIncrementally(dir);
+        assertEquals(2, count("c"));
+
+        execute(source, "INSERT INTO c VALUES (3, TIMESTAMP '2024-01-03 00:00:00')");
+        execute(target, "DELETE FROM c WHERE id = 1");
+        copyIncrementally(dir);
+        // Only rows from the watermark on are copied again
+        assertEquals(2, count("c"));
+        assertEquals(1, count("c WHERE id = 3"));
+    }
+
+    @Test
+    void tablesAreVerifiedInRangesOfAnEscapedKey(@TempDir Path dir) throws Exception {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE c (\"VALUE\" INT PRIMARY KEY, v VARCHAR(10))");
+            execute(conn, "INSERT INTO c SELECT x, 'v' || x FROM SYSTEM_RANGE(1, 100)");
+        }
+        var report = dir.resolve("report.json");
+        var copyDb = copyDb();
+        copyDb.setChunkThreshold(1);
+        copyDb.setChunks(4);
+        copyDb.setVerifyReport(report.toString());
+        copyDb.verify();
+        assertEquals(4, Files.readAllLines(report).size());
+
+        execute(target, "UPDATE c SET v = 'changed' WHERE \"VALUE\" = 60");
+        assertThrows(LiquibaseException.class, copyDb::verify);
+        assertEquals(1, Files.readAllLines(report).stream().filter(line -> line.contains("\"match\":false")).count());
+    }
+
+    @Test
+    void tablesAreSynchronizedByAnEscapedKey() throws Exception {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE c (\"VALUE\" INT PRIMARY KEY, v VARCHAR(10))");
+            execute(conn, "INSERT INTO c SELECT x, 'v' || x FROM SYSTEM_RANGE(1, 3000)");
+        }
+        execute(target, "DELETE FROM c WHERE \"VALUE\" = 10");
+        execute(target, "UPDATE c SET v = 'changed' WHERE \"VALUE\" = 1500");
+        execute(target, "INSERT INTO c VALUES (3001, 'extra')");
+
+        var copyDb = copyDb();
+        copyDb.setSync(true);
+        copyDb.copy();
+        assertEquals(3000, count("c"));
+        assertEquals(1, count("c WHERE \"VALUE\" = 10"));
+        assertEquals(1, count("c WHERE \"VALUE\" = 1500 AND v = 'v1500'"));
+    }
+
+    @Test
+    void failedCopyIsResumedFromTheCheckpoint(@TempDir Path dir) throws Exception {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE a (id INT PRIMARY KEY)");
+            // Rows of b fail to insert in the target from id 57 on
+            execute(conn, "CREATE TABLE b (id INT PRIMARY KEY, a_id INT REFERENCES a (id)"
+                + (conn == target ? ", CONSTRAINT b_id CHECK (id < 57)" : "") + ")");
+        }
+        execute(source, "INSERT INTO a SELECT x FROM SYSTEM_RANGE(1, 10)");
+        execute(source, "INSERT INTO b SELECT x, 1 FROM SYSTEM_RANGE(1, 100)");
+
+        var checkpoint = dir.resolve("checkpoint.properties").toString();
+        var copyDb = copyDb();
+        copyDb.setPageSize(20);
+        copyDb.setCheckpoint(checkpoint);
+        assertThrows(LiquibaseException.class, copyDb::copy);
+        assertEquals(10, count("a"));
+        assertEquals(50, count("b"));
+
+        // a is done and not copied again, b is copied again or continued from its last key
+        execute(target, "ALTER TABLE b DROP CONSTRAINT b_id");
+        execute(source, "INSERT INTO a VALUES (11)");
+        copyDb = copyDb();
+        copyDb.setPageSize(20);
+        copyDb.setCheckpoint(checkpoint);
+        copyDb.setResume(true);
+        copyDb.copy();
+        assertEquals(10, count("a"));
+        assertEquals(100, count("b"));
+        assertEquals(100, count("(SELECT DISTINCT id FROM b)"));
+    }
+
+    @Test
+    void resumingWithoutACheckpointKeepsTheTarget(@TempDir Path dir) throws Exception {
+        for (var conn : new Connection[]{source, target}) {
+            execute(conn, "CREATE TABLE a (id INT PRIMARY KEY)");
+        }
+        execute(source, "INSERT INTO a SELECT x FROM SYSTEM_RANGE(1, 10)");
+        execute(target, "INSERT INTO a SELECT x FROM SYSTEM_RANGE(1, 5)");
+
+        var copyDb = copyDb();
+        copyDb.setCheckpoint(dir.resolve("missing.properties").toString());
+        copyDb.setResume(true);
+        assertThrows(IllegalStateException.class, copyDb::copy);
+        assertEquals(5, count("a"));
+    }
+
+    private void copyIncrementally(Path dir) throws Exception {
+        var copyDb = copyDb();
+        copyDb.setIncremental("VALUE");
+        copyDb.setWatermarks(dir.resolve("watermarks.properties").toString());
+        copyDb.copy();
+    }
+
+    private CopyDb copyDb() {
+        var src = new JdbcProperties();
+        src.setUrl(SOURCE);
+        src.setUsername("sa");
+        src.setPassword("");
+        src.setReadonly(true);
+        var dst = new JdbcProperties();
+        dst.setUrl(TARGET);
+        dst.setUsername("sa");
+        dst.setPassword("");
+        var copyDb = new CopyDb(src, dst);
+        copyDb.setBatchSize(10);
+        copyDb.setAdaptiveBatchSize(false);
+        return copyDb;
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (var stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private long count(String table) throws SQLException {
+        try (var stmt = target.createStatement(); var rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package copydb;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeferredIndexesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void indexesAreKeptUntilRecreated() throws Exception {
+        var file = dir.resolve("indexes.sql");
+        var indexes = DeferredIndexes.load(file);
+        indexes.add("a", "CREATE INDEX a_x ON a (x)");
+        indexes.add("a", "CREATE INDEX a_y\n  ON a (y)");
+        indexes.add("b", "CREATE INDEX b_x ON b (x)");
+        indexes.add("a", "CREATE INDEX a_x ON a (x)");
+        indexes.save();
+        assertEquals(3, indexes.size());
+
+        var byTable = DeferredIndexes.load(file).byTable();
+        assertEquals(Map.of(
+            "a", List.of("CREATE INDEX a_x ON a (x)", "CREATE INDEX a_y ON a (y)"),
+            "b", List.of("CREATE INDEX b_x ON b (x)")), byTable);
+
+        // A table whose indexes are partly recreated keeps the rest
+        indexes.recreated("a", "CREATE INDEX a_x ON a (x)");
+        assertEquals(Map.of(
+            "a", List.of("CREATE INDEX a_y ON a (y)"),
+            "b", List.of("CREATE INDEX b_x ON b (x)")), DeferredIndexes.load(file).byTable());
+
+        indexes.recreated("a", "CREATE INDEX a_y ON a (y)");
+        assertEquals(List.of("b"), List.copyOf(DeferredIndexes.load(file).byTable().keySet()));
+        indexes.recreated("b", "CREATE INDEX b_x ON b (x)");
+        assertTrue(indexes.isEmpty());
+        assertFalse(Files.exists(file));
+    }
+}
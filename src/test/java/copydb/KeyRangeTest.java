@@ -0,0 +1,143 @@
+package copydb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class KeyRangeTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:copydb-keys;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    void integralKeysSplitIntoEqualWidths() {
+        assertEquals(List.of(25L, 50L, 75L), KeyRange.equalWidthBoundaries(0, 100, 4));
+        assertEquals(List.of(4L, 7L), KeyRange.equalWidthBoundaries(1L, 10L, 3));
+        assertEquals(List.of(-5L, 0L, 5L), KeyRange.equalWidthBoundaries((short) -10, (short) 10, 4));
+        assertEquals(List.of(-4L, 0L, 5L), KeyRange.equalWidthBoundaries(new BigDecimal("-9.00"), new BigDecimal("10.00"), 4));
+    }
+
+    @Test
+    void integralKeysBeyondLongStayExact() {
+        var max = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(4));
+        var boundaries = KeyRange.equalWidthBoundaries(BigInteger.ZERO, max, 4);
+        assertEquals(List.of(Long.MAX_VALUE, BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1),
+            BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(3))), boundaries);
+    }
+
+    @Test
+    void closeIntegralKeysGiveFewerBoundaries() {
+        assertEquals(List.of(0L, 1L, 1L), KeyRange.equalWidthBoundaries(0, 2, 4));
+        assertEquals(List.of(), KeyRange.equalWidthBoundaries(5, 5, 4));
+    }
+
+    @Test
+    void fractionalKeysSplitBelowTheirScale() {
+        assertEquals(List.of(new BigDecimal("0.25"), new BigDecimal("0.5"), new BigDecimal("0.75")),
+            KeyRange.equalWidthBoundaries(0.0, 1.0, 4).stream().map(b -> ((BigDecimal) b).stripTrailingZeros()).toList());
+        assertEquals(99, KeyRange.equalWidthBoundaries(0.0, 1.0, 100).stream().distinct().count());
+    }
+
+    @Test
+    void rangesCoverAllRowsOnce() throws SQLException {
+        execute("CREATE TABLE t (id BIGINT PRIMARY KEY)");
+        execute("INSERT INTO t SELECT x FROM SYSTEM_RANGE(1, 1000)");
+
+        var ranges = KeyRange.split(conn, "t", "id", "id", 4);
+        assertEquals(4, ranges.size());
+        assertNull(ranges.get(0).lower);
+        assertNull(ranges.get(3).upper);
+        long rows = 0;
+        for (var range : ranges) {
+            rows += count(range);
+        }
+        assertEquals(1000, rows);
+
+        // Sub ranges stay within the range split
+        var sub = ranges.get(1).split(conn, "t", "id", 3);
+        assertEquals(ranges.get(1).lower, sub.get(0).lower);
+        assertEquals(ranges.get(1).upper, sub.get(sub.size() - 1).upper);
+        assertEquals(count(ranges.get(1)), sub.stream().mapToLong(this::count).sum());
+    }
+
+    @Test
+    void closeKeysAreNotSplitIntoEmptyRanges() throws SQLException {
+        execute("CREATE TABLE t (id INT PRIMARY KEY)");
+        execute("INSERT INTO t VALUES (1), (2), (3)");
+
+        var ranges = KeyRange.split(conn, "t", "id", "id", 8);
+        assertEquals(List.of(1L, 1L, 1L), ranges.stream().map(this::count).toList());
+    }
+
+    @Test
+    void nonFiniteKeysSplitAtQuantiles() throws SQLException {
+        execute("CREATE TABLE t (v DOUBLE PRECISION)");
+        execute("INSERT INTO t SELECT x FROM SYSTEM_RANGE(1, 99)");
+        execute("INSERT INTO t VALUES ('Infinity')");
+
+        var ranges = KeyRange.split(conn, "t", "v", "v", 4);
+        assertEquals(4, ranges.size());
+        assertEquals(List.of(25L, 25L, 25L, 25L), ranges.stream().map(this::count).toList());
+    }
+
+    @Test
+    void escapedKeysAreSplit() throws SQLException {
+        // VALUE is a keyword in H2, so the key is only usable quoted
+        execute("CREATE TABLE t (\"VALUE\" INT PRIMARY KEY)");
+        execute("INSERT INTO t SELECT x FROM SYSTEM_RANGE(1, 100)");
+        var ranges = KeyRange.split(conn, "t", "VALUE", "\"VALUE\"", 4);
+        assertEquals("VALUE", ranges.get(0).column);
+        assertEquals(List.of(25L, 25L, 25L, 25L), ranges.stream().map(r -> count(r, "\"VALUE\"")).toList());
+
+        execute("DROP TABLE t");
+        execute("CREATE TABLE t (\"VALUE\" VARCHAR(10) PRIMARY KEY)");
+        execute("INSERT INTO t SELECT 'k' || (1000 + x) FROM SYSTEM_RANGE(1, 100)");
+        ranges = KeyRange.split(conn, "t", "VALUE", "\"VALUE\"", 4);
+        assertEquals(List.of(25L, 25L, 25L, 25L), ranges.stream().map(r -> count(r, "\"VALUE\"")).toList());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (var stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private long count(KeyRange range) {
+        return count(range, range.column);
+    }
+
+    private long count(KeyRange range, String key) {
+        var predicate = range.predicate(key);
+        try (var stmt = conn.prepareStatement("SELECT COUNT(*) FROM t" + (predicate != null ? " WHERE " + predicate : ""))) {
+            range.bind(stmt, 1);
+            try (var rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
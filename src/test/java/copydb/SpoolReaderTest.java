@@ -0,0 +1,268 @@
+package copydb;
+
+import copydb.convert.ColumnDescriptor;
+import liquibase.structure.core.Column;
+import liquibase.structure.core.DataType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpoolReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void everyValueRoundTrips() throws Exception {
+        var values = new Object[]{
+            null,
+            "text \u00e9\u20ac\uD83D\uDE00",
+            "",
+            new byte[]{0, 1, (byte) 0xff},
+            Long.MIN_VALUE,
+            Integer.MAX_VALUE,
+            (short) -2,
+            (byte) 7,
+            -0.5,
+            1.25f,
+            new BigDecimal("123.4500"),
+            new BigDecimal("-1E+5"),
+            new BigDecimal("0"),
+            new BigInteger("-123456789012345678901234567890"),
+            true,
+            false,
+            Timestamp.valueOf("2024-06-15 12:34:56.123456789"),
+            java.sql.Date.valueOf("1999-12-31"),
+            java.sql.Time.valueOf("23:59:58"),
+            OffsetDateTime.of(2024, 6, 15, 12, 34, 56, 789, ZoneOffset.ofHoursMinutes(5, 30)),
+            OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-8)),
+            OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 1, ZoneOffset.UTC),
+            LocalDateTime.of(1900, 2, 28, 1, 2, 3, 4),
+            LocalDate.of(-1, 1, 1),
+            LocalTime.of(0, 0, 0, 1),
+            new UUID(0x123e4567e89b12d3L, 0xa456426614174000L),
+        };
+        var file = write(values.length, List.<Object[]>of(values));
+
+        try (var reader = SpoolReader.open(file)) {
+            assertEquals("h2", reader.getDatabase());
+            assertEquals("t", reader.getTable().getName());
+            assertEquals(values.length, reader.getTable().getColumns().size());
+            assertEquals(1, reader.getRows());
+
+            var rows = read(reader.whole());
+            assertEquals(1, rows.size());
+            var read = rows.get(0);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] instanceof byte[] b) {
+                    assertArrayEquals(b, (byte[]) read[i]);
+                } else {
+                    // Equal including the scale of decimals and the offset of date times
+                    assertEquals(values[i], read[i], "Value " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    void otherTypesAreSpooledAsText() throws Exception {
+        var file = write(2, List.<Object[]>of(new Object[]{new StringBuilder("sb"), new java.util.Date(0)}));
+        try (var reader = SpoolReader.open(file)) {
+            var row = read(reader.whole()).get(0);
+            assertEquals("sb", row[0]);
+            assertEquals(new Timestamp(0), row[1]);
+        }
+    }
+
+    @Test
+    void valuesAreLimitedInLength() throws Exception {
+        var largest = new byte[SpoolWriter.MAX_VALUE_BYTES];
+        var file = write(1, List.<Object[]>of(new Object[]{largest}));
+        try (var reader = SpoolReader.open(file)) {
+            assertEquals(largest.length, ((byte[]) read(reader.whole()).get(0)[0]).length);
+        }
+
+        try (var writer = new SpoolWriter(dir.resolve("large.spool"), "h2", "t", columns(1))) {
+            var e = assertThrows(IOException.class, () -> writer.addRow(new Object[]{new byte[largest.length + 1]}));
+            assertTrue(e.getMessage().startsWith("Cannot spool a value of " + (largest.length + 1) + " bytes"), e.getMessage());
+            assertThrows(IOException.class, () -> writer.addRow(new Object[]{"\u00e9".repeat(largest.length / 2 + 1)}));
+        }
+    }
+
+    @Test
+    void columnsAreDescribed() throws Exception {
+        var file = dir.resolve("t.spool");
+        var type = new DataType("DECIMAL");
+        type.setColumnSize(10);
+        type.setDecimalDigits(2);
+        var column = new Column("amount");
+        column.setType(type);
+        try (var writer = new SpoolWriter(file, "h2", "t", List.of(column))) {
+            writer.finish();
+        }
+
+        try (var reader = SpoolReader.open(file)) {
+            var read = reader.getTable().getColumns().get(0);
+            assertEquals("amount", read.getName());
+            assertEquals("DECIMAL", read.getType().getTypeName());
+            assertEquals(10, read.getType().getColumnSize());
+            assertEquals(2, read.getType().getDecimalDigits());
+            assertEquals(0, reader.getRows());
+            assertEquals(List.of(), read(reader.whole()));
+        }
+    }
+
+    @Test
+    void partsSplitAtChunkBoundaries() throws Exception {
+        // Rows of about 64 KiB, so that chunks hold about 64 rows
+        var text = "x".repeat(64 << 10);
+        var rows = new ArrayList<Object[]>();
+        for (long i = 0; i < 500; i++) {
+            rows.add(new Object[]{i, text});
+        }
+        var file = write(2, rows);
+
+        try (var reader = SpoolReader.open(file)) {
+            int chunks = reader.whole().to();
+            assertTrue(chunks >= 7, "Chunks " + chunks);
+            assertEquals(500, reader.getRows());
+
+            assertEquals(List.of(reader.whole()), reader.split(1));
+            assertEquals(chunks, reader.split(1000).size());
+            for (int count : new int[]{2, 3, 4, chunks}) {
+                var parts = reader.split(count);
+                assertEquals(count, parts.size());
+                int from = 0;
+                long next = 0;
+                for (var part : parts) {
+                    assertEquals(from, part.from());
+                    assertTrue(part.to() > part.from());
+                    var partRows = read(part);
+                    assertEquals(part.rows(), partRows.size());
+                    for (var row : partRows) {
+                        assertEquals(next++, row[0]);
+                    }
+                    from = part.to();
+                }
+                assertEquals(chunks, from);
+                assertEquals(500, next);
+                assertTrue(parts.stream().allMatch(p -> p.rows() >= 500 / count / 2), "Unbalanced " + parts);
+            }
+        }
+    }
+
+    @Test
+    void checksumMismatchIsRejected() throws Exception {
+        var file = write(1, List.<Object[]>of(new Object[]{"value"}));
+        var header = headerLength(1);
+        try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Checksum of the first chunk
+            raf.seek(header + 12);
+            int checksum = raf.readInt();
+            raf.seek(header + 12);
+            raf.writeInt(checksum ^ 1);
+        }
+
+        try (var reader = SpoolReader.open(file)) {
+            var e = assertThrows(UncheckedIOException.class, () -> read(reader.whole()));
+            assertTrue(e.getCause().getMessage().startsWith("Corrupt chunk 1 of 1"), e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws Exception {
+        var file = write(1, List.<Object[]>of(new Object[]{"value"}, new Object[]{"more"}));
+        var content = Files.readAllBytes(file);
+        for (int length : new int[]{content.length - 1, content.length - 12, headerLength(1) + 8, 6}) {
+            Files.write(file, Arrays.copyOf(content, length));
+            assertThrows(IOException.class, () -> SpoolReader.open(file).close(), "Length " + length);
+        }
+    }
+
+    @Test
+    void otherFilesAreRejected() throws Exception {
+        var file = dir.resolve("other");
+        Files.writeString(file, "not a spool file");
+        var e = assertThrows(IOException.class, () -> SpoolReader.open(file));
+        assertTrue(e.getMessage().startsWith("Not a spool file"), e.getMessage());
+    }
+
+    /**
+     * Length of the header before the first chunk of a file with the given number of columns.
+     */
+    private int headerLength(int columns) throws IOException {
+        var file = dir.resolve("empty.spool");
+        try (var writer = new SpoolWriter(file, "h2", "t", columns(columns))) {
+            writer.finish();
+        }
+        // Without the end of zero rows and the total
+        return (int) Files.size(file) - 12;
+    }
+
+    private Path write(int columns, List<Object[]> rows) throws IOException {
+        var file = dir.resolve("t.spool");
+        try (var writer = new SpoolWriter(file, "h2", "t", columns(columns))) {
+            for (var row : rows) {
+                writer.addRow(row);
+            }
+            writer.finish();
+            assertEquals(rows.size(), writer.getRows());
+        }
+        return file;
+    }
+
+    private static List<Column> columns(int count) {
+        var columns = new ArrayList<Column>();
+        for (int i = 0; i < count; i++) {
+            var column = new Column("c" + i);
+            column.setType(new DataType("VARCHAR"));
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /**
+     * Read the rows of a part as they are in the file.
+     */
+    private static List<Object[]> read(SpoolReader.Part part) throws SQLException {
+        var columns = part.reader().getTable().getColumns();
+        var converters = new ArrayList<ColumnDescriptor<?, ?>>();
+        for (var column : columns) {
+            converters.add(new ColumnDescriptor<>(column, column, (c, v) -> v, (c, v) -> v));
+        }
+
+        var rows = new ArrayList<Object[]>();
+        try (var source = part.open(converters)) {
+            var values = new Object[columns.size()];
+            while (source.next(values)) {
+                rows.add(values.clone());
+            }
+            assertFalse(source.next(values));
+        }
+        return rows;
+    }
+}
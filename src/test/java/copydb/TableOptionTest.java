@@ -0,0 +1,34 @@
+package copydb;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableOptionTest {
+
+    @Test
+    void tableValuesOverrideTheDefault() {
+        var option = new TableOption<>(100);
+        option.load("10000,BIGTAB=1000", Integer::parseInt);
+        assertEquals(10000, option.get("other"));
+        assertEquals(1000, option.get("bigtab"));
+        assertTrue(option.isSet("BigTab"));
+        assertFalse(option.isSet("other"));
+    }
+
+    @Test
+    void mapLeavesTheOptionUnchanged() {
+        var option = new TableOption<>(CommitPolicy.parse("run"));
+        option.load("a=batch,b=run", CommitPolicy::parse);
+        var mapped = option.map(p -> p.commitsTable() ? p : CommitPolicy.TABLE);
+
+        assertEquals(CommitPolicy.TABLE, mapped.getDefault());
+        assertEquals(CommitPolicy.Kind.BATCH, mapped.get("a").kind);
+        assertEquals(CommitPolicy.TABLE, mapped.get("b"));
+        assertTrue(mapped.isSet("b"));
+        assertEquals(CommitPolicy.Kind.RUN, option.getDefault().kind);
+        assertEquals(CommitPolicy.Kind.RUN, option.get("b").kind);
+    }
+}
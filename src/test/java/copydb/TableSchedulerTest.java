@@ -0,0 +1,128 @@
+package copydb;
+
+import liquibase.structure.core.Table;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TableSchedulerTest {
+
+    private final CopyTask a = task("a");
+    private final CopyTask b = task("b");
+    private final CopyTask c = task("c");
+
+    @Test
+    void tablesAreHandedOutInOrder() throws InterruptedException {
+        var scheduler = new TableScheduler(List.of(a, b, c));
+        assertSame(a, scheduler.take());
+        assertSame(b, scheduler.take());
+        assertSame(c, scheduler.take());
+        assertNull(scheduler.take());
+    }
+
+    @Test
+    void dependentTableWaitsForItsDependency() throws Exception {
+        var scheduler = new TableScheduler(List.of(a, b));
+        scheduler.addDependency(a, b);
+        assertSame(b, scheduler.take());
+
+        var next = take(scheduler);
+        Thread.sleep(100);
+        assertFalse(next.isDone());
+        assertSame(b, scheduler.done(b));
+        assertSame(a, next.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cycleIsBrokenOnceNothingElseIsRunning() throws Exception {
+        var scheduler = new TableScheduler(List.of(a, b, c));
+        scheduler.addDependency(a, b);
+        scheduler.addDependency(b, a);
+        assertSame(c, scheduler.take());
+
+        // Copying c may not complete the cycle, so it is not broken yet
+        var next = take(scheduler);
+        Thread.sleep(100);
+        assertFalse(next.isDone());
+        scheduler.done(c);
+        assertSame(a, next.get(10, TimeUnit.SECONDS));
+
+        // The rest of the cycle waits for the table copied first
+        next = take(scheduler);
+        Thread.sleep(100);
+        assertFalse(next.isDone());
+        scheduler.done(a);
+        assertSame(b, next.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void selfReferenceIsNoDependency() throws InterruptedException {
+        var scheduler = new TableScheduler(List.of(a));
+        scheduler.addDependency(a, a);
+        assertSame(a, scheduler.take());
+    }
+
+    @Test
+    void dependencyOrderBreaksCyclesInTheOrderAdded() {
+        var scheduler = new TableScheduler(List.of(a, b, c));
+        scheduler.addDependency(a, c);
+        assertEquals(List.of(b, c, a), scheduler.dependencyOrder());
+
+        scheduler.addDependency(b, a);
+        scheduler.addDependency(c, b);
+        assertEquals(List.of(a, b, c), scheduler.dependencyOrder());
+    }
+
+    @Test
+    void chunksAreHandedOutFirstAndCompleteTheirTable() throws InterruptedException {
+        var scheduler = new TableScheduler(List.of(a, b, c));
+        scheduler.addDependency(b, a);
+        assertSame(a, scheduler.take());
+        var first = a.chunk(new KeyRange("id", null, 10L), 0, 2);
+        var second = a.chunk(new KeyRange("id", 10L, null), 1, 2);
+        scheduler.split(a, List.of(first, second));
+
+        assertSame(first, scheduler.take());
+        assertSame(second, scheduler.take());
+        assertSame(c, scheduler.take());
+        assertNull(scheduler.done(second));
+        assertSame(a, scheduler.done(first));
+        assertSame(b, scheduler.take());
+    }
+
+    @Test
+    void abortStopsHandingOutTables() throws Exception {
+        var scheduler = new TableScheduler(List.of(a, b));
+        scheduler.addDependency(b, a);
+        assertSame(a, scheduler.take());
+
+        var next = take(scheduler);
+        scheduler.abort();
+        assertNull(next.get(10, TimeUnit.SECONDS));
+    }
+
+    private static CompletableFuture<CopyTask> take(TableScheduler scheduler) {
+        var future = new CompletableFuture<CopyTask>();
+        var thread = new Thread(() -> {
+            try {
+                future.complete(scheduler.take());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    private static CopyTask task(String name) {
+        return new CopyTask(new Table(null, null, name), new Table(null, null, name));
+    }
+}
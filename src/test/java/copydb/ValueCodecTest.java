@@ -0,0 +1,48 @@
+package copydb;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValueCodecTest {
+
+    @Test
+    void valuesRoundTrip() {
+        assertEquals(42L, roundTrip(42));
+        assertEquals(7L, roundTrip((byte) 7));
+        assertEquals(new BigDecimal("12345678901234567890.5"), roundTrip(new BigDecimal("12345678901234567890.5")));
+        var uuid = UUID.randomUUID();
+        assertEquals(uuid, roundTrip(uuid));
+        var ts = Timestamp.valueOf("2024-02-29 23:59:59.123456789");
+        assertEquals(ts, roundTrip(ts));
+        var odt = OffsetDateTime.parse("2024-01-01T10:00:00.5+02:00");
+        assertEquals(odt, roundTrip(odt));
+        assertEquals(java.sql.Date.valueOf("2024-01-01"), roundTrip(LocalDate.of(2024, 1, 1)));
+        assertEquals("a:b", roundTrip("a:b"));
+    }
+
+    @Test
+    void bytesRoundTripAsHex() {
+        var bytes = new byte[]{0, 1, (byte) 0xab, (byte) 0xff};
+        assertEquals("bytes:0001abff", ValueCodec.encode(bytes));
+        assertArrayEquals(bytes, (byte[]) ValueCodec.decode(ValueCodec.encode(bytes)));
+    }
+
+    @Test
+    void valuesThatCannotBeReadBackAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ValueCodec.encode(new Object()));
+        assertThrows(IllegalArgumentException.class, () -> ValueCodec.encode(1.5));
+    }
+
+    private static Object roundTrip(Object value) {
+        return ValueCodec.decode(ValueCodec.encode(value));
+    }
+}
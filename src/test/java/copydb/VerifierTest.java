@@ -0,0 +1,56 @@
+package copydb;
+
+import liquibase.structure.core.Table;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VerifierTest {
+
+    @Test
+    void valuesAreWrittenAsJson() {
+        assertEquals("null", Verifier.json(null));
+        assertEquals("42", Verifier.json(42L));
+        assertEquals("-1.5", Verifier.json(-1.5));
+        assertEquals("12345678901234567890", Verifier.json(new BigDecimal("1.234567890123456789E+19")));
+        assertEquals("0.000001", Verifier.json(new BigDecimal("1E-6")));
+        assertEquals("\"NaN\"", Verifier.json(Double.NaN));
+        assertEquals("\"-Infinity\"", Verifier.json(Double.NEGATIVE_INFINITY));
+        assertEquals("\"Infinity\"", Verifier.json(Float.POSITIVE_INFINITY));
+        assertEquals("\"a \\\"b\\\" \\\\ c\\u000a\\u0009\u00e9\"", Verifier.json("a \"b\" \\ c\n\t\u00e9"));
+        assertEquals("\"2024-06-15 12:34:56.0\"", Verifier.json(Timestamp.valueOf("2024-06-15 12:34:56")));
+    }
+
+    @Test
+    void reportHasALinePerRangeByTableAndChunk() {
+        var a = task("a");
+        var b = task("b");
+        var verifier = new Verifier();
+        verifier.add(new Verifier.VerifiedRange(b.chunk(new KeyRange("id", 10L, null), 1, 2), 5, 4, false));
+        verifier.add(new Verifier.VerifiedRange(a, 3, 3, true));
+        verifier.add(new Verifier.VerifiedRange(b.chunk(new KeyRange("id", null, 10L), 0, 2), 10, 10, true));
+
+        var out = new StringWriter();
+        verifier.writeReport(new PrintWriter(out, true));
+        assertEquals(List.of(
+            "{\"table\":\"a\",\"sourceRows\":3,\"targetRows\":3,\"match\":true}",
+            "{\"table\":\"b\",\"chunk\":1,\"chunks\":2,\"column\":\"id\",\"lower\":null,\"upper\":10,"
+                + "\"sourceRows\":10,\"targetRows\":10,\"match\":true}",
+            "{\"table\":\"b\",\"chunk\":2,\"chunks\":2,\"column\":\"id\",\"lower\":10,\"upper\":null,"
+                + "\"sourceRows\":5,\"targetRows\":4,\"match\":false}"), out.toString().lines().toList());
+
+        var mismatched = verifier.getMismatched();
+        assertEquals(1, mismatched.size());
+        assertEquals(1, mismatched.get(0).task().chunk);
+    }
+
+    private static CopyTask task(String name) {
+        return new CopyTask(new Table(null, null, name), new Table(null, null, name));
+    }
+}
@@ -0,0 +1,146 @@
+package copydb.convert;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Bytes allocated and time taken per value by the conversions of {@link TextCodec}, next to the
+ * regular expressions and string round trips of the JDK they replace. Kept with the tests, it is
+ * not run by them, but after {@code mvn test-compile} with
+ * <pre>
+ * java -cp target/classes:target/test-classes copydb.convert.ConversionBenchmark [ITERATIONS]
+ * </pre>
+ * Allocation is measured for the thread running the conversions, after a warm up in which the JIT
+ * compiles them, so values that escape analysis keeps off the heap are not counted.
+ */
+final class ConversionBenchmark {
+
+    private static final Pattern HEX_PATTERN = Pattern.compile("[0-9a-fA-F]*");
+    private static final Pattern JDBC_TIMESTAMP_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+    private static final Pattern ISO8601_TIMESTAMP_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
+    private static final int VALUES = 1024;
+
+    @FunctionalInterface
+    private interface Conversion {
+        Object apply(int i);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static int sink;
+
+    private ConversionBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        var uuids = new UUID[VALUES];
+        var uuidStrings = new String[VALUES];
+        var hexStrings = new String[VALUES];
+        var jdbcTimestamps = new String[VALUES];
+        var isoTimestamps = new String[VALUES];
+        var offsetTimestamps = new String[VALUES];
+        var timestamps = new Timestamp[VALUES];
+        var subclassTimestamps = new Timestamp[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            uuids[i] = UUID.randomUUID();
+            uuidStrings[i] = uuids[i].toString();
+            hexStrings[i] = uuidStrings[i].replace("-", "").toUpperCase(Locale.ROOT);
+            var ts = Timestamp.valueOf("2024-01-01 00:00:00");
+            ts.setTime(ts.getTime() + i * 86_399_123L);
+            ts.setNanos(ts.getNanos() + i * 1000);
+            timestamps[i] = ts;
+            subclassTimestamps[i] = new Timestamp(ts.getTime()) { };
+            jdbcTimestamps[i] = ts.toString();
+            isoTimestamps[i] = jdbcTimestamps[i].replace(' ', 'T');
+            offsetTimestamps[i] = isoTimestamps[i] + (i % 2 == 0 ? "Z" : "+02:00");
+        }
+        var buf = new byte[64];
+
+        System.out.printf("%-36s %12s %12s%n", "conversion", "bytes/value", "ns/value");
+
+        run("hex to bytes, regex and HexFormat", iterations,
+            i -> HEX_PATTERN.matcher(hexStrings[i]).matches() ? HexFormat.of().parseHex(hexStrings[i]) : null);
+        run("hex to bytes, kernel", iterations, i -> TextCodec.parseHex(hexStrings[i]));
+
+        run("UUID string to bytes, JDK", iterations, i -> uuidToBytes(UUID.fromString(uuidStrings[i])));
+        run("UUID string to bytes, kernel", iterations, i -> TextCodec.parseUuidBytes(uuidStrings[i]));
+
+        run("UUID to bytes, ByteBuffer", iterations, i -> uuidToBytes(uuids[i]));
+        run("UUID to bytes, kernel", iterations, i -> Converters.uuidToBytes(uuids[i]));
+
+        run("UUID to COPY text, toString", iterations, i -> uuids[i].toString().getBytes(StandardCharsets.UTF_8));
+        run("UUID to COPY text, kernel", iterations, i -> TextCodec.formatUuid(uuids[i], buf, 0));
+
+        run("JDBC timestamp, valueOf", iterations, i -> Timestamp.valueOf(jdbcTimestamps[i]));
+        run("JDBC timestamp, kernel", iterations, i -> TextCodec.parseTimestamp(jdbcTimestamps[i]));
+
+        run("ISO timestamp, regex and valueOf", iterations, i -> {
+            var s = isoTimestamps[i];
+            if (ISO8601_TIMESTAMP_PATTERN.matcher(s).find()) {
+                s = s.substring(0, 10) + ' ' + s.substring(11);
+            }
+            return Timestamp.valueOf(s);
+        });
+        run("ISO timestamp, kernel", iterations, i -> TextCodec.parseTimestamp(isoTimestamps[i]));
+
+        run("offset timestamp, regex and parse", iterations, i -> {
+            var s = offsetTimestamps[i];
+            if (JDBC_TIMESTAMP_PATTERN.matcher(s).find()) {
+                s = s.replaceFirst(" ", "T");
+            } else if (!ISO8601_TIMESTAMP_PATTERN.matcher(s).find()) {
+                return null;
+            }
+            return OffsetDateTime.parse(s);
+        });
+        run("offset timestamp, kernel", iterations, i -> TextCodec.parseOffsetDateTime(offsetTimestamps[i]));
+
+        run("timestamp subclass, valueOf", iterations, i -> Timestamp.valueOf(subclassTimestamps[i].toString()));
+        run("timestamp subclass, kernel", iterations, i -> TextCodec.copyOf(subclassTimestamps[i]));
+
+        run("timestamp to COPY text, toString", iterations, i -> timestamps[i].toString().getBytes(StandardCharsets.UTF_8));
+        run("timestamp to COPY text, kernel", iterations, i -> TextCodec.formatTimestamp(timestamps[i], buf, 0));
+    }
+
+    private static void run(String name, int iterations, Conversion conversion) {
+        // Warm up until the conversion is compiled
+        measure(iterations, conversion);
+
+        long threadId = Thread.currentThread().getId();
+        long allocated = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        measure(iterations, conversion);
+        long nanos = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+
+        System.out.printf(Locale.ROOT, "%-36s %12.1f %12.1f%n", name, (double) allocated / iterations, (double) nanos / iterations);
+    }
+
+    private static void measure(int iterations, Conversion conversion) {
+        int hash = 0;
+        for (int i = 0; i < iterations; i++) {
+            var result = conversion.apply(i & (VALUES - 1));
+            hash += result != null ? result.hashCode() : 0;
+        }
+        sink += hash;
+    }
+
+    /**
+     * Converters.uuidToBytes before it wrote the bytes directly.
+     */
+    private static byte[] uuidToBytes(UUID uuid) {
+        var bb = ByteBuffer.wrap(new byte[16]);
+        bb.putLong(uuid.getMostSignificantBits());
+        bb.putLong(uuid.getLeastSignificantBits());
+        return bb.array();
+    }
+}
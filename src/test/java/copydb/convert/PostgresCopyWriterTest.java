@@ -0,0 +1,93 @@
+package copydb.convert;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PostgresCopyWriterTest {
+
+    @Test
+    void specialCharactersAreEscaped() throws SQLException {
+        assertEquals("a\\\\b\\tc\td\\ne\\rf\n", encode("a\\b\tc", "d\ne\rf"));
+        assertEquals("\\N\t\\\\N\n", encode(null, "\\N"));
+    }
+
+    @Test
+    void textIsEncodedAsUtf8() throws SQLException {
+        var s = "\u00e9 \u20ac \uD83D\uDE00 \u07FF\u0800\uFFFF";
+        assertArrayEquals((s + "\n").getBytes(StandardCharsets.UTF_8), encodeBytes(s));
+    }
+
+    @Test
+    void unpairedSurrogatesAreReplaced() throws SQLException {
+        assertEquals("?x\n", encode("\uD83Dx"));
+        assertEquals("x?\n", encode("x\uDE00"));
+        assertEquals("x?\n", encode("x\uD83D"));
+        assertEquals("??\n", encode("\uDE00\uD83D"));
+        for (var s : new String[]{"\uD83Dx", "x\uDE00", "x\uD83D", "\uDE00\uD83D"}) {
+            assertArrayEquals((s + "\n").getBytes(StandardCharsets.UTF_8), encodeBytes(s));
+        }
+    }
+
+    @Test
+    void integerColumnsAreRoundedAsByAnAssignmentCast() throws SQLException {
+        var writer = new PostgresCopyWriter(null, "COPY t FROM STDIN", new boolean[]{true, true, true, true});
+        writer.encode(new Object[]{new BigDecimal("2.5"), new BigDecimal("-2.5"), 2.5, 3.5f});
+        writer.encode(new Object[]{new BigDecimal("1E+3"), 7L, -0.4, 42});
+        assertEquals("3\t-3\t2\t4\n1000\t7\t0\t42\n", new String(writer.encoded(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void otherNumbersKeepTheirDigits() throws SQLException {
+        assertEquals("1.50\t1000\t0.1\t12345678901234567890\n",
+            encode(new BigDecimal("1.50"), new BigDecimal("1E+3"), 0.1, new BigInteger("12345678901234567890")));
+    }
+
+    @Test
+    void byteaIsHexWithAnEscapedPrefix() throws SQLException {
+        assertEquals("\\\\x00ff10\t\\\\x\n", encode(new byte[]{0, (byte) 0xff, 0x10}, new byte[0]));
+    }
+
+    @Test
+    void valuesAreInTheirTextForm() throws SQLException {
+        var uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        var ts = Timestamp.valueOf("2024-06-15 12:34:56.789");
+        var early = Timestamp.valueOf("0099-01-01 00:00:00");
+        assertEquals("t\tf\t123e4567-e89b-12d3-a456-426614174000\t2024-06-15 12:34:56.789\t" + early + "\t2024-02-29\n",
+            encode(true, false, uuid, ts, early, java.sql.Date.valueOf("2024-02-29")));
+    }
+
+    @Test
+    void unknownTypesAreRejected() {
+        var writer = new PostgresCopyWriter(null, "COPY t FROM STDIN", new boolean[1]);
+        assertThrows(SQLException.class, () -> writer.encode(new Object[]{new Object()}));
+    }
+
+    @Test
+    void typeNamesDropTheirPrecision() {
+        assertEquals("timestamp with time zone", PostgresCopyWriter.typeName("TIMESTAMP(6) WITH TIME ZONE"));
+        assertEquals("timestamp", PostgresCopyWriter.typeName("timestamp(3)"));
+        assertEquals("numeric", PostgresCopyWriter.typeName("NUMERIC(10, 2)"));
+        assertEquals("character varying", PostgresCopyWriter.typeName("character varying(255)"));
+        assertEquals("int4", PostgresCopyWriter.typeName("int4"));
+    }
+
+    private static String encode(Object... values) throws SQLException {
+        return new String(encodeBytes(values), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeBytes(Object... values) throws SQLException {
+        var writer = new PostgresCopyWriter(null, "COPY t FROM STDIN", new boolean[values.length]);
+        writer.encode(values);
+        return writer.encoded();
+    }
+}
@@ -0,0 +1,149 @@
+package copydb.convert;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TextCodecTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void hexRoundTrips() {
+        for (int n = 0; n < 64; n++) {
+            var bytes = new byte[n];
+            random.nextBytes(bytes);
+            var hex = HexFormat.of().formatHex(bytes);
+            assertArrayEquals(bytes, TextCodec.parseHex(hex));
+            assertArrayEquals(bytes, TextCodec.parseHex(hex.toUpperCase(Locale.ROOT)));
+        }
+    }
+
+    @Test
+    void invalidHexIsNotParsed() {
+        assertNull(TextCodec.parseHex("abc"));
+        assertNull(TextCodec.parseHex("0g"));
+        assertNull(TextCodec.parseHex("0 "));
+        assertNull(TextCodec.parseHex("\u0661\u0662"));
+        assertEquals(-1, TextCodec.hexDigit('\uff10'));
+    }
+
+    @Test
+    void uuidRoundTrips() {
+        var buf = new byte[40];
+        for (int i = 0; i < 1000; i++) {
+            var uuid = new UUID(random.nextLong(), random.nextLong());
+            var s = uuid.toString();
+            assertEquals(uuid, TextCodec.parseUuid(s));
+            assertEquals(uuid, TextCodec.parseUuid(s.toUpperCase(Locale.ROOT)));
+            assertArrayEquals(Converters.uuidToBytes(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()),
+                TextCodec.parseUuidBytes(s));
+
+            assertEquals(38, TextCodec.formatUuid(uuid, buf, 2));
+            assertEquals(s, new String(buf, 2, 36, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void nonCanonicalUuidsAreNotParsed() {
+        assertNull(TextCodec.parseUuid("123e4567e89b12d3a456426614174000"));
+        assertNull(TextCodec.parseUuid("{123e4567-e89b-12d3-a456-426614174000}"));
+        assertNull(TextCodec.parseUuid("123e4567-e89b-12d3-a456-42661417400g"));
+        assertNull(TextCodec.parseUuid("123e4567-e89b-12d3-a456_426614174000"));
+        assertNull(TextCodec.parseUuid("1-2-3-4-5"));
+        assertNull(TextCodec.parseUuidBytes("not a uuid"));
+    }
+
+    @Test
+    void timestampsParseAsTheJdkDoes() {
+        for (var s : new String[]{
+            "2024-01-01 00:00:00", "1999-12-31 23:59:59.9", "2024-06-15 12:34:56.123456789",
+            "2024-06-15 12:34:56.000001", "0001-01-01 00:00:00.5", "2023-02-31 10:00:00"}) {
+            assertEquals(Timestamp.valueOf(s), TextCodec.parseTimestamp(s), s);
+            assertEquals(Timestamp.valueOf(s), TextCodec.parseTimestamp(s.replace(' ', 'T')), s);
+        }
+    }
+
+    @Test
+    void invalidTimestampsAreNotParsed() {
+        for (var s : new String[]{
+            "2024-01-01", "2024-01-01 00:00", "2024-13-01 00:00:00", "2024-01-00 00:00:00", "2024-01-01 24:00:00",
+            "2024-01-01 00:60:00", "2024-01-01 00:00:60", "2024-01-01 00:00:00.", "2024-01-01 00:00:00.1234567890",
+            "2024-01-01 00:00:00Z", "2024-01-01_00:00:00", "2024/01/01 00:00:00", "\uff12\uff10\uff12\uff14-01-01 00:00:00"}) {
+            assertNull(TextCodec.parseTimestamp(s), s);
+        }
+    }
+
+    @Test
+    void offsetDateTimesParseAsTheJdkDoes() {
+        for (var s : new String[]{
+            "2024-01-01T00:00:00Z", "2024-06-15T12:34:56.789+02:00", "2024-06-15T12:34:56.123456789-05:30",
+            "1970-01-01T00:00:00.1+14:00", "2024-02-29T23:59:59-18:00"}) {
+            assertEquals(OffsetDateTime.parse(s), TextCodec.parseOffsetDateTime(s), s);
+            assertEquals(OffsetDateTime.parse(s), TextCodec.parseOffsetDateTime(s.replace('T', ' ')), s);
+        }
+    }
+
+    @Test
+    void invalidOffsetDateTimesAreNotParsed() {
+        for (var s : new String[]{
+            "2024-01-01T00:00:00", "2024-01-01T00:00:00+02", "2024-01-01T00:00:00+0200", "2024-01-01T00:00:00+02:60",
+            "2024-01-01T00:00:00+19:00", "2023-02-29T00:00:00Z", "2024-01-01T00:00:00.Z", "2024-01-01T00:00Z"}) {
+            assertNull(TextCodec.parseOffsetDateTime(s), s);
+        }
+    }
+
+    @Test
+    void timestampsFormatAsTheJdkDoes() {
+        var buf = new byte[32];
+        long start = Timestamp.valueOf("1000-01-01 00:00:00").getTime();
+        long end = Timestamp.valueOf("9999-12-31 23:59:59").getTime();
+        for (int i = 0; i < 1000; i++) {
+            var ts = new Timestamp(start + (long) (random.nextDouble() * (end - start)));
+            ts.setNanos(switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1000;
+                default -> random.nextInt(1_000_000_000);
+            });
+            var s = ts.toString();
+            int written = TextCodec.formatTimestamp(ts, buf, 1);
+            assertEquals(s, new String(buf, 1, written - 1, StandardCharsets.US_ASCII));
+            assertEquals(ts, TextCodec.parseTimestamp(s));
+        }
+    }
+
+    @Test
+    void yearsOtherThanFourDigitsAreNotFormatted() {
+        var buf = new byte[32];
+        assertEquals(-1, TextCodec.formatTimestamp(Timestamp.valueOf("0999-12-31 23:59:59"), buf, 0));
+        assertEquals(-1, TextCodec.formatTimestamp(new Timestamp(Timestamp.valueOf("9999-12-31 23:59:59").getTime() + 1000), buf, 0));
+        assertEquals(29, TextCodec.formatTimestamp(Timestamp.valueOf("9999-12-31 23:59:59.999999999"), buf, 0));
+    }
+
+    @Test
+    void copiesAreOfThePlainClass() {
+        var ts = new Timestamp(1_700_000_000_123L) { };
+        ts.setNanos(123_456_789);
+        var copy = TextCodec.copyOf(ts);
+        assertSame(Timestamp.class, copy.getClass());
+        assertEquals(ts.getTime(), copy.getTime());
+        assertEquals(ts.getNanos(), copy.getNanos());
+
+        var date = new java.sql.Date(java.sql.Date.valueOf("2024-02-29").getTime() + 3_600_000) { };
+        var dateCopy = TextCodec.copyOf(date);
+        assertSame(java.sql.Date.class, dateCopy.getClass());
+        assertEquals(java.sql.Date.valueOf("2024-02-29"), dateCopy);
+    }
+}
@@ -0,0 +1,62 @@
+package copydb.convert;
+
+import liquibase.structure.core.Column;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimestampTzReaderTest {
+
+    private final Column column = new Column("ts");
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    void offsetDateTimesAreReadOncePerValue() throws SQLException {
+        var dt = OffsetDateTime.of(2024, 6, 15, 12, 0, 0, 0, ZoneOffset.ofHours(2));
+        var rs = resultSet(dt, null);
+        var reader = new TimestampTzReader();
+        assertEquals(dt, reader.get(column, rs, 1));
+        assertEquals(dt, reader.get(column, rs, 1));
+        assertEquals(List.of("getObject", "getObject"), calls);
+    }
+
+    @Test
+    void driversWithoutOffsetDateTimesAreReadAsTimestamps() throws SQLException {
+        var ts = Timestamp.valueOf("2024-06-15 12:00:00");
+        var rs = resultSet(null, ts);
+        var reader = new TimestampTzReader();
+        assertEquals(ts.toInstant(), reader.get(column, rs, 1).toInstant());
+        assertEquals(ts.toInstant(), reader.get(column, rs, 1).toInstant());
+        assertEquals(List.of("getObject", "getTimestamp", "getTimestamp"), calls);
+    }
+
+    /**
+     * Result set of a driver returning the given OffsetDateTime, or failing to read one if null.
+     */
+    private ResultSet resultSet(OffsetDateTime dt, Timestamp ts) {
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> {
+                calls.add(method.getName());
+                return switch (method.getName()) {
+                    case "getObject" -> {
+                        if (dt == null) {
+                            throw new SQLFeatureNotSupportedException();
+                        }
+                        yield dt;
+                    }
+                    case "getTimestamp" -> ts;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            });
+    }
+}